@@ -0,0 +1,62 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.thirdreality.guinness.gui.OffscreenRenderer;
+import org.thirdreality.guinness.gui.Viewport;
+
+// Measures drawing whole frames of synthetic scenes (see 'SyntheticScene') into the same image again and again.
+// The text length changes the titles of the windows and the colors change the rectangles, which matters for batching (see 'Viewport.setDrawBatchingEnabled(...)').
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DrawBenchmark
+{
+	@Param({"100", "1000"})
+	public int components;
+
+	@Param({"1", "10"})
+	public int layers;
+
+	@Param({"0", "4"})
+	public int windows;
+
+	@Param({"8", "64"})
+	public int textLength;
+
+	// Zero (0) colors means every component has its own color.
+	@Param({"0", "8"})
+	public int colors;
+
+	@Param({"false", "true"})
+	public boolean batching;
+
+	private Viewport viewport;
+
+	private final OffscreenRenderer renderer = new OffscreenRenderer(SyntheticScene.WIDTH, SyntheticScene.HEIGHT);
+
+	private final BufferedImage frame = new BufferedImage(SyntheticScene.WIDTH, SyntheticScene.HEIGHT, BufferedImage.TYPE_INT_ARGB);
+
+	@Setup
+	public void setUp()
+	{
+		viewport = new SyntheticScene(components, layers, windows, textLength, colors).getViewport();
+
+		viewport.setDrawBatchingEnabled(batching);
+	}
+
+	@Benchmark
+	public BufferedImage drawComponents()
+	{
+		return renderer.render(viewport, frame);
+	}
+}
@@ -0,0 +1,62 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Point;
+import java.awt.Polygon;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.thirdreality.guinness.feature.shape.ShapeMaker;
+import org.thirdreality.guinness.feature.shape.ShapeTransform;
+
+// Compares the hit test which creates moved and scaled copies of a shape
+// with the hit test which transforms the cursor back into the space of the shape instead.
+// The GC profiler shows the allocated bytes per hit test for both of them.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HitTestBenchmark
+{
+	private final Polygon shape = ShapeMaker.createRectangle(40, 40, 200, 60);
+
+	private final Point offset = new Point(15, -7), origin = new Point(30, 20);
+
+	private final float scale = 1.5f;
+
+	// Moves the cursor over the shape and around it.
+	private final Point cursor = new Point();
+
+	private int i = 0;
+
+	private void moveCursor()
+	{
+		i++;
+
+		cursor.x = i % 500;
+		cursor.y = (i / 500) % 250;
+	}
+
+	@Benchmark
+	public boolean transformedCopies()
+	{
+		moveCursor();
+
+		Point location = shape.getBounds().getLocation();
+
+		location.translate(offset.x + origin.x, offset.y + origin.y);
+
+		return ShapeTransform.scalePolygon(ShapeTransform.movePolygonTo(shape, location), scale).contains(cursor);
+	}
+
+	@Benchmark
+	public boolean inverseTransform()
+	{
+		moveCursor();
+
+		return ShapeTransform.contains(shape, offset.x + origin.x, offset.y + origin.y, scale, cursor.x, cursor.y);
+	}
+}
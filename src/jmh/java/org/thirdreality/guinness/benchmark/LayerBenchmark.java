@@ -0,0 +1,99 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.component.decoration.GRectangle;
+import org.thirdreality.guinness.gui.layer.GLayer;
+
+// Measures how long it takes to add 1,000 layers to a Viewport.
+// The incremental maintenance of the component buffer is compared with rebuilding the whole buffer after every layer,
+// which is what adding a layer did before.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LayerBenchmark
+{
+	private static final int LAYERS = 1000, COMPONENTS_PER_LAYER = 5;
+
+	private Viewport viewport;
+
+	private GLayer[] layers;
+
+	// Every invocation adds the layers to a new Viewport, which takes milliseconds, so preparing it does not distort the result.
+	@Setup(Level.Invocation)
+	public void setUp()
+	{
+		// A Viewport without an EventHandler is only used for rendering, so it does not need a Display.
+		viewport = new Viewport(null, false);
+
+		viewport.setSize(1920, 1080);
+
+		layers = createLayers();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown()
+	{
+		if(viewport.sizeOfComponentOutput() != LAYERS * COMPONENTS_PER_LAYER)
+		{
+			throw new IllegalStateException("Not all components were added to the output!");
+		}
+	}
+
+	@Benchmark
+	public Viewport incremental()
+	{
+		for(GLayer layer : layers)
+		{
+			viewport.addLayer(layer);
+		}
+
+		return viewport;
+	}
+
+	@Benchmark
+	public Viewport fullRebuild()
+	{
+		for(GLayer layer : layers)
+		{
+			viewport.addLayer(layer);
+
+			viewport.updateComponentBuffer();
+			viewport.outputComponentBuffer();
+		}
+
+		return viewport;
+	}
+
+	// The layers are created in an order which does not match their priorities, so they are inserted all over the buffer.
+	private static GLayer[] createLayers()
+	{
+		GLayer[] layers = new GLayer[LAYERS];
+
+		for(int i = 0; i < LAYERS; i++)
+		{
+			GLayer layer = new GLayer((i * 7919) % LAYERS, true);
+
+			for(int c = 0; c < COMPONENTS_PER_LAYER; c++)
+			{
+				layer.add(new GRectangle(c * 30, i % 100, new Dimension(20, 20), Color.WHITE, 1f));
+			}
+
+			layers[i] = layer;
+		}
+
+		return layers;
+	}
+}
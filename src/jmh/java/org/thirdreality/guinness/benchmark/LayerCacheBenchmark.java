@@ -0,0 +1,88 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.component.decoration.GRectangle;
+import org.thirdreality.guinness.gui.layer.GLayer;
+
+// Measures how long it takes to draw a frame of a static layer with 1,000 rounded rectangles while the Viewport is moved.
+// A cached layer (see 'GLayer.setCached(...)') is compared with a layer which draws all of its components on every frame.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LayerCacheBenchmark
+{
+	private static final int COMPONENTS = 1000;
+
+	private static final int WIDTH = 1280, HEIGHT = 720;
+
+	@Param({"false", "true"})
+	public boolean cached;
+
+	private Viewport viewport;
+
+	private Graphics2D g;
+
+	private int frame = 0;
+
+	@Setup
+	public void setUp()
+	{
+		// A Viewport without an EventHandler is only used for rendering, so it does not need a Display.
+		viewport = new Viewport(null, false);
+
+		viewport.setSize(WIDTH, HEIGHT);
+
+		GLayer layer = new GLayer(0, true);
+
+		layer.setCached(cached);
+
+		for(int i = 0; i < COMPONENTS; i++)
+		{
+			GRectangle rectangle = new GRectangle((i % 40) * 30, (i / 40) * 30, new Dimension(24, 24), new Color(i * 7919 % 0xFFFFFF), 1f);
+
+			rectangle.getStyle().getBorderProperties().setBorderRadiusPx(6);
+			rectangle.getStyle().markGeometryDirty();
+
+			layer.add(rectangle);
+		}
+
+		viewport.addLayer(layer);
+
+		g = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB).createGraphics();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		g.dispose();
+	}
+
+	@Benchmark
+	public void drawFrame()
+	{
+		frame++;
+
+		viewport.setOffset(new Point(frame % 50, frame % 30));
+
+		g.setColor(Color.BLACK);
+		g.fillRect(0, 0, WIDTH, HEIGHT);
+
+		viewport.drawComponents(g);
+	}
+}
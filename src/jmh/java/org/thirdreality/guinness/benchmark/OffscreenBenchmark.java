@@ -0,0 +1,74 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.thirdreality.guinness.gui.OffscreenRenderer;
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.component.decoration.GRectangle;
+import org.thirdreality.guinness.gui.layer.GLayer;
+
+// Renders 32 offscreen Viewports (headless) one after another and in parallel (see 'OffscreenRenderer.renderAll(...)').
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OffscreenBenchmark
+{
+	private static final int VIEWPORTS = 32, COMPONENTS = 200;
+
+	private final OffscreenRenderer renderer = new OffscreenRenderer(1280, 720, 1.5f);
+
+	private final List<Viewport> viewports = new ArrayList<Viewport>(VIEWPORTS);
+
+	@Setup
+	public void setUp()
+	{
+		for(int v = 0; v < VIEWPORTS; v++)
+		{
+			Viewport viewport = new Viewport();
+
+			GLayer layer = new GLayer(0, true);
+
+			for(int i = 0; i < COMPONENTS; i++)
+			{
+				GRectangle rectangle = new GRectangle((i % 20) * 40, (i / 20) * 40, new Dimension(32, 32), new Color((i + v) * 7919 % 0xFFFFFF), 1f);
+
+				rectangle.getStyle().getBorderProperties().setBorderRadiusPx(8);
+				rectangle.getStyle().markGeometryDirty();
+
+				layer.add(rectangle);
+			}
+
+			viewport.addLayer(layer);
+
+			viewports.add(viewport);
+		}
+	}
+
+	@Benchmark
+	public void sequential(Blackhole blackhole)
+	{
+		for(Viewport viewport : viewports)
+		{
+			blackhole.consume(renderer.render(viewport));
+		}
+	}
+
+	@Benchmark
+	public List<BufferedImage> parallel()
+	{
+		return renderer.renderAll(viewports);
+	}
+}
@@ -0,0 +1,87 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.thirdreality.guinness.feature.shape.ShapeMaker;
+import org.thirdreality.guinness.gui.component.style.property.GBorderProperty;
+
+// Measures how long it takes to create, hit test and fill a rounded rectangle.
+// The adaptive tessellation is compared with the former fixed tessellation (1,000 points per corner)
+// and with the RoundRectangle2D which is filled by the native rasterizer of Java2D.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoundRectangleBenchmark
+{
+	// A tolerance this low always results in the maximum amount of points per corner, just like before.
+	private static final float FIXED_TOLERANCE_PX = 1e-6f;
+
+	@Param({"fixed", "adaptive", "native"})
+	public String shapeType;
+
+	private final Rectangle rect = new Rectangle(20, 20, 200, 60);
+
+	private final GBorderProperty border = new GBorderProperty(12);
+
+	private Shape shape;
+
+	private Graphics2D g;
+
+	// Tests points all over the bounds, including the corners.
+	private int i = 0;
+
+	@Setup
+	public void setUp()
+	{
+		shape = create();
+
+		g = new BufferedImage(240, 100, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+		g.setColor(Color.WHITE);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		g.dispose();
+	}
+
+	@Benchmark
+	public Shape create()
+	{
+		if(shapeType.contentEquals("native"))
+		{
+			return ShapeMaker.createRoundRectangle(rect, border);
+		}
+
+		return ShapeMaker.createRectangleFrom(rect, border, shapeType.contentEquals("fixed") ? FIXED_TOLERANCE_PX : ShapeMaker.DEFAULT_TOLERANCE_PX);
+	}
+
+	@Benchmark
+	public boolean contains()
+	{
+		i++;
+
+		return shape.contains(rect.x + i % rect.width, rect.y + (i / rect.width) % rect.height);
+	}
+
+	@Benchmark
+	public void fill()
+	{
+		g.fill(shape);
+	}
+}
@@ -0,0 +1,68 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.adapter.MouseAdapter;
+import org.thirdreality.guinness.gui.component.GComponent;
+
+// Measures the hit test of the cursor and the update of the component buffer on synthetic scenes (see 'SyntheticScene').
+// Neither depends on the text length or the colors, so only the size of the scene is varied here (see 'DrawBenchmark' for drawing).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SceneBenchmark
+{
+	@Param({"100", "1000"})
+	public int components;
+
+	@Param({"1", "10"})
+	public int layers;
+
+	@Param({"0", "4"})
+	public int windows;
+
+	private Viewport viewport;
+
+	// Only the hit test is used, so the MouseAdapter does not need a Display.
+	private final MouseAdapter mouseAdapter = new MouseAdapter(null);
+
+	// Moves the cursor over the whole scene.
+	private final Point cursor = new Point();
+
+	private int i = 0;
+
+	@Setup
+	public void setUp()
+	{
+		viewport = new SyntheticScene(components, layers, windows, 8).getViewport();
+	}
+
+	@Benchmark
+	public GComponent getFocusedComponent()
+	{
+		i++;
+
+		cursor.x = (i * 37) % SyntheticScene.WIDTH;
+		cursor.y = (i * 13) % SyntheticScene.HEIGHT;
+
+		return mouseAdapter.getFocusedComponent(viewport, cursor);
+	}
+
+	@Benchmark
+	public Viewport updateComponentBuffer()
+	{
+		viewport.updateComponentBuffer();
+
+		return viewport;
+	}
+}
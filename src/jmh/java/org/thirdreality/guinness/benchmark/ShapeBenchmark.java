@@ -0,0 +1,67 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Point;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.thirdreality.guinness.feature.shape.ShapeMaker;
+import org.thirdreality.guinness.feature.shape.ShapeTransform;
+import org.thirdreality.guinness.gui.component.style.property.GBorderProperty;
+
+// Measures how the shapes of components are created, moved, scaled and hit tested for different border radii.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ShapeBenchmark
+{
+	@Param({"0", "12", "48"})
+	public int radius;
+
+	private final Rectangle rect = new Rectangle(40, 40, 200, 60);
+
+	private final Point location = new Point(55, 33);
+
+	private GBorderProperty border;
+
+	private Polygon shape;
+
+	// Moves the tested point over the whole shape, including its corners.
+	private int i = 0;
+
+	@Setup
+	public void setUp()
+	{
+		border = new GBorderProperty(radius);
+
+		shape = ShapeMaker.createRectangleFrom(rect, border);
+	}
+
+	@Benchmark
+	public Polygon createRectangleFrom()
+	{
+		return ShapeMaker.createRectangleFrom(rect, border);
+	}
+
+	@Benchmark
+	public Polygon moveAndScale()
+	{
+		return ShapeTransform.scalePolygon(ShapeTransform.movePolygonTo(shape, location), 1.5f);
+	}
+
+	@Benchmark
+	public boolean contains()
+	{
+		i++;
+
+		return ShapeTransform.contains(shape, location.x, location.y, 1.5f, i % 500, (i / 500) % 250);
+	}
+}
@@ -0,0 +1,87 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.thirdreality.guinness.gui.OffscreenRenderer;
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.snapshot.SceneSnapshot;
+
+// Writes a synthetic scene (see 'SyntheticScene') into a snapshot and restores it again (see 'SceneSnapshot').
+// Before measuring, the restored scene is compared pixel by pixel with the original one.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotBenchmark
+{
+	@Param({"50000"})
+	public int components;
+
+	@Param({"10"})
+	public int layers;
+
+	@Param({"4"})
+	public int windows;
+
+	private Viewport viewport;
+
+	private File file;
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		viewport = new SyntheticScene(components, layers, windows, 16).getViewport();
+
+		file = File.createTempFile("guinness", ".snapshot");
+
+		SceneSnapshot.write(viewport, file);
+
+		Viewport restored = SceneSnapshot.read(file);
+
+		restored.setSize(SyntheticScene.WIDTH, SyntheticScene.HEIGHT);
+
+		OffscreenRenderer renderer = new OffscreenRenderer(SyntheticScene.WIDTH, SyntheticScene.HEIGHT);
+
+		BufferedImage original = renderer.render(viewport), copy = renderer.render(restored);
+
+		int[] originalPixels = original.getRGB(0, 0, original.getWidth(), original.getHeight(), null, 0, original.getWidth());
+		int[] copyPixels = copy.getRGB(0, 0, copy.getWidth(), copy.getHeight(), null, 0, copy.getWidth());
+
+		if(!Arrays.equals(originalPixels, copyPixels))
+		{
+			throw new IllegalStateException("The restored scene does not look like the original one!");
+		}
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		file.delete();
+	}
+
+	@Benchmark
+	public File write() throws IOException
+	{
+		SceneSnapshot.write(viewport, file);
+
+		return file;
+	}
+
+	@Benchmark
+	public Viewport read() throws IOException
+	{
+		return SceneSnapshot.read(file);
+	}
+}
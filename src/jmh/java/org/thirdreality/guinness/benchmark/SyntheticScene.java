@@ -0,0 +1,126 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.component.decoration.GRectangle;
+import org.thirdreality.guinness.gui.component.placeholder.GWindow;
+import org.thirdreality.guinness.gui.component.style.property.GBorderProperty;
+import org.thirdreality.guinness.gui.layer.GLayer;
+
+// An offscreen Viewport with a given amount of components, layers and windows for benchmarks.
+// The components are rounded rectangles which are spread over the layers and placed in a grid, so they never intersect within a layer.
+// The windows have titles with the given text length.
+public class SyntheticScene
+{
+	public static final int WIDTH = 1920, HEIGHT = 1080;
+
+	// Every component is placed in a cell of the grid.
+	private static final int CELL = 48, SIZE = 40;
+
+	private final int components, layers, windows, textLength, colors;
+
+	private final Viewport viewport;
+
+	public SyntheticScene(int components, int layers, int windows, int textLength) throws IllegalArgumentException
+	{
+		this(components, layers, windows, textLength, 0);
+	}
+
+	// The components share the given amount of colors, e.g. to measure batching (see 'Viewport.setDrawBatchingEnabled(...)').
+	// Zero (0) colors means every component has its own color.
+	public SyntheticScene(int components, int layers, int windows, int textLength, int colors) throws IllegalArgumentException
+	{
+		if(components < 0 || layers <= 0 || windows < 0 || textLength < 0 || colors < 0)
+		{
+			throw new IllegalArgumentException("A synthetic scene needs at least one layer and cannot have a negative amount of components, windows, characters or colors!");
+		}
+
+		this.components = components;
+		this.layers = layers;
+		this.windows = windows;
+		this.textLength = textLength;
+		this.colors = colors;
+
+		viewport = new Viewport();
+
+		viewport.setSize(WIDTH, HEIGHT);
+
+		createLayers();
+		createWindows();
+	}
+
+	private void createLayers()
+	{
+		int columns = WIDTH / CELL;
+
+		for(int l = 0; l < layers; l++)
+		{
+			GLayer layer = new GLayer(l, true);
+
+			// The components of every layer begin in the upper left corner, so the layers overlap each other.
+			for(int i = l, cell = 0; i < components; i += layers, cell++)
+			{
+				GRectangle rectangle = new GRectangle((cell % columns) * CELL + l, (cell / columns) * CELL + l, new Dimension(SIZE, SIZE), new Color((colors == 0 ? i : i % colors) * 7919 % 0xFFFFFF), 1f);
+
+				rectangle.getStyle().getBorderProperties().setBorderRadiusPx(i % 3 * 6);
+				rectangle.getStyle().markGeometryDirty();
+
+				layer.add(rectangle);
+			}
+
+			viewport.addLayer(layer);
+		}
+	}
+
+	private void createWindows()
+	{
+		GBorderProperty borderProperties = new GBorderProperty(10, 5);
+
+		for(int w = 0; w < windows; w++)
+		{
+			Rectangle bounds = new Rectangle(new Point(100 + w * 60, 80 + w * 40), new Dimension(600, 400));
+
+			GWindow window = new GWindow(createText(textLength), null, bounds, borderProperties, null);
+
+			viewport.getWindowManager().addWindow(window);
+		}
+	}
+
+	// Creates a text of the given length with the characters every font supports.
+	public static String createText(int length)
+	{
+		StringBuilder text = new StringBuilder(length);
+
+		for(int i = 0; i < length; i++)
+		{
+			text.append((char) ('a' + i % 26));
+		}
+
+		return text.toString();
+	}
+
+	public Viewport getViewport()
+	{
+		return viewport;
+	}
+
+	public int getColors()
+	{
+		return colors;
+	}
+
+	public int getTextLength()
+	{
+		return textLength;
+	}
+
+	// Describes the parameters of this scene, e.g. for the report of a benchmark.
+	public String getParameters()
+	{
+		return "components=" + components + ", layers=" + layers + ", windows=" + windows + ", textLength=" + textLength + ", colors=" + colors;
+	}
+}
@@ -0,0 +1,78 @@
+package org.thirdreality.guinness.benchmark;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.thirdreality.guinness.draw.DrawToolkit;
+import org.thirdreality.guinness.feature.Path;
+import org.thirdreality.guinness.gui.font.BitmapTextBackend;
+import org.thirdreality.guinness.gui.font.Font;
+import org.thirdreality.guinness.gui.font.TrueTypeTextBackend;
+
+// Measures drawing a text character by character and as a cached text run (see 'DrawToolkit.drawCachedString(...)').
+// Both text backends are measured with the same texts and font sizes (see 'Font.setTextBackend(...)').
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TextBenchmark
+{
+	@Param({"8", "64"})
+	public int textLength;
+
+	@Param({"18", "72"})
+	public int fontSize;
+
+	@Param({"bitmap", "truetype"})
+	public String backend;
+
+	private final Point position = new Point(0, 10);
+
+	private String text;
+
+	private Font font;
+
+	private Graphics2D g;
+
+	@Setup
+	public void setUp()
+	{
+		text = SyntheticScene.createText(textLength);
+
+		font = new Font("benchmark", Path.FONT_FOLDER + File.separator + "StandardFont.png", fontSize);
+
+		font.setTextBackend(backend.contentEquals("truetype") ? new TrueTypeTextBackend() : BitmapTextBackend.INSTANCE);
+
+		g = new BufferedImage(SyntheticScene.WIDTH, fontSize + 20, BufferedImage.TYPE_INT_ARGB).createGraphics();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		g.dispose();
+	}
+
+	@Benchmark
+	public Dimension drawString()
+	{
+		return DrawToolkit.drawString(g, text, position, font);
+	}
+
+	@Benchmark
+	public void drawCachedString()
+	{
+		DrawToolkit.drawCachedString(g, text, position, font);
+	}
+}
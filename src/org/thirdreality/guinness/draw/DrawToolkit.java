@@ -2,11 +2,9 @@ package org.thirdreality.guinness.draw;
 
 import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Image;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
 
-import org.thirdreality.guinness.feature.image.ImageToolkit;
 import org.thirdreality.guinness.gui.font.Font;
 import org.thirdreality.guinness.gui.font.FontLoader;
 
@@ -14,10 +12,33 @@ public class DrawToolkit
 {
 	private static FontLoader fontLoader = new FontLoader();
 	
+	// Keeps all glyphs colorized and scaled yet, so they only need to be drawn.
+	private static GlyphCache glyphCache = new GlyphCache();
+	
+	// Keeps whole texts drawn yet, so texts which do not change (e.g. titles) are drawn as a single image.
+	private static TextRunCache textRunCache = new TextRunCache();
+	
 	// Displays a letter from the delivered alphabet pattern on the specified
 	// graphics object.
 	public static void drawChar(Graphics g, char letter, int xPos, int yPos, Font font)
 	{
+		BufferedImage glyph = getGlyph(letter, font);
+
+		if(glyph != null)
+		{
+			g.drawImage(glyph, xPos, yPos, null);
+		}
+	}
+	
+	// Returns the colorized and scaled symbol for the given letter from the glyph cache.
+	// Returns null if the font size is too small for the symbol to be displayed.
+	private static BufferedImage getGlyph(char letter, Font font)
+	{
+		if(font.getFontSize() <= 0)
+		{
+			return null;
+		}
+		
 		// This will determine the correct index for the symbol.
 		// The index is later used to calculate the correct position in the font image file (PNG).
 		int index = fontLoader.getSymbolIndex(letter);
@@ -27,51 +48,55 @@ public class DrawToolkit
 		// Scaling it can blur the symbol.
 		int dim = 30;
 
-		if(fontLoader.isImplemented(letter) && index > -1)
+		if(!fontLoader.isImplemented(letter) || index <= -1)
 		{
-			// This determines the correct position of the symbol on the x-axis in the font image file (PNG).
-			// The font image file contains borders for each symbol (for better distinguishing and readibility for modifications).
-			int x = (index - 1) * 30 + index;
-			
-			// In the font image file (PNG), the symbols always begin from the second pixel on the top.
-			// The first pixel is just a kind of border (read description above for 'x').
-			int y = 1;
-
-			BufferedImage img = font.getImage().getSubimage(x, y, dim, dim);
-
-			Image colorized = ImageToolkit.colorize(img, font.getFontColor()).getScaledInstance(font.getFontSize(), font.getFontSize(), Image.SCALE_SMOOTH);
-
-			g.drawImage(colorized, xPos, yPos, null);
+			// The symbol was not found, so a '0' is displayed instead.
+			index = fontLoader.getDigitIndex('0');
 		}
-		else
-		{
-			int indexSymbolNotFound = fontLoader.getDigitIndex('0');
-
-			int xSymbolNotFound = (indexSymbolNotFound - 1) * 30 + indexSymbolNotFound, ySymbolNotFound = 1;
 
-			BufferedImage img = font.getImage().getSubimage(xSymbolNotFound, ySymbolNotFound, dim, dim);
+		// This determines the correct position of the symbol on the x-axis in the font image file (PNG).
+		// The font image file contains borders for each symbol (for better distinguishing and readibility for modifications).
+		int x = (index - 1) * 30 + index;
+		
+		// In the font image file (PNG), the symbols always begin from the second pixel on the top.
+		// The first pixel is just a kind of border (read description above for 'x').
+		int y = 1;
 
-			Image colorized = ImageToolkit.colorize(img, font.getFontColor()).getScaledInstance(font.getFontSize(), font.getFontSize(), Image.SCALE_SMOOTH);
-
-			g.drawImage(colorized, xPos, yPos, null);
-		}
+		return glyphCache.get(font.getFile().getPath(), index, font.getFontSize(), font.getFontColor(), font.getImage(), x, y, dim);
 	}
 
-	// Displays a whole string (only alphabetic letters) and scales it according to
-	// the specified font size.
+	// Displays a whole string and scales it according to the specified font size.
+	// The text is drawn by the text backend of the font, by default only alphabetic letters are supported (see 'Font.setTextBackend(...)').
 	public static Dimension drawString(Graphics g, String text, Point pos, Font font)
 	{
-		char[] converted = text.toCharArray();
+		font.getTextBackend().drawString(g, text, pos.x, pos.y, font);
 
-		int offset = 0;
+		return new Dimension(font.getFontSize() * text.length(), font.getFontSize());
+	}
 
-		for (char c : converted)
+	// The same as above, but the whole text is drawn as one image from the text run cache (see 'TextRunCache').
+	// Meant for texts which hardly ever change, like titles. Texts which are not cached are drawn by the text backend of the font.
+	public static void drawCachedString(Graphics g, String text, Point pos, Font font)
+	{
+		BufferedImage run = font.getTextBackend().isRunCacheable() ? textRunCache.get(text, font) : null;
+		
+		if(run != null)
 		{
-			drawChar(g, c, pos.x + font.getFontSize() * offset, pos.y, font);
-
-			offset++;
+			g.drawImage(run, pos.x, pos.y, null);
 		}
+		else
+		{
+			drawString(g, text, pos, font);
+		}
+	}
 
-		return new Dimension(font.getFontSize() * text.length(), font.getFontSize());
+	public static GlyphCache getGlyphCache()
+	{
+		return glyphCache;
+	}
+	
+	public static TextRunCache getTextRunCache()
+	{
+		return textRunCache;
 	}
 }
\ No newline at end of file
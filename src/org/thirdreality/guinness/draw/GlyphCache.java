@@ -0,0 +1,161 @@
+package org.thirdreality.guinness.draw;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+import org.thirdreality.guinness.feature.BudgetedCache;
+import org.thirdreality.guinness.feature.image.ImageToolkit;
+
+// Keeps all glyphs which were drawn before, already colorized and scaled to the requested font size.
+// Without this cache every single character would be cut out of the font image file (PNG), colorized and re-scaled on every frame.
+// A glyph is identified by its font file, its index in the font image file, its font size and its color.
+// The least recently used glyphs are thrown away first when the memory budget is exceeded (see 'BudgetedCache').
+public class GlyphCache
+{
+	// The default memory budget is 8 MB which is enough for a few thousand glyphs in common font sizes.
+	public static final long DEFAULT_BUDGET_BYTES = 8L * 1024 * 1024;
+
+	// Every pixel of a glyph is stored as an ARGB integer.
+	private static final int BYTES_PER_PIXEL = 4;
+
+	private final BudgetedCache<GlyphKey, BufferedImage> glyphs;
+
+	// This key is only used for lookups, so no new key needs to be created when a glyph is in the cache yet.
+	private final GlyphKey lookup = new GlyphKey();
+
+	public GlyphCache()
+	{
+		this(DEFAULT_BUDGET_BYTES);
+	}
+
+	public GlyphCache(long budgetBytes)
+	{
+		glyphs = new BudgetedCache<GlyphKey, BufferedImage>(budgetBytes, 256, new BudgetedCache.Sizer<BufferedImage>()
+		{
+			@Override
+			public long sizeOf(BufferedImage glyph)
+			{
+				return (long) glyph.getWidth() * glyph.getHeight() * BYTES_PER_PIXEL;
+			}
+		});
+	}
+
+	// Returns the glyph at the given index of the font image file (PNG), ready to be drawn.
+	// If the glyph is not cached yet, it will be created by the given glyph source and then stored.
+	public synchronized BufferedImage get(String fontFile, int index, int fontSize, Color color, BufferedImage atlas, int x, int y, int dim)
+	{
+		lookup.set(fontFile, index, fontSize, color.getRGB());
+
+		BufferedImage glyph = glyphs.get(lookup);
+
+		if(glyph != null)
+		{
+			return glyph;
+		}
+
+		glyph = createGlyph(atlas.getSubimage(x, y, dim, dim), fontSize, color);
+
+		return glyphs.put(new GlyphKey().set(fontFile, index, fontSize, color.getRGB()), glyph);
+	}
+
+	// Colorizes and scales the glyph once, so it can be drawn directly afterwards.
+	private BufferedImage createGlyph(BufferedImage source, int fontSize, Color color)
+	{
+		Image scaled = ImageToolkit.colorize(source, color).getScaledInstance(fontSize, fontSize, Image.SCALE_SMOOTH);
+
+		BufferedImage glyph = new BufferedImage(fontSize, fontSize, BufferedImage.TYPE_INT_ARGB);
+
+		Graphics2D g = glyph.createGraphics();
+
+		g.drawImage(scaled, 0, 0, null);
+		g.dispose();
+
+		return glyph;
+	}
+
+	public synchronized void clear()
+	{
+		glyphs.clear();
+	}
+
+	public synchronized long getBudget()
+	{
+		return glyphs.getBudget();
+	}
+
+	// Sets the memory budget in bytes. If the cache uses more memory yet, the oldest glyphs are removed directly.
+	public synchronized void setBudget(long budgetBytes) throws IllegalArgumentException
+	{
+		glyphs.setBudget(budgetBytes);
+	}
+
+	public synchronized long getUsedBytes()
+	{
+		return glyphs.getUsed();
+	}
+
+	public synchronized int size()
+	{
+		return glyphs.size();
+	}
+
+	public synchronized long getHits()
+	{
+		return glyphs.getHits();
+	}
+
+	public synchronized long getMisses()
+	{
+		return glyphs.getMisses();
+	}
+
+	public synchronized long getEvictions()
+	{
+		return glyphs.getEvictions();
+	}
+
+	// Identifies a single glyph in the cache.
+	private static final class GlyphKey
+	{
+		private String fontFile;
+
+		private int index, fontSize, rgb;
+
+		private GlyphKey set(String fontFile, int index, int fontSize, int rgb)
+		{
+			this.fontFile = fontFile;
+			this.index = index;
+			this.fontSize = fontSize;
+			this.rgb = rgb;
+
+			return this;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = fontFile.hashCode();
+
+			hash = 31 * hash + index;
+			hash = 31 * hash + fontSize;
+			hash = 31 * hash + rgb;
+
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(!(obj instanceof GlyphKey))
+			{
+				return false;
+			}
+
+			GlyphKey other = (GlyphKey) obj;
+
+			return index == other.index && fontSize == other.fontSize && rgb == other.rgb && fontFile.equals(other.fontFile);
+		}
+	}
+}
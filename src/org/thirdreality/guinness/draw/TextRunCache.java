@@ -0,0 +1,175 @@
+package org.thirdreality.guinness.draw;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+
+import org.thirdreality.guinness.feature.BudgetedCache;
+import org.thirdreality.guinness.gui.font.Font;
+import org.thirdreality.guinness.gui.font.TextBackend;
+
+// Keeps whole texts (runs) which were drawn before as single images, e.g. the titles of buttons and windows.
+// These texts hardly ever change, but without this cache every glyph of them would be drawn by itself on every frame (see 'DrawToolkit.drawString(...)').
+// A run is identified by its text, its font file, its text backend, its font size and its color.
+// So when the title, the font or the scale (and with it the font size) changes, the new run is simply not found and drawn once again.
+// The old run is not used anymore and thrown away when the pixel budget is exceeded, beginning with the least recently used run (see 'BudgetedCache').
+public class TextRunCache
+{
+	// The default budget is 2 megapixels (8 MB), which is enough for hundreds of titles in common font sizes.
+	public static final long DEFAULT_BUDGET_PIXELS = 2L * 1024 * 1024;
+
+	private final BudgetedCache<RunKey, BufferedImage> runs;
+
+	// This key is only used for lookups, so no new key needs to be created when a run is in the cache yet.
+	private final RunKey lookup = new RunKey();
+
+	// Is reused to draw the glyphs into a new run.
+	private final Point glyphPosition = new Point();
+
+	public TextRunCache()
+	{
+		this(DEFAULT_BUDGET_PIXELS);
+	}
+
+	public TextRunCache(long budgetPixels)
+	{
+		runs = new BudgetedCache<RunKey, BufferedImage>(budgetPixels, 64, new BudgetedCache.Sizer<BufferedImage>()
+		{
+			@Override
+			public long sizeOf(BufferedImage run)
+			{
+				return (long) run.getWidth() * run.getHeight();
+			}
+		});
+	}
+
+	// Returns the image of the given text, drawn with the given font.
+	// Returns 'null' if the text is empty, the font size is too small or the run would take more than a quarter of the budget.
+	// Such texts need to be drawn glyph by glyph (see 'DrawToolkit.drawString(...)').
+	public synchronized BufferedImage get(String text, Font font)
+	{
+		int fontSize = font.getFontSize();
+
+		if(text.isEmpty() || fontSize <= 0 || (long) fontSize * fontSize * text.length() > runs.getBudget() / 4)
+		{
+			return null;
+		}
+
+		lookup.set(text, font.getFile().getPath(), font.getTextBackend(), fontSize, font.getFontColor().getRGB());
+
+		BufferedImage run = runs.get(lookup);
+
+		if(run != null)
+		{
+			return run;
+		}
+
+		run = createRun(text, font);
+
+		return runs.put(new RunKey().set(text, font.getFile().getPath(), font.getTextBackend(), fontSize, font.getFontColor().getRGB()), run);
+	}
+
+	// Draws the glyphs of the text into a new image, just as they would be drawn onto the Viewport.
+	private BufferedImage createRun(String text, Font font)
+	{
+		BufferedImage run = new BufferedImage(font.getFontSize() * text.length(), font.getFontSize(), BufferedImage.TYPE_INT_ARGB);
+
+		Graphics2D g = run.createGraphics();
+
+		glyphPosition.setLocation(0, 0);
+
+		DrawToolkit.drawString(g, text, glyphPosition, font);
+
+		g.dispose();
+
+		return run;
+	}
+
+	public synchronized void clear()
+	{
+		runs.clear();
+	}
+
+	public synchronized long getBudget()
+	{
+		return runs.getBudget();
+	}
+
+	// Sets the budget in pixels. If the cache uses more pixels yet, the oldest runs are removed directly.
+	public synchronized void setBudget(long budgetPixels) throws IllegalArgumentException
+	{
+		runs.setBudget(budgetPixels);
+	}
+
+	public synchronized long getUsedPixels()
+	{
+		return runs.getUsed();
+	}
+
+	public synchronized int size()
+	{
+		return runs.size();
+	}
+
+	public synchronized long getHits()
+	{
+		return runs.getHits();
+	}
+
+	public synchronized long getMisses()
+	{
+		return runs.getMisses();
+	}
+
+	public synchronized long getEvictions()
+	{
+		return runs.getEvictions();
+	}
+
+	// Identifies a single run in the cache.
+	private static final class RunKey
+	{
+		private String text, fontFile;
+
+		private TextBackend backend;
+
+		private int fontSize, rgb;
+
+		private RunKey set(String text, String fontFile, TextBackend backend, int fontSize, int rgb)
+		{
+			this.text = text;
+			this.fontFile = fontFile;
+			this.backend = backend;
+			this.fontSize = fontSize;
+			this.rgb = rgb;
+
+			return this;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = text.hashCode();
+
+			hash = 31 * hash + fontFile.hashCode();
+			hash = 31 * hash + System.identityHashCode(backend);
+			hash = 31 * hash + fontSize;
+			hash = 31 * hash + rgb;
+
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(!(obj instanceof RunKey))
+			{
+				return false;
+			}
+
+			RunKey other = (RunKey) obj;
+
+			return fontSize == other.fontSize && rgb == other.rgb && backend == other.backend && text.equals(other.text) && fontFile.equals(other.fontFile);
+		}
+	}
+}
@@ -1,12 +1,45 @@
 package org.thirdreality.guinness.exec;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 public abstract class LoopedThread
 {
+	// Decides when the next tick starts if a tick rate is set.
+	public enum TickPolicy
+	{
+		// The ticks start at a fixed rate, no matter how long a single tick took.
+		// If a tick takes longer than the interval (overrun), the next tick starts immediately,
+		// but the missed ticks are not caught up afterwards.
+		FIXED_RATE,
+
+		// There is always the same delay between the end of a tick and the start of the next tick.
+		FIXED_DELAY
+	}
+
 	private Thread loop = null;
 
 	// Needs to be 'volatile'. Otherwise other processes would not get the current value.
 	private volatile boolean breakLoop = false;
 
+	// The time between two ticks. Zero means the loop runs as fast as possible (no tick rate).
+	private volatile long tickIntervalNs = 0;
+
+	private volatile TickPolicy tickPolicy = TickPolicy.FIXED_RATE;
+
+	// When enabled, the loop only runs after it was signalled (see 'signal()'), e.g. by an input event.
+	// Otherwise the thread sleeps, so it does not use the CPU at all.
+	private volatile boolean sleepingUntilSignalled = false;
+
+	// The longest time the thread sleeps without a signal. Zero means it sleeps until it is signalled.
+	private volatile long maxSleepNs = 0;
+
+	private final AtomicBoolean signalled = new AtomicBoolean(false);
+
+	private final AtomicLong ticks = new AtomicLong(), overruns = new AtomicLong(), overrunNs = new AtomicLong();
+
 	public LoopedThread()
 	{
 		loop = new Thread()
@@ -14,14 +47,98 @@ public abstract class LoopedThread
 			@Override
 			public void run()
 			{
+				long nextTickNs = System.nanoTime();
+
 				while(!tryingBreak())
 				{
+					if(sleepingUntilSignalled)
+					{
+						awaitSignal();
+
+						if(tryingBreak())
+						{
+							break;
+						}
+					}
+
+					long startNs = System.nanoTime();
+
 					loop();
+
+					ticks.incrementAndGet();
+
+					long intervalNs = tickIntervalNs;
+
+					if(intervalNs > 0)
+					{
+						long endNs = System.nanoTime();
+
+						if(tickPolicy == TickPolicy.FIXED_DELAY)
+						{
+							nextTickNs = endNs + intervalNs;
+						}
+						else
+						{
+							// A tick which waited for a signal starts a new rate from its own beginning.
+							nextTickNs = Math.max(nextTickNs, startNs) + intervalNs;
+
+							long lateNs = endNs - nextTickNs;
+
+							if(lateNs > 0)
+							{
+								overruns.incrementAndGet();
+								overrunNs.addAndGet(lateNs);
+
+								// The missed ticks are skipped.
+								nextTickNs = endNs;
+							}
+						}
+
+						parkUntil(nextTickNs);
+					}
 				}
 			}
 		};
 	}
 
+	// Parks the thread until the given time has come or the loop is about to break.
+	private void parkUntil(long deadlineNs)
+	{
+		long remaining;
+
+		while(!tryingBreak() && (remaining = deadlineNs - System.nanoTime()) > 0)
+		{
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+
+	// Parks the thread until it is signalled, the maximum sleep time has passed or the loop is about to break.
+	private void awaitSignal()
+	{
+		long sleepNs = maxSleepNs;
+
+		long deadlineNs = System.nanoTime() + sleepNs;
+
+		while(!tryingBreak() && !signalled.getAndSet(false))
+		{
+			if(sleepNs <= 0)
+			{
+				LockSupport.park(this);
+			}
+			else
+			{
+				long remaining = deadlineNs - System.nanoTime();
+
+				if(remaining <= 0)
+				{
+					return;
+				}
+
+				LockSupport.parkNanos(this, remaining);
+			}
+		}
+	}
+
 	public boolean tryingBreak()
 	{
 		return breakLoop;
@@ -30,6 +147,9 @@ public abstract class LoopedThread
 	public void breakLoop()
 	{
 		this.breakLoop = true;
+
+		// Wakes up the thread if it is sleeping, so it can end.
+		LockSupport.unpark(loop);
 	}
 
 	public Thread getThread()
@@ -37,6 +157,87 @@ public abstract class LoopedThread
 		return loop;
 	}
 
+	// Wakes up the thread if it sleeps until it is signalled, so the loop runs (at least) once more.
+	// Signals which arrive while the loop is running are not lost but lead to another tick.
+	public void signal()
+	{
+		if(!signalled.getAndSet(true))
+		{
+			LockSupport.unpark(loop);
+		}
+	}
+
+	public boolean isSleepingUntilSignalled()
+	{
+		return sleepingUntilSignalled;
+	}
+
+	// Enables or disables the "sleep until signalled" mode.
+	// The maximum sleep time (in milliseconds) makes sure the loop still runs from time to time if there are no signals.
+	// A maximum sleep time of zero (0) means the thread sleeps until it is signalled, no matter how long it takes.
+	public void setSleepingUntilSignalled(boolean sleepingUntilSignalled, long maxSleepMs) throws IllegalArgumentException
+	{
+		if(maxSleepMs < 0)
+		{
+			throw new IllegalArgumentException("The maximum sleep time of a LoopedThread cannot be negative!");
+		}
+
+		this.maxSleepNs = TimeUnit.MILLISECONDS.toNanos(maxSleepMs);
+		this.sleepingUntilSignalled = sleepingUntilSignalled;
+
+		// Makes sure the thread does not sleep longer than the new maximum sleep time or forever if the mode is disabled.
+		signal();
+	}
+
+	// Returns the tick rate in Hz or zero (0) if the loop runs as fast as possible.
+	public double getTickRate()
+	{
+		long intervalNs = tickIntervalNs;
+
+		return intervalNs == 0 ? 0 : (double) TimeUnit.SECONDS.toNanos(1) / intervalNs;
+	}
+
+	// Limits how often the loop runs per second (Hz).
+	// A tick rate of zero (0) means the loop runs as fast as possible.
+	public void setTickRate(double hz, TickPolicy policy) throws IllegalArgumentException
+	{
+		if(hz < 0 || Double.isNaN(hz) || Double.isInfinite(hz))
+		{
+			throw new IllegalArgumentException("The tick rate of a LoopedThread must be zero (0) or greater!");
+		}
+
+		if(policy == null)
+		{
+			throw new IllegalArgumentException("The tick policy of a LoopedThread cannot be 'null'!");
+		}
+
+		this.tickPolicy = policy;
+		this.tickIntervalNs = hz == 0 ? 0 : Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / hz));
+	}
+
+	public TickPolicy getTickPolicy()
+	{
+		return tickPolicy;
+	}
+
+	// Returns how often the loop has run in total.
+	public long getTicks()
+	{
+		return ticks.get();
+	}
+
+	// Returns how often a tick took longer than the tick interval allows (only for the fixed rate policy).
+	public long getOverruns()
+	{
+		return overruns.get();
+	}
+
+	// Returns the total time (in nanoseconds) the overrunning ticks were late.
+	public long getOverrunNs()
+	{
+		return overrunNs.get();
+	}
+
 	// A loop must not be empty. If it is 
 	public abstract void loop();
-}
\ No newline at end of file
+}
@@ -1,54 +1,350 @@
 package org.thirdreality.guinness.exec;
 
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Runs tasks (e.g. the actions of components with multithreading enabled) on a bounded amount of threads.
+// Tasks which cannot be run immediately are queued. If the queue is full, the rejection policy decides what happens.
+// If the JVM supports virtual threads, they are used instead of platform threads.
 public class ThreadManager
 {
-	private CopyOnWriteArrayList<Thread> threads;
-	
-	private int maximumThreads = 0;
-	
+	// Decides what happens with a task if all threads are busy and the queue is full.
+	public enum RejectionPolicy
+	{
+		// The task is dropped.
+		DISCARD,
+
+		// The oldest queued task is dropped to make space for the new task.
+		// Note that 'fire(...)' has returned 'true' for the dropped task already, as it was queued back then.
+		DISCARD_OLDEST,
+
+		// The task is run by the thread which fired it.
+		CALLER_RUNS,
+
+		// A RejectedExecutionException is thrown.
+		ABORT
+	}
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+	// Used to name the threads of all ThreadManagers.
+	private static final AtomicInteger managers = new AtomicInteger();
+
+	private final ThreadPoolExecutor executor;
+
+	private final RejectionPolicy rejectionPolicy;
+
+	private final boolean virtualThreads;
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicLong rejected = new AtomicLong(), completed = new AtomicLong();
+
 	public ThreadManager(int maximumThreads)
 	{
-		threads = new CopyOnWriteArrayList<Thread>();
-		
-		this.maximumThreads = maximumThreads;
+		this(maximumThreads, DEFAULT_QUEUE_CAPACITY, RejectionPolicy.DISCARD, true);
+	}
+
+	public ThreadManager(int maximumThreads, int queueCapacity, RejectionPolicy rejectionPolicy, boolean virtualThreadsPreferred) throws IllegalArgumentException
+	{
+		if(maximumThreads <= 0)
+		{
+			throw new IllegalArgumentException("A ThreadManager needs at least one thread!");
+		}
+
+		if(queueCapacity <= 0)
+		{
+			throw new IllegalArgumentException("The queue capacity of a ThreadManager must be greater than zero (>0) !");
+		}
+
+		if(rejectionPolicy == null)
+		{
+			throw new IllegalArgumentException("The rejection policy of a ThreadManager cannot be 'null'!");
+		}
+
+		this.rejectionPolicy = rejectionPolicy;
+
+		String name = "GUInness-ThreadManager-" + managers.incrementAndGet() + "-";
+
+		ThreadFactory factory = virtualThreadsPreferred ? createVirtualThreadFactory(name) : null;
+
+		virtualThreads = factory != null;
+
+		if(factory == null)
+		{
+			factory = createPlatformThreadFactory(name);
+		}
+
+		executor = new ThreadPoolExecutor(maximumThreads, maximumThreads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity), factory, new RejectedExecutionHandler()
+		{
+			@Override
+			public void rejectedExecution(Runnable r, ThreadPoolExecutor executor)
+			{
+				reject(r, executor);
+			}
+		});
+
+		// Threads which are not needed for a while are ended, so an unused ThreadManager does not keep any threads.
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	// Returns a factory for virtual threads if they are supported by the JVM (Java 21+), otherwise 'null'.
+	// Reflection is used, so the library still runs on older JVMs.
+	private static ThreadFactory createVirtualThreadFactory(String name)
+	{
+		try
+		{
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+
+			Method naming = builderType.getMethod("name", String.class, long.class);
+
+			builder = naming.invoke(builder, name, 0L);
+
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		}
+		catch(ReflectiveOperationException | RuntimeException e)
+		{
+			// Virtual threads are not available (or only as preview feature).
+			return null;
+		}
+	}
+
+	private static ThreadFactory createPlatformThreadFactory(final String name)
+	{
+		return new ThreadFactory()
+		{
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, name + count.getAndIncrement());
+
+				// The threads must not keep the application alive.
+				t.setDaemon(true);
+
+				return t;
+			}
+		};
+	}
+
+	private void reject(Runnable r, ThreadPoolExecutor executor)
+	{
+		rejected.incrementAndGet();
+
+		// A ThreadManager which was shut down does not run any new task, whatever the policy is.
+		if(executor.isShutdown() && rejectionPolicy != RejectionPolicy.ABORT)
+		{
+			throw new DiscardedException();
+		}
+
+		switch(rejectionPolicy)
+		{
+			case DISCARD_OLDEST:
+			{
+				executor.getQueue().poll();
+
+				executor.execute(r);
+
+				break;
+			}
+
+			case CALLER_RUNS:
+			{
+				r.run();
+
+				break;
+			}
+
+			case ABORT:
+			{
+				throw new RejectedExecutionException("The ThreadManager is busy and its queue is full!");
+			}
+
+			default:
+			{
+				// The task is discarded.
+				throw new DiscardedException();
+			}
+		}
 	}
-	
-	private void removeDeaths()
+
+	// Runs the given task on one of the threads as soon as possible.
+	// Returns 'false' if the task was dropped and will not run, either by the rejection policy or because the ThreadManager was shut down.
+	// With the policy ABORT, a RejectedExecutionException is thrown instead.
+	public boolean fire(final Runnable task) throws RejectedExecutionException
 	{
-		for(int i = 0; i < threads.size(); i++)
+		Runnable counted = new Runnable()
 		{
-			if(threads.get(i) != null && !threads.get(i).isAlive())
+			@Override
+			public void run()
 			{
-				threads.remove(i);
+				running.incrementAndGet();
+
+				try
+				{
+					task.run();
+				}
+				finally
+				{
+					running.decrementAndGet();
+
+					completed.incrementAndGet();
+				}
 			}
+		};
+
+		try
+		{
+			executor.execute(counted);
+		}
+		catch(DiscardedException e)
+		{
+			return false;
 		}
-		
-		// Clear space up for other data and remove the dead threads with the GBC.
-		// Otherwise related applications could freeze up, like the IDE.
-		// Also it is just a better practice..
-		System.gc();
+
+		return true;
 	}
-	
-	public boolean fire(Thread t)
+
+	// Runs all given tasks at the same time and waits until every one of them has finished.
+	// Returns the results in the same order as the tasks.
+	// Tasks which are dropped or not started yet are run by the calling thread instead, so no task is ever left out and the call cannot hang.
+	// If at least one task fails, an IllegalStateException with the first failure as its cause is thrown after all tasks have finished.
+	public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws NullPointerException, IllegalStateException
 	{
-		removeDeaths();
-		
-		if(threads.size() + 1 <= maximumThreads)
+		if(tasks == null)
 		{
-			threads.add(t);
-			
-			t.start();
-			
-			return true;
+			throw new NullPointerException("The parameter 'tasks' cannot be null.\nAre you sure, you gave the ThreadManager a list of tasks to run?");
 		}
-		
-		return false;
+
+		if(executor.isShutdown())
+		{
+			throw new IllegalStateException("The ThreadManager was shut down, so it cannot run any tasks anymore!");
+		}
+
+		List<FutureTask<T>> futures = new ArrayList<FutureTask<T>>(tasks.size());
+
+		for(Callable<T> task : tasks)
+		{
+			FutureTask<T> future = new FutureTask<T>(task);
+
+			futures.add(future);
+
+			try
+			{
+				fire(future);
+			}
+			catch(RejectedExecutionException e)
+			{
+				// The task is run by the calling thread below.
+			}
+		}
+
+		// A FutureTask only runs once, so this only runs the tasks which were dropped (e.g. by DISCARD_OLDEST, even the ones of another call) or are still queued.
+		// The tasks which are already running on a thread are skipped.
+		for(FutureTask<T> future : futures)
+		{
+			future.run();
+		}
+
+		List<T> results = new ArrayList<T>(futures.size());
+
+		Throwable failure = null;
+
+		for(FutureTask<T> future : futures)
+		{
+			try
+			{
+				results.add(future.get());
+			}
+			catch(ExecutionException e)
+			{
+				results.add(null);
+
+				if(failure == null)
+				{
+					failure = e.getCause();
+				}
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+
+				throw new IllegalStateException("Was interrupted while waiting for the tasks to finish!", e);
+			}
+		}
+
+		if(failure != null)
+		{
+			throw new IllegalStateException("At least one task failed!", failure);
+		}
+
+		return results;
+	}
+
+	// Stops accepting new tasks. The queued tasks are still run.
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+
+	public boolean isUsingVirtualThreads()
+	{
+		return virtualThreads;
+	}
+
+	public RejectionPolicy getRejectionPolicy()
+	{
+		return rejectionPolicy;
+	}
+
+	// Returns the amount of tasks which are waiting for a thread.
+	public int getQueued()
+	{
+		return executor.getQueue().size();
+	}
+
+	// Returns the amount of tasks which are running currently.
+	public int getRunning()
+	{
+		return running.get();
+	}
+
+	// Returns how many tasks were rejected in total (see the rejection policy).
+	public long getRejected()
+	{
+		return rejected.get();
+	}
+
+	// Returns how many tasks were run in total, including the ones which ended with an exception.
+	public long getCompleted()
+	{
+		return completed.get();
 	}
-	
+
+	// Returns the amount of tasks which are running currently.
 	public int size()
 	{
-		return threads.size();
+		return getRunning();
+	}
+
+	// Tells 'fire(...)' that a task was discarded.
+	private static class DiscardedException extends RejectedExecutionException
+	{
+		private static final long serialVersionUID = 1L;
 	}
 }
@@ -0,0 +1,148 @@
+package org.thirdreality.guinness.feature;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps values until their total size exceeds a budget, then the least recently used values are thrown away first.
+// The unit of the budget (e.g. bytes or pixels) is decided by the Sizer which tells the size of every value.
+// It is not synchronized by itself, so the caches using it need to lock (see 'GlyphCache', 'TextRunCache' or 'ImageCache').
+public class BudgetedCache<K, V>
+{
+	// Returns the size of a value in the unit of the budget.
+	public interface Sizer<V>
+	{
+		public long sizeOf(V value);
+	}
+
+	// The access order (true) makes the map sort its entries from the least to the most recently used value.
+	private final LinkedHashMap<K, V> entries;
+
+	private final Sizer<V> sizer;
+
+	private long budget;
+
+	private long used = 0;
+
+	private long hits = 0, misses = 0, evictions = 0;
+
+	public BudgetedCache(long budget, int initialCapacity, Sizer<V> sizer) throws NullPointerException, IllegalArgumentException
+	{
+		if(sizer == null)
+		{
+			throw new NullPointerException("The parameter 'sizer' cannot be null.\nA BudgetedCache needs to know the size of its values!");
+		}
+
+		this.entries = new LinkedHashMap<K, V>(initialCapacity, 0.75f, true);
+		this.sizer = sizer;
+
+		setBudget(budget);
+	}
+
+	// Returns the value of the given key and marks it as the most recently used one, or 'null' if it is not cached.
+	// As the key is not kept, a reused key can be given for the lookup, so no new key needs to be created when the value is cached yet.
+	public V get(K key)
+	{
+		V value = entries.get(key);
+
+		if(value != null)
+		{
+			hits++;
+		}
+		else
+		{
+			misses++;
+		}
+
+		return value;
+	}
+
+	// Tells whether a value is cached for the given key without counting it as a hit or miss, nor changing the order.
+	public boolean contains(K key)
+	{
+		return entries.containsKey(key);
+	}
+
+	// Stores the value and returns it. The key is kept, so it must not be changed afterwards.
+	// If the budget is exceeded by the value, the least recently used values are removed.
+	public V put(K key, V value)
+	{
+		V replaced = entries.put(key, value);
+
+		if(replaced != null)
+		{
+			used -= sizer.sizeOf(replaced);
+		}
+
+		used += sizer.sizeOf(value);
+
+		trimToBudget();
+
+		return value;
+	}
+
+	// Removes the least recently used values until the cache fits into the budget again.
+	private void trimToBudget()
+	{
+		Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+
+		while(used > budget && iterator.hasNext())
+		{
+			used -= sizer.sizeOf(iterator.next().getValue());
+
+			iterator.remove();
+
+			evictions++;
+		}
+	}
+
+	public void clear()
+	{
+		entries.clear();
+
+		used = 0;
+	}
+
+	public long getBudget()
+	{
+		return budget;
+	}
+
+	// Sets the budget. If the cache uses more yet, the least recently used values are removed directly.
+	public void setBudget(long budget) throws IllegalArgumentException
+	{
+		if(budget < 0)
+		{
+			throw new IllegalArgumentException("The budget of a cache cannot be negative (" + budget + ")!");
+		}
+
+		this.budget = budget;
+
+		trimToBudget();
+	}
+
+	public long getUsed()
+	{
+		return used;
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	public long getHits()
+	{
+		return hits;
+	}
+
+	public long getMisses()
+	{
+		return misses;
+	}
+
+	public long getEvictions()
+	{
+		return evictions;
+	}
+}
@@ -0,0 +1,152 @@
+package org.thirdreality.guinness.feature;
+
+import java.awt.Point;
+
+// Transforms locations into the space of a Viewport: the origin is added, then the offset (for movable components) and at last it is scaled (for scalable components).
+// It replaces chains like 'new GIPoint(location).add(origin).add(offset, movable).mul(scale).toPoint()' which create two objects for every location.
+// Here, the location is transformed in place with primitive values, so no objects are created at all.
+// The values are calculated in the same order and with the same precision as with GIPoint, so the results are exactly the same.
+// A GITransform is not thread-safe. Every thread needs its own, e.g. as a field of its draw adapter.
+//
+// Example: transform.load(bounds.x, bounds.y).addOrigin().addOffset(movable).scale(scalable).getX()
+public class GITransform
+{
+	private int originX, originY, offsetX, offsetY;
+
+	private float scale = 1f;
+
+	// The location which is transformed currently.
+	private float x, y;
+
+	// Sets the origin, offset and scale of the Viewport the locations are transformed for.
+	public GITransform set(Point origin, Point offset, float scale)
+	{
+		return set(origin.x, origin.y, offset.x, offset.y, scale);
+	}
+
+	public GITransform set(int originX, int originY, int offsetX, int offsetY, float scale)
+	{
+		this.originX = originX;
+		this.originY = originY;
+		this.offsetX = offsetX;
+		this.offsetY = offsetY;
+		this.scale = scale;
+
+		return this;
+	}
+
+	// Begins to transform the given location.
+	public GITransform load(float x, float y)
+	{
+		this.x = x;
+		this.y = y;
+
+		return this;
+	}
+
+	public GITransform load(Point location)
+	{
+		return load(location.x, location.y);
+	}
+
+	public GITransform addOrigin()
+	{
+		x += originX;
+		y += originY;
+
+		return this;
+	}
+
+	// Adds the offset only if the component is movable by the Viewport.
+	public GITransform addOffset(boolean movable)
+	{
+		if(movable)
+		{
+			x += offsetX;
+			y += offsetY;
+		}
+
+		return this;
+	}
+
+	public GITransform add(float num)
+	{
+		x += num;
+		y += num;
+
+		return this;
+	}
+
+	public GITransform add(float x, float y)
+	{
+		this.x += x;
+		this.y += y;
+
+		return this;
+	}
+
+	public GITransform add(Point point)
+	{
+		return add(point.x, point.y);
+	}
+
+	// Scales the location only if the component is scalable by the Viewport.
+	public GITransform scale(boolean scalable)
+	{
+		if(scalable)
+		{
+			x *= scale;
+			y *= scale;
+		}
+
+		return this;
+	}
+
+	// Returns the x value of the transformed location, cut off just like 'GIPoint.toPoint()' does.
+	public int getX()
+	{
+		return (int) x;
+	}
+
+	public int getY()
+	{
+		return (int) y;
+	}
+
+	// Writes the transformed location into the given point, so an existing point can be reused.
+	public Point toPoint(Point target)
+	{
+		target.x = (int) x;
+		target.y = (int) y;
+
+		return target;
+	}
+
+	// Returns how far a component is moved on the x-axis, e.g. to transform the cursor back for hit-tests (see 'ShapeTransform.contains(...)').
+	public int getTranslationX(boolean movable)
+	{
+		return originX + getOffsetX(movable);
+	}
+
+	public int getTranslationY(boolean movable)
+	{
+		return originY + getOffsetY(movable);
+	}
+
+	// Returns the offset on the x-axis if the component is movable, otherwise zero (0).
+	public int getOffsetX(boolean movable)
+	{
+		return movable ? offsetX : 0;
+	}
+
+	public int getOffsetY(boolean movable)
+	{
+		return movable ? offsetY : 0;
+	}
+
+	// Returns the scale if the component is scalable, otherwise one (1).
+	public float getScale(boolean scalable)
+	{
+		return scalable ? scale : 1f;
+	}
+}
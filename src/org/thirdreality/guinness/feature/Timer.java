@@ -1,64 +1,135 @@
 package org.thirdreality.guinness.feature;
 
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 public class Timer
 {
 	/*
-	 * Do not use these methods too often as the while loop could stress your CPU
-	 * and RAM. Hence, there are better solutions on the internet, though the code
-	 * itself is reliable. The javax.swing.Timer is not very reliable though this
-	 * solution just needs some more resources.
+	 * The pause methods park the calling thread for most of the given time,
+	 * so they do not stress your CPU while waiting.
+	 * Parking is not exact to the microsecond though. If you need a high precision,
+	 * use the methods with the 'precise' parameter which spin for the last few microseconds only.
+	 *
+	 * If you do not want to block the calling thread at all, use 'schedule(...)' instead.
 	 */
-	
+
 	private static final long ms = 1000000, s = ms*1000, min = s*60, hour = min*60;
-	
-	private static void pause(long ns)
+
+	// The remaining time which is spun instead of parked if a high precision is requested.
+	// Parking usually wakes up a bit too late, so it is stopped before the end of the pause.
+	private static final long SPIN_THRESHOLD_NS = 200000;
+
+	// Runs all scheduled tasks. The thread is a daemon thread, so it does not keep the application alive.
+	private static final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+	{
+		@Override
+		public Thread newThread(Runnable r)
+		{
+			Thread t = new Thread(r, "GUInness-Timer");
+
+			t.setDaemon(true);
+
+			return t;
+		}
+	});
+
+	static
+	{
+		// Cancelled tasks (e.g. delays which are not needed anymore) should not stay in the queue until they would have been run.
+		scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	private static void pause(long ns, boolean precise)
+	{
+		final long deadline = System.nanoTime() + ns;
+
+		final long parkUntil = precise ? deadline - SPIN_THRESHOLD_NS : deadline;
+
+		long remaining;
+
+		// Parking can return earlier than requested (spuriously), so it is repeated until the time has passed.
+		while((remaining = parkUntil - System.nanoTime()) > 0)
+		{
+			LockSupport.parkNanos(remaining);
+
+			// An interrupted thread would not park anymore, so the pause ends here and the interrupt is kept for the caller.
+			if(Thread.currentThread().isInterrupted())
+			{
+				return;
+			}
+		}
+
+		while(precise && deadline - System.nanoTime() > 0)
+		{
+			Thread.onSpinWait();
+		}
+	}
+
+	public static void pauseNanosecond(long nanoseconds, boolean precise)
 	{
-		final long start = System.nanoTime();
-		
-		final long timeout = ns;
-		
-		while((System.nanoTime() - start) <= timeout);
+		pause(nanoseconds, precise);
 	}
-	
+
 	public static void pauseMillisecond(long milliseconds)
-	{		
+	{
+		pauseMillisecond(milliseconds, false);
+	}
+
+	public static void pauseMillisecond(long milliseconds, boolean precise)
+	{
 		final long timeout = ms*milliseconds;
-		
-		pause(timeout);
+
+		pause(timeout, precise);
 	}
 
 	public static void pauseSecond(long seconds)
 	{
 		final long timeout = s*seconds;
-		
-		pause(timeout);
+
+		pause(timeout, false);
 	}
 
 	public static void pauseMinute(long minutes)
 	{
 		final long timeout = min*minutes;
-		
-		pause(timeout);
+
+		pause(timeout, false);
 	}
 
 	public static void pauseMinute(double minutes)
 	{
 		final long timeout = (long) ((double) min*minutes);
-		
-		pause(timeout);
+
+		pause(timeout, false);
 	}
 
 	public static void pauseHour(long hours)
 	{
 		final long timeout = hour*hours;
-		
-		pause(timeout);
+
+		pause(timeout, false);
 	}
 
 	public static void pauseHour(double hours)
 	{
 		final long timeout = (long) ((double) hour*hours);
-		
-		pause(timeout);
+
+		pause(timeout, false);
+	}
+
+	// Runs the given task after the given delay (in milliseconds) without blocking the calling thread.
+	// All tasks share one single thread, so they should be short and pass longer work to other threads.
+	public static ScheduledFuture<?> schedule(Runnable task, long delayMs)
+	{
+		return schedule(task, delayMs, TimeUnit.MILLISECONDS);
+	}
+
+	public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit)
+	{
+		return scheduler.schedule(task, delay, unit);
 	}
 }
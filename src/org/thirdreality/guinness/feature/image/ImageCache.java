@@ -0,0 +1,226 @@
+package org.thirdreality.guinness.feature.image;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.WeakHashMap;
+
+import org.thirdreality.guinness.feature.BudgetedCache;
+
+// Keeps images (e.g. icons) which were loaded before, both in their original size and scaled to the sizes they were requested in.
+// Without this cache every component loads its own copy of the same icon file, e.g. every GCheckbox its check sign.
+// An image is identified by its file path and its size, the images are shared by all components which request them.
+// The least recently used images are thrown away first when the memory budget is exceeded (see 'BudgetedCache').
+// Images which are still used by components stay valid, only the next request will load them again.
+public class ImageCache
+{
+	// The default memory budget is 16 MB which is enough for hundreds of icons in common sizes.
+	public static final long DEFAULT_BUDGET_BYTES = 16L * 1024 * 1024;
+
+	// Every pixel of an image is stored as an ARGB integer.
+	private static final int BYTES_PER_PIXEL = 4;
+
+	// The size which identifies an image in its original size.
+	private static final int ORIGINAL_SIZE = -1;
+
+	private final BudgetedCache<ImageKey, BufferedImage> images;
+
+	// This key is only used for lookups, so no new key needs to be created when an image is in the cache yet.
+	private final ImageKey lookup = new ImageKey();
+
+	// Remembers the file of every image this cache has returned, even after the image was thrown away from the cache.
+	// The images are only referenced weakly, so they are forgotten when no component uses them anymore (see 'getPath(...)').
+	private final WeakHashMap<BufferedImage, String> paths = new WeakHashMap<BufferedImage, String>();
+
+	public ImageCache()
+	{
+		this(DEFAULT_BUDGET_BYTES);
+	}
+
+	public ImageCache(long budgetBytes)
+	{
+		images = new BudgetedCache<ImageKey, BufferedImage>(budgetBytes, 64, new BudgetedCache.Sizer<BufferedImage>()
+		{
+			@Override
+			public long sizeOf(BufferedImage image)
+			{
+				return (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+			}
+		});
+	}
+
+	// Returns the image of the given file in its original size.
+	// Returns 'null' if the file cannot be loaded (see 'ImageToolkit.loadCompatibleImage(...)').
+	public synchronized BufferedImage get(String path) throws NullPointerException
+	{
+		if(path == null)
+		{
+			throw new NullPointerException("The parameter 'path' cannot be null.\nAre you sure, you gave the image a file path?");
+		}
+
+		BufferedImage image = images.get(lookup.set(path, ORIGINAL_SIZE, ORIGINAL_SIZE));
+
+		if(image != null)
+		{
+			return image;
+		}
+
+		BufferedImage loaded = ImageToolkit.loadCompatibleImage(path);
+
+		// An image which could not be loaded is not kept, so it is loaded again next time.
+		return loaded == null ? null : store(path, ORIGINAL_SIZE, ORIGINAL_SIZE, loaded);
+	}
+
+	// Returns the image of the given file, scaled once to the given size (see 'ImageToolkit.scale(...)').
+	public synchronized BufferedImage get(String path, int width, int height) throws NullPointerException, IllegalArgumentException
+	{
+		if(path == null)
+		{
+			throw new NullPointerException("The parameter 'path' cannot be null.\nAre you sure, you gave the image a file path?");
+		}
+
+		if(width <= 0 || height <= 0)
+		{
+			throw new IllegalArgumentException("An image cannot be scaled to a size of " + width + "x" + height + " px!\nMake sure the width and height are greater than zero (>0) !");
+		}
+
+		BufferedImage image = images.get(lookup.set(path, width, height));
+
+		if(image != null)
+		{
+			return image;
+		}
+
+		BufferedImage original = get(path);
+
+		return original == null ? null : store(path, width, height, ImageToolkit.scale(original, width, height));
+	}
+
+	// Loads all given images in parallel which are not cached yet, e.g. at startup so the first frame does not need to load them.
+	public void preload(List<String> paths)
+	{
+		List<String> missing = new ArrayList<String>();
+
+		synchronized(this)
+		{
+			for(String path : paths)
+			{
+				if(!images.contains(lookup.set(path, ORIGINAL_SIZE, ORIGINAL_SIZE)))
+				{
+					missing.add(path);
+				}
+			}
+		}
+
+		// The images are loaded without holding the lock, so the cache can be used meanwhile.
+		List<BufferedImage> loaded = ImageToolkit.loadCompatibleImages(missing);
+
+		synchronized(this)
+		{
+			for(int i = 0; i < missing.size(); i++)
+			{
+				if(loaded.get(i) != null && !images.contains(lookup.set(missing.get(i), ORIGINAL_SIZE, ORIGINAL_SIZE)))
+				{
+					store(missing.get(i), ORIGINAL_SIZE, ORIGINAL_SIZE, loaded.get(i));
+				}
+			}
+		}
+	}
+
+	private BufferedImage store(String path, int width, int height, BufferedImage image)
+	{
+		paths.put(image, path);
+
+		return images.put(new ImageKey().set(path, width, height), image);
+	}
+
+	// Returns the file path of the given image if it was returned by this cache, otherwise 'null'.
+	// This way, an image can be stored by its file instead of its pixels, e.g. in a snapshot (see 'SceneSnapshot').
+	public synchronized String getPath(Image image)
+	{
+		return image instanceof BufferedImage ? paths.get(image) : null;
+	}
+
+	public synchronized void clear()
+	{
+		images.clear();
+	}
+
+	public synchronized long getBudget()
+	{
+		return images.getBudget();
+	}
+
+	// Sets the memory budget in bytes. If the cache uses more memory yet, the oldest images are removed directly.
+	public synchronized void setBudget(long budgetBytes) throws IllegalArgumentException
+	{
+		images.setBudget(budgetBytes);
+	}
+
+	public synchronized long getUsedBytes()
+	{
+		return images.getUsed();
+	}
+
+	public synchronized int size()
+	{
+		return images.size();
+	}
+
+	public synchronized long getHits()
+	{
+		return images.getHits();
+	}
+
+	public synchronized long getMisses()
+	{
+		return images.getMisses();
+	}
+
+	public synchronized long getEvictions()
+	{
+		return images.getEvictions();
+	}
+
+	// Identifies a single image in the cache.
+	private static final class ImageKey
+	{
+		private String path;
+
+		private int width, height;
+
+		private ImageKey set(String path, int width, int height)
+		{
+			this.path = path;
+			this.width = width;
+			this.height = height;
+
+			return this;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = path.hashCode();
+
+			hash = 31 * hash + width;
+			hash = 31 * hash + height;
+
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(!(obj instanceof ImageKey))
+			{
+				return false;
+			}
+
+			ImageKey other = (ImageKey) obj;
+
+			return width == other.width && height == other.height && path.equals(other.path);
+		}
+	}
+}
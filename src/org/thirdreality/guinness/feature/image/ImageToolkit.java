@@ -3,19 +3,186 @@ package org.thirdreality.guinness.feature.image;
 import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
+import java.awt.RenderingHints;
 import java.awt.Toolkit;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
+import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
+import org.thirdreality.guinness.exec.ThreadManager;
+
 public class ImageToolkit
 {
+	// Shares the icons of all components, so every icon file is only loaded once (see 'ImageCache').
+	private static final ImageCache imageCache = new ImageCache();
+	
+	// Loads the image with the Toolkit.
+	// Such an image cannot be accelerated and scaled instances of it are filtered again whenever they are drawn.
+	// Prefer 'loadCompatibleImage(...)' for images which are drawn often.
 	public static Image loadImage(String path)
 	{
 		return new ImageIcon(Toolkit.getDefaultToolkit().createImage(path)).getImage();
 	}
 	
+	// Decodes the image completely before returning, directly into an image which can be drawn by the graphics card (see 'toCompatibleImage(...)').
+	// Returns 'null' if the file cannot be read or decoded.
+	public static BufferedImage loadCompatibleImage(String path) throws NullPointerException
+	{
+		if(path == null)
+		{
+			throw new NullPointerException("The parameter 'path' cannot be null.\nAre you sure, you gave the image a file path?");
+		}
+		
+		try
+		{
+			BufferedImage decoded = ImageIO.read(new File(path));
+			
+			return decoded == null ? null : toCompatibleImage(decoded);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			
+			return null;
+		}
+	}
+	
+	// The same as above but scaled to the given size once (see 'scale(...)').
+	public static BufferedImage loadCompatibleImage(String path, int width, int height) throws NullPointerException, IllegalArgumentException
+	{
+		BufferedImage image = loadCompatibleImage(path);
+		
+		return image == null ? null : scale(image, width, height);
+	}
+	
+	// Loads all given images in parallel with the given threads, e.g. at startup so the first frame does not need to load them.
+	// The returned list contains the images in the same order as the paths, 'null' for every image which could not be loaded.
+	public static List<BufferedImage> loadCompatibleImages(List<String> paths, ThreadManager threads) throws IllegalStateException
+	{
+		List<Callable<BufferedImage>> tasks = new ArrayList<Callable<BufferedImage>>(paths.size());
+		
+		for(final String path : paths)
+		{
+			tasks.add(new Callable<BufferedImage>()
+			{
+				@Override
+				public BufferedImage call()
+				{
+					return loadCompatibleImage(path);
+				}
+			});
+		}
+		
+		return threads.invokeAll(tasks);
+	}
+	
+	// The same as above but with a thread for every processor.
+	public static List<BufferedImage> loadCompatibleImages(List<String> paths) throws IllegalStateException
+	{
+		int processors = Runtime.getRuntime().availableProcessors();
+		
+		// If all threads are busy and the queue is full, the calling thread loads too.
+		ThreadManager threads = new ThreadManager(processors, Math.max(1, paths.size()), ThreadManager.RejectionPolicy.CALLER_RUNS, false);
+		
+		try
+		{
+			return loadCompatibleImages(paths, threads);
+		}
+		finally
+		{
+			threads.shutdown();
+		}
+	}
+	
+	// Creates an empty image in the format of the screen, so drawing it does not need any conversion.
+	// Without a screen (headless), an ARGB image is created.
+	public static BufferedImage createCompatibleImage(int width, int height)
+	{
+		if(GraphicsEnvironment.isHeadless())
+		{
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+		
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+	
+	// Draws the image once into a compatible image (see above).
+	public static BufferedImage toCompatibleImage(Image source)
+	{
+		BufferedImage image = createCompatibleImage(source.getWidth(null), source.getHeight(null));
+		
+		Graphics2D g = image.createGraphics();
+		
+		g.drawImage(source, 0, 0, null);
+		g.dispose();
+		
+		return image;
+	}
+	
+	// Scales the image to the given size in high quality, the result is a compatible image (see above).
+	// When scaled down, the image is halved with bilinear filtering until it is less than twice as big as the target size.
+	// A single bilinear step would skip pixels and look as rough as nearest neighbor scaling for large factors.
+	// This is about as smooth as 'Image.SCALE_SMOOTH' but much faster and it is only done once.
+	public static BufferedImage scale(BufferedImage image, int width, int height) throws IllegalArgumentException
+	{
+		if(width <= 0 || height <= 0)
+		{
+			throw new IllegalArgumentException("An image cannot be scaled to a size of " + width + "x" + height + " px!\nMake sure the width and height are greater than zero (>0) !");
+		}
+		
+		BufferedImage scaled = image;
+		
+		int currentWidth = image.getWidth(), currentHeight = image.getHeight();
+		
+		do
+		{
+			// Only the dimensions which are more than twice as big as the target size are halved.
+			currentWidth = currentWidth >= 2 * width ? currentWidth / 2 : width;
+			currentHeight = currentHeight >= 2 * height ? currentHeight / 2 : height;
+			
+			BufferedImage step = createCompatibleImage(currentWidth, currentHeight);
+			
+			Graphics2D g = step.createGraphics();
+			
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(scaled, 0, 0, currentWidth, currentHeight, null);
+			g.dispose();
+			
+			scaled = step;
+		}
+		while(currentWidth != width || currentHeight != height);
+		
+		return scaled;
+	}
+	
+	// Returns the image of the given file from the shared image cache, it is only loaded if it was not requested before.
+	// The returned image is shared, so it must not be modified. Returns 'null' if the file cannot be loaded.
+	public static BufferedImage loadCachedImage(String path)
+	{
+		return imageCache.get(path);
+	}
+	
+	// The same as above but scaled to the given size once.
+	public static BufferedImage loadCachedImage(String path, int width, int height)
+	{
+		return imageCache.get(path, width, height);
+	}
+	
+	public static ImageCache getImageCache()
+	{
+		return imageCache;
+	}
+	
 	public static BufferedImage colorize(BufferedImage image, Color color)
     {
         int w = image.getWidth();
@@ -4,11 +4,40 @@ import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.RoundRectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.thirdreality.guinness.gui.component.style.property.GBorderProperty;
 
 public class ShapeMaker
 {
+	// The default maximum distance in pixels between a tessellated and an exact arc.
+	// Polygons only have integer coordinates, so a lower tolerance would hardly be visible.
+	public static final float DEFAULT_TOLERANCE_PX = 0.25f;
+	
+	// The amount of points the corners of rectangles had before the tessellation became adaptive.
+	private static final int MAX_ARC_SEGMENTS = 1000;
+	
+	// The distance of the control points of a cubic Bezier curve which approximates a quarter circle (relative to the radius).
+	private static final float ARC_KAPPA = 0.5522848f;
+	
+	private static final int[][] EMPTY_ARC = new int[][] {{0}, {0}};
+	
+	// The least recently used arcs are thrown away when there are too many different radiuses.
+	private static final LinkedHashMap<Long, int[][]> arcs = new LinkedHashMap<Long, int[][]>(64, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, int[][]> eldest)
+		{
+			return size() > 256;
+		}
+	};
+	
 	public static Polygon createRectangle(int x, int y, int width, int height)
 	{
 		Polygon polygon = new Polygon();
@@ -43,65 +72,186 @@ public class ShapeMaker
 		return fed;
 	}
 	
-	private static Polygon getLowerLeftRadius(GBorderProperty borderProperties, Rectangle rect)
+	// Returns the border radius of a single corner. A specific radius is preferred over the general border radius.
+	private static int getRadiusPx(Integer specificRadiusPx, GBorderProperty borderProperties)
 	{
-		int borderRadiusLLPx = borderProperties.getLowerLeftBorderRadiusPx() == null ? borderProperties.getBorderRadiusPx() : borderProperties.getLowerLeftBorderRadiusPx();
-		Polygon borderRadiusLL = createCircle(borderRadiusLLPx, 1/4f, 1f);
+		return specificRadiusPx == null ? borderProperties.getBorderRadiusPx() : specificRadiusPx;
+	}
+	
+	// Creates a rectangle with rounded corners (see 'GBorderProperty').
+	// The corners are tessellated adaptively, so small radiuses only need a few points (see 'getArcSegments(...)').
+	public static Polygon createRectangleFrom(Rectangle rect, GBorderProperty borderProperties)
+	{
+		return createRectangleFrom(rect, borderProperties, DEFAULT_TOLERANCE_PX);
+	}
+	
+	// The tolerance is the maximum distance in pixels between the tessellated and the exact corners.
+	public static Polygon createRectangleFrom(Rectangle rect, GBorderProperty borderProperties, float tolerancePx)
+	{
+		int radiusTL = getRadiusPx(borderProperties.getUpperLeftBorderRadiusPx(), borderProperties);
+		int radiusLL = getRadiusPx(borderProperties.getLowerLeftBorderRadiusPx(), borderProperties);
+		int radiusLR = getRadiusPx(borderProperties.getLowerRightBorderRadiusPx(), borderProperties);
+		int radiusTR = getRadiusPx(borderProperties.getUpperRightBorderRadiusPx(), borderProperties);
+		
+		int[][] arcTL = getQuarterArc(radiusTL, tolerancePx);
+		int[][] arcLL = getQuarterArc(radiusLL, tolerancePx);
+		int[][] arcLR = getQuarterArc(radiusLR, tolerancePx);
+		int[][] arcTR = getQuarterArc(radiusTR, tolerancePx);
 		
-		borderRadiusLL = ShapeTransform.flipVertically(borderRadiusLL);
-		borderRadiusLL = ShapeTransform.inverseOrderFrom(borderRadiusLL);
-		borderRadiusLL.translate(0, rect.height - borderRadiusLLPx);
+		int npoints = arcTL[0].length + arcLL[0].length + arcLR[0].length + arcTR[0].length;
 		
-		return borderRadiusLL;
+		int[] xpoints = new int[npoints];
+		int[] ypoints = new int[npoints];
+		
+		int n = 0;
+		
+		// The corners are added counter-clockwise beginning at the top, just like the corners of a circle (see 'createCircle(...)')
+		// would be flipped and moved to the corners of the rectangle.
+		// Upper left corner: from (r|0) to (0|r)
+		for(int i = 0; i < arcTL[0].length; i++, n++)
+		{
+			xpoints[n] = rect.x + radiusTL - arcTL[0][i];
+			ypoints[n] = rect.y + radiusTL - arcTL[1][i];
+		}
+		
+		// Lower left corner: from (0|h-r) to (r|h)
+		for(int i = arcLL[0].length - 1; i >= 0; i--, n++)
+		{
+			xpoints[n] = rect.x + radiusLL - arcLL[0][i];
+			ypoints[n] = rect.y + rect.height - radiusLL + arcLL[1][i];
+		}
+		
+		// Lower right corner: from (w-r|h) to (w|h-r)
+		for(int i = 0; i < arcLR[0].length; i++, n++)
+		{
+			xpoints[n] = rect.x + rect.width - radiusLR + arcLR[0][i];
+			ypoints[n] = rect.y + rect.height - radiusLR + arcLR[1][i];
+		}
+		
+		// Upper right corner: from (w|r) to (w-r|0)
+		for(int i = arcTR[0].length - 1; i >= 0; i--, n++)
+		{
+			xpoints[n] = rect.x + rect.width - radiusTR + arcTR[0][i];
+			ypoints[n] = rect.y + radiusTR - arcTR[1][i];
+		}
+		
+		return new Polygon(xpoints, ypoints, npoints);
 	}
 	
-	private static Polygon getLowerRightRadius(GBorderProperty borderProperties, Rectangle rect)
+	// Creates the same rounded rectangle as 'createRectangleFrom(Rectangle, GBorderProperty)' as Java2D shape.
+	// It is not tessellated at all but filled by the native rasterizer of Java2D (with antialiasing if it is enabled).
+	public static Shape createRoundRectangle(float x, float y, float width, float height, GBorderProperty borderProperties, float scale)
 	{
-		int borderRadiusLRPx = borderProperties.getLowerRightBorderRadiusPx() == null ? borderProperties.getBorderRadiusPx() : borderProperties.getLowerRightBorderRadiusPx();
-		Polygon borderRadiusLR = createCircle(borderRadiusLRPx, 1/4f, 1f);
+		float radiusTL = getRadiusPx(borderProperties.getUpperLeftBorderRadiusPx(), borderProperties) * scale;
+		float radiusLL = getRadiusPx(borderProperties.getLowerLeftBorderRadiusPx(), borderProperties) * scale;
+		float radiusLR = getRadiusPx(borderProperties.getLowerRightBorderRadiusPx(), borderProperties) * scale;
+		float radiusTR = getRadiusPx(borderProperties.getUpperRightBorderRadiusPx(), borderProperties) * scale;
+		
+		// The most common case: all corners have the same radius.
+		if(radiusTL == radiusLL && radiusTL == radiusLR && radiusTL == radiusTR)
+		{
+			return new RoundRectangle2D.Float(x, y, width, height, 2 * radiusTL, 2 * radiusTL);
+		}
+		
+		Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, 12);
 		
-		borderRadiusLR.translate(rect.width - borderRadiusLRPx, rect.height - borderRadiusLRPx);
+		path.moveTo(x + radiusTL, y);
+		path.lineTo(x + width - radiusTR, y);
+		path.curveTo(x + width - radiusTR + radiusTR * ARC_KAPPA, y, x + width, y + radiusTR - radiusTR * ARC_KAPPA, x + width, y + radiusTR);
+		path.lineTo(x + width, y + height - radiusLR);
+		path.curveTo(x + width, y + height - radiusLR + radiusLR * ARC_KAPPA, x + width - radiusLR + radiusLR * ARC_KAPPA, y + height, x + width - radiusLR, y + height);
+		path.lineTo(x + radiusLL, y + height);
+		path.curveTo(x + radiusLL - radiusLL * ARC_KAPPA, y + height, x, y + height - radiusLL + radiusLL * ARC_KAPPA, x, y + height - radiusLL);
+		path.lineTo(x, y + radiusTL);
+		path.curveTo(x, y + radiusTL - radiusTL * ARC_KAPPA, x + radiusTL - radiusTL * ARC_KAPPA, y, x + radiusTL, y);
+		path.closePath();
 		
-		return borderRadiusLR;
+		return path;
+	}
+	
+	public static Shape createRoundRectangle(Rectangle rect, GBorderProperty borderProperties)
+	{
+		return createRoundRectangle(rect.x, rect.y, rect.width, rect.height, borderProperties, 1f);
 	}
 	
-	private static Polygon getUpperLeftRadius(GBorderProperty borderProperties)
+	// Returns the amount of line segments a quarter circle with the given radius needs,
+	// so no point of the exact circle is further away from the segments than the tolerance (in pixels).
+	// The distance between a segment and the circle (sagitta) is r * (1 - cos(a / 2)) for a segment over the angle a.
+	public static int getArcSegments(int radiusPx, float tolerancePx) throws IllegalArgumentException
 	{
-		int borderRadiusTLPx = borderProperties.getUpperLeftBorderRadiusPx() == null ? borderProperties.getBorderRadiusPx() : borderProperties.getUpperLeftBorderRadiusPx();
-		Polygon borderRadiusTL = createCircle(borderRadiusTLPx, 1/4f, 1f);
+		if(tolerancePx <= 0)
+		{
+			throw new IllegalArgumentException("The tolerance of a tessellated arc must be greater than zero (>0) !");
+		}
 		
-		borderRadiusTL = ShapeTransform.flip(borderRadiusTL);
+		if(radiusPx <= tolerancePx)
+		{
+			return 1;
+		}
 		
-		return borderRadiusTL;
+		double maxAngle = 2 * Math.acos(1 - tolerancePx / radiusPx);
+		
+		return Math.min(MAX_ARC_SEGMENTS, Math.max(1, (int) Math.ceil(Math.PI / 2 / maxAngle)));
 	}
 	
-	private static Polygon getUpperRightRadius(GBorderProperty borderProperties, Rectangle rect)
-	{		
-		int borderRadiusTRPx = borderProperties.getUpperRightBorderRadiusPx() == null ? borderProperties.getBorderRadiusPx() : borderProperties.getUpperRightBorderRadiusPx();
-		Polygon borderRadiusTR = createCircle(borderRadiusTRPx, 1/4f, 1f);
-
-		borderRadiusTR = ShapeTransform.flipHorizontically(borderRadiusTR);
-		borderRadiusTR = ShapeTransform.inverseOrderFrom(borderRadiusTR);
-		borderRadiusTR.translate(rect.width - borderRadiusTRPx, 0);
-
-		return borderRadiusTR;
+	// Returns the points (x|y) = (sin(a) * r | cos(a) * r) of a quarter circle from a = 0 to a = 90 degrees (both included).
+	// The arcs are memoized by radius and tolerance, so the corners of a rectangle are only calculated once.
+	// The returned arrays must not be modified.
+	private static int[][] getQuarterArc(int radiusPx, float tolerancePx)
+	{
+		// Without a radius, a corner is a single point.
+		if(radiusPx <= 0)
+		{
+			return EMPTY_ARC;
+		}
+		
+		Long key = ((long) radiusPx << 32) | Float.floatToIntBits(tolerancePx);
+		
+		synchronized(arcs)
+		{
+			int[][] arc = arcs.get(key);
+			
+			if(arc != null)
+			{
+				return arc;
+			}
+		}
+		
+		int segments = getArcSegments(radiusPx, tolerancePx);
+		
+		int[][] arc = new int[2][segments + 1];
+		
+		for(int i = 0; i <= segments; i++)
+		{
+			double angle = (double) i / segments * Math.PI / 2;
+			
+			arc[0][i] = (int) Math.round(Math.sin(angle) * radiusPx);
+			arc[1][i] = (int) Math.round(Math.cos(angle) * radiusPx);
+		}
+		
+		synchronized(arcs)
+		{
+			arcs.put(key, arc);
+		}
+		
+		return arc;
 	}
 	
-	public static Polygon createRectangleFrom(Rectangle rect, GBorderProperty borderProperties)
+	// Creates (a part of) a circle with as few points as the default tolerance allows (see 'getArcSegments(...)').
+	public static Polygon createCircle(int circleRadius, float circlePercentage)
 	{
-		Polygon roundedRectangle = new Polygon();
+		int segments = Math.max(1, (int) Math.ceil(getArcSegments(circleRadius, DEFAULT_TOLERANCE_PX) * 4 * circlePercentage));
 		
-		Polygon borderRadiusTL = getUpperLeftRadius(borderProperties);
-		Polygon borderRadiusLL = getLowerLeftRadius(borderProperties, rect);
-		Polygon borderRadiusLR = getLowerRightRadius(borderProperties, rect);
-		Polygon borderRadiusTR = getUpperRightRadius(borderProperties, rect);
+		Polygon circle = new Polygon();
 		
-		roundedRectangle = addPointsTo(roundedRectangle, borderRadiusTL);
-		roundedRectangle = addPointsTo(roundedRectangle, borderRadiusLL);
-		roundedRectangle = addPointsTo(roundedRectangle, borderRadiusLR);
-		roundedRectangle = addPointsTo(roundedRectangle, borderRadiusTR);
-
-		return ShapeTransform.movePolygonTo(roundedRectangle, rect.getLocation());
+		for(int i = 0; i <= segments; i++)
+		{
+			double angle = (double) i / segments * Math.PI * 2 * circlePercentage;
+			
+			circle.addPoint((int) Math.round(Math.sin(angle) * circleRadius), (int) Math.round(Math.cos(angle) * circleRadius));
+		}
+		
+		return circle;
 	}
 	
 	public static Polygon createCircle(int circleRadius, float circlePercentage, float quality) throws IllegalArgumentException
@@ -128,6 +128,46 @@ public class ShapeTransform
 		return movePolygonTo(invertPolygon(p), formerLocation);
 	}
 	
+	// Tests whether the point (x|y) is inside the polygon after it was moved by (dx|dy) and scaled by k afterwards,
+	// just like 'scalePolygon(movePolygonTo(p, ...), k).contains(...)' would do.
+	// Instead of creating a transformed copy of the polygon, the point is transformed back into the space of the original polygon.
+	// This way, no objects are created for a hit test at all.
+	public static boolean contains(Polygon p, float dx, float dy, float k, int x, int y)
+	{
+		if(k == 0)
+		{
+			return false;
+		}
+		
+		return p.contains(x / k - dx, y / k - dy);
+	}
+	
+	// The same as above but without scaling the polygon.
+	public static boolean contains(Polygon p, float dx, float dy, int x, int y)
+	{
+		return p.contains(x - dx, y - dy);
+	}
+	
+	// Tests whether the point (x|y) is inside the polygon after it was moved to the given location (see 'movePolygonTo(...)').
+	// The bounds of the polygon are determined without creating a rectangle, so no objects are created here too.
+	public static boolean containsAt(Polygon p, int locationX, int locationY, int x, int y)
+	{
+		if(p.npoints == 0)
+		{
+			return false;
+		}
+		
+		int minX = p.xpoints[0], minY = p.ypoints[0];
+		
+		for(int i = 1; i < p.npoints; i++)
+		{
+			minX = Math.min(minX, p.xpoints[i]);
+			minY = Math.min(minY, p.ypoints[i]);
+		}
+		
+		return contains(p, locationX - minX, locationY - minY, x, y);
+	}
+	
 	// Use this method to retrieve a copy of a polygon which fits the scale and offset given by the Viewport.
 	public static Polygon getPolygonRelativeToViewport(Polygon p, Point offset, float scale)
 	{
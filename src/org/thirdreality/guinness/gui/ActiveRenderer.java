@@ -0,0 +1,283 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.thirdreality.guinness.exec.LoopedThread;
+import org.thirdreality.guinness.metrics.Metrics;
+
+// Draws a Viewport with its own thread instead of waiting for Swing to repaint it (active rendering).
+// The frames are drawn into the buffers of a Canvas (see 'BufferStrategy') at a fixed rate, so the frame pacing does not depend on the EDT
+// and drawing does not compete with the dispatching of input events anymore.
+// Every frame draws the whole Viewport, so the damage tracking is not used while rendering actively.
+// It is enabled by the Display (see 'Display.setActiveRenderingEnabled(...)'), by default a Display is still rendered passively.
+public class ActiveRenderer extends LoopedThread
+{
+	// Two buffers (double buffering) are enough for most cases, three buffers (triple buffering) let the next frame be drawn while the last one is still waiting to be shown.
+	public static final int DEFAULT_BUFFERS = 2;
+
+	public static final double DEFAULT_TARGET_FPS = 60;
+
+	// How long 'stop(...)' waits for the render thread by default, which is plenty of time to finish a single frame.
+	public static final long DEFAULT_STOP_TIMEOUT_MS = 1000;
+
+	// The names of the gauges which report the frames of the ActiveRenderer (see 'Metrics.register(...)').
+	public static final String FRAMES = "render.frames", DROPPED_FRAMES = "render.dropped";
+
+	private final Viewport viewport;
+
+	private final Canvas canvas;
+
+	private final int buffers;
+
+	private final double targetFps;
+
+	// Is created by the render thread as soon as the Canvas is displayed.
+	private BufferStrategy strategy = null;
+
+	// The size the buffers were created for. When the Canvas is resized, new buffers are created.
+	private int bufferWidth, bufferHeight;
+
+	private final AtomicLong frames = new AtomicLong(), lostFrames = new AtomicLong();
+
+	private final Metrics.Gauge framesGauge = new Metrics.Gauge()
+	{
+		@Override
+		public long get()
+		{
+			return getFrames();
+		}
+	};
+
+	private final Metrics.Gauge droppedFramesGauge = new Metrics.Gauge()
+	{
+		@Override
+		public long get()
+		{
+			return getDroppedFrames();
+		}
+	};
+
+	public ActiveRenderer(Viewport viewport)
+	{
+		this(viewport, DEFAULT_BUFFERS, DEFAULT_TARGET_FPS);
+	}
+
+	public ActiveRenderer(Viewport viewport, int buffers, double targetFps) throws NullPointerException, IllegalArgumentException
+	{
+		if(viewport == null)
+		{
+			throw new NullPointerException("The parameter 'viewport' cannot be null.\nAre you sure, you gave the ActiveRenderer a Viewport to draw?");
+		}
+
+		if(buffers < 2 || buffers > 3)
+		{
+			throw new IllegalArgumentException("An ActiveRenderer supports double (2) or triple (3) buffering, but not " + buffers + " buffers!");
+		}
+
+		if(targetFps <= 0 || Double.isNaN(targetFps) || Double.isInfinite(targetFps))
+		{
+			throw new IllegalArgumentException("The target frame rate of an ActiveRenderer must be greater than zero (>0) !");
+		}
+
+		this.viewport = viewport;
+		this.buffers = buffers;
+		this.targetFps = targetFps;
+
+		canvas = new Canvas();
+
+		// Swing must not paint the Canvas, only the render thread draws into its buffers.
+		canvas.setIgnoreRepaint(true);
+
+		// The key events still go to the Display (see 'KeyAdapter').
+		canvas.setFocusable(false);
+
+		setTickRate(targetFps, TickPolicy.FIXED_RATE);
+
+		getThread().setName("GUInness-ActiveRenderer");
+
+		// The render thread does not keep the application alive on its own.
+		getThread().setDaemon(true);
+	}
+
+	// Starts the render thread. A stopped ActiveRenderer cannot be started again.
+	public void start()
+	{
+		Metrics.register(FRAMES, framesGauge);
+		Metrics.register(DROPPED_FRAMES, droppedFramesGauge);
+
+		getThread().start();
+	}
+
+	// Stops the render thread after the current frame and releases the buffers.
+	public void stop()
+	{
+		Metrics.unregister(FRAMES);
+		Metrics.unregister(DROPPED_FRAMES);
+
+		breakLoop();
+	}
+
+	// Stops the render thread and waits until it has ended, but at most the given time (in milliseconds).
+	// Afterwards no frame is drawn by it anymore and its buffers are released, so it can be replaced by another ActiveRenderer safely.
+	// Returns 'false' if the render thread is still running after the given time, then it ends (and releases its buffers) on its own later.
+	public boolean stop(long timeoutMs) throws IllegalArgumentException
+	{
+		if(timeoutMs < 0)
+		{
+			throw new IllegalArgumentException("The timeout to stop an ActiveRenderer cannot be negative!");
+		}
+
+		stop();
+
+		Thread thread = getThread();
+
+		// The render thread cannot wait for itself and a thread which was never started has nothing to end.
+		if(thread == Thread.currentThread() || thread.getState() == Thread.State.NEW)
+		{
+			return thread.getState() == Thread.State.NEW;
+		}
+
+		try
+		{
+			// A timeout of zero (0) would wait forever.
+			thread.join(Math.max(1, timeoutMs));
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		if(thread.isAlive())
+		{
+			return false;
+		}
+
+		// The thread may have ended while waiting for its next tick, so it did not release the buffers itself.
+		// As it has ended, they can be released from here while the Canvas is still displayed.
+		releaseBuffers();
+
+		return true;
+	}
+
+	@Override
+	public void loop()
+	{
+		// Before the Canvas is displayed (or after it was removed), there is nothing to draw into.
+		if(!canvas.isDisplayable() || canvas.getWidth() <= 0 || canvas.getHeight() <= 0)
+		{
+			releaseBuffers();
+
+			return;
+		}
+
+		if(strategy == null || bufferWidth != canvas.getWidth() || bufferHeight != canvas.getHeight())
+		{
+			releaseBuffers();
+
+			canvas.createBufferStrategy(buffers);
+
+			strategy = canvas.getBufferStrategy();
+
+			bufferWidth = canvas.getWidth();
+			bufferHeight = canvas.getHeight();
+		}
+
+		// The contents of the buffers can be lost at any time (e.g. when the display mode changes), then the frame is drawn again.
+		boolean lost;
+
+		do
+		{
+			boolean restored;
+
+			do
+			{
+				Graphics g = strategy.getDrawGraphics();
+
+				try
+				{
+					viewport.drawFrame(g);
+				}
+				finally
+				{
+					g.dispose();
+				}
+
+				restored = strategy.contentsRestored();
+
+				if(restored)
+				{
+					lostFrames.incrementAndGet();
+				}
+			}
+			while(restored && !tryingBreak());
+
+			strategy.show();
+
+			lost = strategy.contentsLost();
+
+			if(lost)
+			{
+				lostFrames.incrementAndGet();
+			}
+		}
+		while(lost && !tryingBreak());
+
+		// Makes sure the frame is displayed now and not buffered by the window system (e.g. on Linux).
+		Toolkit.getDefaultToolkit().sync();
+
+		frames.incrementAndGet();
+
+		if(tryingBreak())
+		{
+			releaseBuffers();
+		}
+	}
+
+	private void releaseBuffers()
+	{
+		if(strategy != null)
+		{
+			strategy.dispose();
+
+			strategy = null;
+		}
+	}
+
+	// Returns the Canvas the frames are drawn into. It needs to be added to the Display to be visible.
+	public Canvas getCanvas()
+	{
+		return canvas;
+	}
+
+	public Viewport getViewport()
+	{
+		return viewport;
+	}
+
+	public int getBuffers()
+	{
+		return buffers;
+	}
+
+	public double getTargetFps()
+	{
+		return targetFps;
+	}
+
+	// Returns how many frames were shown.
+	public long getFrames()
+	{
+		return frames.get();
+	}
+
+	// Returns how many frames were dropped, either because a frame took longer than the target frame rate allows (see 'getOverruns()')
+	// or because the contents of the buffers were lost and the frame had to be drawn again.
+	public long getDroppedFrames()
+	{
+		return getOverruns() + lostFrames.get();
+	}
+}
@@ -0,0 +1,401 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Rectangle;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import org.thirdreality.guinness.gui.component.GComponent;
+import org.thirdreality.guinness.gui.component.placeholder.GWindow;
+
+// Keeps track of the areas (damage) of a Viewport which need to be repainted.
+// For every component it remembers where it was painted last time and how often its style was modified then.
+// When a component was changed, moved, hidden or removed since, both its old and its new area are damaged.
+// All areas are in Viewport space, meaning they already consider the origin, offset and scale of the Viewport.
+public class DamageTracker
+{
+	// Paint bounds are extended by this value to catch pixels which are rounded differently when scaled.
+	private static final int MARGIN_PX = 2;
+
+	private final Viewport viewport;
+
+	// Contains what has been painted for every component in the last frames.
+	private final IdentityHashMap<GComponent, Record> records = new IdentityHashMap<GComponent, Record>();
+
+	// When set, the next frame will repaint the whole Viewport, e.g. after the offset or scale has changed.
+	private boolean fullRepaintRequested = true;
+
+	// An area which needs to be repainted although no component has changed there, e.g. an overlay (see 'requestRepaint(...)').
+	private Rectangle requestedArea = null;
+
+	// Used to find records of components which are not displayed anymore.
+	private int stamp = 0;
+
+	// The stamp and the Viewport area of the frame which is painted right now (see 'beginFrame()').
+	private int frame = 0;
+
+	private Rectangle frameArea;
+
+	private boolean frameBegun = false;
+
+	// The requests which were pending when the current frame began. Requests arriving while painting stay pending for the next frame.
+	private Rectangle frameRequestedArea = null;
+
+	private boolean frameFullRepaintRequested = false;
+
+	// Used to calculate the bounds without creating new rectangles all the time.
+	private final Rectangle bounds = new Rectangle();
+
+	// Statistics to compare the painted area with the area of the whole Viewport.
+	private long paintedPixels = 0, viewportPixels = 0, frames = 0;
+
+	public DamageTracker(Viewport viewport)
+	{
+		this.viewport = viewport;
+	}
+
+	// Makes sure the whole Viewport is repainted in the next frame.
+	public synchronized void requestFullRepaint()
+	{
+		fullRepaintRequested = true;
+	}
+
+	// Makes sure the given area is repainted in the next frame, even if no component has changed there.
+	public synchronized void requestRepaint(Rectangle area)
+	{
+		if(area != null && !area.isEmpty())
+		{
+			requestedArea = union(requestedArea, area);
+		}
+	}
+
+	public synchronized boolean isFullRepaintRequested()
+	{
+		return fullRepaintRequested;
+	}
+
+	// Returns the union of all damaged areas since the last frame.
+	// Returns 'null' if nothing needs to be repainted at all.
+	public synchronized Rectangle collectDamage()
+	{
+		if(fullRepaintRequested)
+		{
+			return getViewportArea();
+		}
+
+		Rectangle area = getViewportArea();
+
+		Rectangle damage = null;
+
+		if(requestedArea != null)
+		{
+			damage = requestedArea.intersection(area);
+
+			if(damage.isEmpty())
+			{
+				damage = null;
+			}
+		}
+
+		stamp++;
+
+		for(GComponent component : viewport.getComponentOutput())
+		{
+			boolean drawn = isDrawn(component) && measure(component, area);
+
+			int modifications = getModifications(component);
+
+			Record record = records.get(component);
+
+			if(record == null)
+			{
+				if(drawn)
+				{
+					damage = union(damage, bounds);
+				}
+
+				continue;
+			}
+
+			record.stamp = stamp;
+
+			if(record.isDifferent(drawn, bounds, modifications))
+			{
+				if(record.drawn)
+				{
+					damage = union(damage, record.bounds);
+				}
+
+				if(drawn)
+				{
+					damage = union(damage, bounds);
+				}
+			}
+		}
+
+		// Components which are not in the output anymore need to be erased.
+		for(Record record : records.values())
+		{
+			if(record.stamp != stamp && record.drawn)
+			{
+				damage = union(damage, record.bounds);
+			}
+		}
+
+		return damage;
+	}
+
+	// Is called right before a frame is painted and remembers the state of every component which is going to be painted.
+	// Only this state is committed afterwards (see 'commit(...)'), so a change which arrives while painting is never recorded as painted.
+	public synchronized void beginFrame()
+	{
+		frameArea = getViewportArea();
+
+		frame = ++stamp;
+		frameBegun = true;
+
+		frameRequestedArea = requestedArea;
+		frameFullRepaintRequested = fullRepaintRequested;
+
+		requestedArea = null;
+		fullRepaintRequested = false;
+
+		for(GComponent component : viewport.getComponentOutput())
+		{
+			Record record = records.get(component);
+
+			if(record == null)
+			{
+				record = new Record();
+
+				records.put(component, record);
+			}
+
+			record.frame = frame;
+			record.frameDrawn = isDrawn(component) && measure(component, frameArea);
+			record.frameModifications = getModifications(component);
+
+			if(record.frameDrawn)
+			{
+				record.frameBounds.setBounds(bounds);
+			}
+		}
+	}
+
+	// Is called after a frame has been painted within the given clip.
+	// All components which were painted completely within the clip are remembered with the state they had when the frame began (see 'beginFrame()').
+	// Returns 'true' if there are changes left which could not be painted within the clip, so another frame is needed.
+	public synchronized boolean commit(Rectangle clip)
+	{
+		if(!frameBegun)
+		{
+			beginFrame();
+		}
+
+		frameBegun = false;
+
+		Rectangle area = frameArea;
+
+		boolean full = clip == null || clip.contains(area);
+
+		boolean changesLeft = false;
+
+		Iterator<Record> iterator = records.values().iterator();
+
+		while(iterator.hasNext())
+		{
+			Record record = iterator.next();
+
+			// Components which were not in the output anymore when the frame began have been erased if their old area was painted.
+			if(record.frame != frame)
+			{
+				if(!record.drawn || full || clip.contains(record.bounds))
+				{
+					iterator.remove();
+				}
+				else
+				{
+					changesLeft = true;
+				}
+
+				continue;
+			}
+
+			if(!record.isDifferent(record.frameDrawn, record.frameBounds, record.frameModifications))
+			{
+				continue;
+			}
+
+			boolean oldAreaPainted = !record.initialized || !record.drawn || full || clip.contains(record.bounds);
+			boolean newAreaPainted = !record.frameDrawn || full || clip.contains(record.frameBounds);
+
+			if(!(oldAreaPainted && newAreaPainted))
+			{
+				changesLeft = true;
+
+				continue;
+			}
+
+			record.set(record.frameDrawn, record.frameBounds, record.frameModifications);
+		}
+
+		if(frameRequestedArea != null)
+		{
+			Rectangle requested = frameRequestedArea.intersection(area);
+
+			if(!(full || requested.isEmpty() || clip.contains(requested)))
+			{
+				requestedArea = union(requestedArea, frameRequestedArea);
+			}
+
+			frameRequestedArea = null;
+		}
+
+		if(requestedArea != null)
+		{
+			changesLeft = true;
+		}
+
+		if(frameFullRepaintRequested && !full)
+		{
+			fullRepaintRequested = true;
+		}
+
+		frameFullRepaintRequested = false;
+
+		Rectangle painted = full ? area : clip.intersection(area);
+
+		paintedPixels += painted.isEmpty() ? 0 : (long) painted.width * painted.height;
+		viewportPixels += (long) area.width * area.height;
+		frames++;
+
+		return changesLeft;
+	}
+
+	// Removes all records, so the next frame will repaint the whole Viewport.
+	public synchronized void reset()
+	{
+		records.clear();
+
+		requestedArea = null;
+		frameRequestedArea = null;
+		fullRepaintRequested = true;
+	}
+
+	// Calculates the area which is covered by the given component, including the margin.
+	// Only the part which is visible on the Viewport is regarded.
+	// Returns 'false' if the component is not visible on the Viewport at all.
+	private boolean measure(GComponent component, Rectangle area)
+	{
+		viewport.getPaintBounds(component, bounds);
+
+		bounds.grow(MARGIN_PX, MARGIN_PX);
+
+		Rectangle.intersect(bounds, area, bounds);
+
+		return !bounds.isEmpty();
+	}
+
+	private boolean isDrawn(GComponent component)
+	{
+		return viewport.isContained(component) && component.getStyle().isVisible() != null && component.getStyle().isVisible();
+	}
+
+	// A GWindow also displays the components of its Viewport, so their modifications count as modifications of the window too.
+	private int getModifications(GComponent component)
+	{
+		int modifications = component.getStyle().getModifications();
+
+		if(component.getType().contentEquals("window") && ((GWindow) component).hasViewport())
+		{
+			Viewport content = ((GWindow) component).getViewport();
+
+			modifications += content.getModifications();
+
+			for(GComponent contained : content.getComponentOutput())
+			{
+				modifications += contained.getStyle().getModifications();
+			}
+		}
+
+		return modifications;
+	}
+
+	private Rectangle getViewportArea()
+	{
+		return new Rectangle(0, 0, viewport.getWidth(), viewport.getHeight());
+	}
+
+	private Rectangle union(Rectangle damage, Rectangle added)
+	{
+		if(damage == null)
+		{
+			return new Rectangle(added);
+		}
+
+		damage.add(added);
+
+		return damage;
+	}
+
+	// Returns the amount of pixels which were repainted in all frames.
+	public synchronized long getPaintedPixels()
+	{
+		return paintedPixels;
+	}
+
+	// Returns the amount of pixels which would have been repainted in all frames without the damage tracking.
+	public synchronized long getViewportPixels()
+	{
+		return viewportPixels;
+	}
+
+	public synchronized long getFrames()
+	{
+		return frames;
+	}
+
+	// Contains what was painted for a component in the last frame.
+	private static class Record
+	{
+		private boolean initialized = false;
+
+		private boolean drawn;
+
+		private final Rectangle bounds = new Rectangle();
+
+		private int modifications;
+
+		private int stamp;
+
+		// The state of the component when the current frame began, it is committed after the frame has been painted.
+		private int frame;
+
+		private boolean frameDrawn;
+
+		private final Rectangle frameBounds = new Rectangle();
+
+		private int frameModifications;
+
+		private boolean isDifferent(boolean drawn, Rectangle bounds, int modifications)
+		{
+			if(!initialized || drawn != this.drawn || modifications != this.modifications)
+			{
+				return true;
+			}
+
+			return drawn && !bounds.equals(this.bounds);
+		}
+
+		private void set(boolean drawn, Rectangle bounds, int modifications)
+		{
+			this.initialized = true;
+			this.drawn = drawn;
+			this.modifications = modifications;
+
+			if(drawn)
+			{
+				this.bounds.setBounds(bounds);
+			}
+		}
+	}
+}
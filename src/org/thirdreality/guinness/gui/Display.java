@@ -14,6 +14,9 @@ public class Display extends JFrame
 
 	private volatile EventHandler eH;
 	
+	// Draws the Viewport with its own thread while active rendering is enabled (see 'setActiveRenderingEnabled(...)').
+	private ActiveRenderer activeRenderer = null;
+	
 	public Display()
 	{
 		System.gc(); // This should just make up more space for this application.
@@ -62,8 +65,16 @@ public class Display extends JFrame
 		return viewport;
 	}
 	
-	public void setViewport(Viewport viewport)
+	public synchronized void setViewport(Viewport viewport)
 	{
+		// The ActiveRenderer is bound to the old Viewport, so a new one is started for the new Viewport.
+		ActiveRenderer previous = activeRenderer;
+		
+		if(previous != null)
+		{
+			setActiveRenderingEnabled(false);
+		}
+		
 		this.viewport = viewport;
 		
 		int size = getComponentCount();
@@ -79,6 +90,61 @@ public class Display extends JFrame
 		System.out.println("> " + getSize());
 		
 		viewport.setClippingArea(getSize());
+		
+		if(previous != null)
+		{
+			setActiveRenderingEnabled(true, previous.getBuffers(), previous.getTargetFps());
+		}
+	}
+	
+	public synchronized boolean isActiveRenderingEnabled()
+	{
+		return activeRenderer != null;
+	}
+	
+	// Returns the ActiveRenderer which draws the Viewport or 'null' if the Display is rendered passively (default).
+	public synchronized ActiveRenderer getActiveRenderer()
+	{
+		return activeRenderer;
+	}
+	
+	// Enables or disables active rendering with double buffering at the default target frame rate (see 'ActiveRenderer').
+	public void setActiveRenderingEnabled(boolean enabled) throws IllegalStateException
+	{
+		setActiveRenderingEnabled(enabled, ActiveRenderer.DEFAULT_BUFFERS, ActiveRenderer.DEFAULT_TARGET_FPS);
+	}
+	
+	// Enables or disables active rendering, meaning the Viewport is drawn by its own thread at the given target frame rate
+	// instead of being repainted by Swing whenever it has changed (passive rendering, default).
+	// Active rendering provides a steady frame pacing but draws every frame completely, even if nothing has changed.
+	// If it is enabled already, the Viewport is rendered with the given buffers and target frame rate from now on.
+	public synchronized void setActiveRenderingEnabled(boolean enabled, int buffers, double targetFps) throws IllegalStateException, IllegalArgumentException
+	{
+		if(enabled && !hasViewport())
+		{
+			throw new IllegalStateException("Active rendering cannot be enabled for a Display without a Viewport!\nMake sure you have set a Viewport before (see 'setViewport(...)').");
+		}
+		
+		// The parameters are checked before the current ActiveRenderer is stopped.
+		ActiveRenderer next = enabled ? new ActiveRenderer(viewport, buffers, targetFps) : null;
+		
+		// The old render thread must have ended before the new one starts, so the Viewport is never drawn by two threads at once.
+		if(activeRenderer != null && !activeRenderer.stop(ActiveRenderer.DEFAULT_STOP_TIMEOUT_MS))
+		{
+			System.err.println("The ActiveRenderer did not stop within " + ActiveRenderer.DEFAULT_STOP_TIMEOUT_MS + " ms!");
+		}
+		
+		activeRenderer = next;
+		
+		if(hasViewport())
+		{
+			viewport.setActiveRenderer(next);
+		}
+		
+		if(next != null)
+		{
+			next.start();
+		}
 	}
 	
 	@Override
@@ -0,0 +1,258 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+
+// Collects the shapes of components which are drawn by a single fill of one color (see 'Design.getFillShape(...)'),
+// so all collected shapes of the same color are filled with one single call instead of one call (and one color change) each.
+// The painter's order is kept: a shape is only collected as long as it does not overlap any shape collected before.
+// Because the collected shapes never overlap each other, it does not matter in which order the colors are filled.
+// Anything else which is drawn over the collected shapes makes them be filled first (see 'flush(...)').
+// A DrawBatch is not thread-safe, so every thread has its own (see 'Viewport.drawComponents(...)').
+public class DrawBatch
+{
+	// Every collected shape is tested for overlaps with all shapes collected before, so the batch is filled when it gets too large.
+	private static final int MAX_SHAPES = 256;
+
+	// The colors are looked up one by one, so the batch is also filled when there are too many different colors.
+	private static final int MAX_COLORS = 32;
+
+	// The colors which have shapes collected and the collected shapes of every color (at the same index).
+	// The lists are reused after the shapes were filled.
+	private final Color[] colors = new Color[MAX_COLORS];
+
+	private final ArrayList<ArrayList<Shape>> groups = new ArrayList<ArrayList<Shape>>();
+
+	private int usedColors = 0;
+
+	// The shapes of a color are combined into this path, so they are filled at once. The path is reused for all colors.
+	private final Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, 1024);
+
+	// The bounds of all collected shapes. The rectangles are reused after the shapes were filled.
+	private final ArrayList<Rectangle> bounds = new ArrayList<Rectangle>();
+
+	private int shapes = 0;
+
+	// Contains all collected shapes, so most overlap tests do not need to test every single shape.
+	private final Rectangle union = new Rectangle();
+
+	// The bounds of the shape which is added currently.
+	private final Rectangle area = new Rectangle();
+
+	private long fills = 0, savedDrawCalls = 0;
+
+	// Collects the given shape which is filled with the given color.
+	// If it overlaps a shape collected before, all collected shapes are filled first.
+	public void add(Graphics2D g, Color color, Shape shape)
+	{
+		getBounds(shape, area);
+
+		int index = indexOf(color);
+
+		if(shapes == MAX_SHAPES || (index < 0 && usedColors == MAX_COLORS) || overlaps(area))
+		{
+			flush(g);
+
+			index = -1;
+		}
+
+		if(shapes == bounds.size())
+		{
+			bounds.add(new Rectangle(area));
+		}
+		else
+		{
+			bounds.get(shapes).setBounds(area);
+		}
+
+		if(shapes == 0)
+		{
+			union.setBounds(area);
+		}
+		else
+		{
+			union.add(area);
+		}
+
+		shapes++;
+
+		if(index < 0)
+		{
+			index = usedColors++;
+
+			colors[index] = color;
+
+			if(index == groups.size())
+			{
+				groups.add(new ArrayList<Shape>());
+			}
+		}
+
+		groups.get(index).add(shape);
+	}
+
+	private int indexOf(Color color)
+	{
+		for(int i = 0; i < usedColors; i++)
+		{
+			if(colors[i] == color || colors[i].equals(color))
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	// Tells whether the given area overlaps any of the collected shapes.
+	// Anything which is drawn within such an area needs to wait until the collected shapes are filled.
+	public boolean overlaps(Rectangle area)
+	{
+		if(shapes == 0 || !union.intersects(area))
+		{
+			return false;
+		}
+
+		for(int i = 0; i < shapes; i++)
+		{
+			if(bounds.get(i).intersects(area))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	// Fills all collected shapes, one call for every color.
+	public void flush(Graphics2D g)
+	{
+		if(shapes == 0)
+		{
+			return;
+		}
+
+		for(int i = 0; i < usedColors; i++)
+		{
+			ArrayList<Shape> group = groups.get(i);
+
+			g.setColor(colors[i]);
+
+			// A single shape is filled as it would be without batching.
+			if(group.size() == 1)
+			{
+				fill(g, group.get(0));
+			}
+			else
+			{
+				for(Shape shape : group)
+				{
+					append(shape);
+				}
+
+				g.fill(path);
+
+				path.reset();
+			}
+
+			group.clear();
+
+			colors[i] = null;
+		}
+
+		fills += usedColors;
+		savedDrawCalls += shapes - usedColors;
+
+		usedColors = 0;
+
+		shapes = 0;
+	}
+
+	private void fill(Graphics2D g, Shape shape)
+	{
+		if(shape instanceof Polygon)
+		{
+			g.fillPolygon((Polygon) shape);
+		}
+		else
+		{
+			g.fill(shape);
+		}
+	}
+
+	// Adds the outline of the given shape to the path. Polygons are added point by point, so no path iterator is created.
+	private void append(Shape shape)
+	{
+		if(!(shape instanceof Polygon))
+		{
+			path.append(shape, false);
+
+			return;
+		}
+
+		Polygon polygon = (Polygon) shape;
+
+		if(polygon.npoints == 0)
+		{
+			return;
+		}
+
+		path.moveTo(polygon.xpoints[0], polygon.ypoints[0]);
+
+		for(int i = 1; i < polygon.npoints; i++)
+		{
+			path.lineTo(polygon.xpoints[i], polygon.ypoints[i]);
+		}
+
+		path.closePath();
+	}
+
+	// Calculates the bounds of the given shape without creating a new rectangle for polygons.
+	private void getBounds(Shape shape, Rectangle result)
+	{
+		if(!(shape instanceof Polygon))
+		{
+			result.setBounds(shape.getBounds());
+
+			return;
+		}
+
+		Polygon polygon = (Polygon) shape;
+
+		if(polygon.npoints == 0)
+		{
+			result.setBounds(0, 0, 0, 0);
+
+			return;
+		}
+
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+		for(int i = 0; i < polygon.npoints; i++)
+		{
+			minX = Math.min(minX, polygon.xpoints[i]);
+			maxX = Math.max(maxX, polygon.xpoints[i]);
+			minY = Math.min(minY, polygon.ypoints[i]);
+			maxY = Math.max(maxY, polygon.ypoints[i]);
+		}
+
+		result.setBounds(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	// Returns how often the collected shapes were filled, meaning how many draw calls were really made.
+	public long getFills()
+	{
+		return fills;
+	}
+
+	// Returns how many draw calls were saved, meaning how many shapes were filled together with others of the same color.
+	public long getSavedDrawCalls()
+	{
+		return savedDrawCalls;
+	}
+}
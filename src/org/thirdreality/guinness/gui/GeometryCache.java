@@ -0,0 +1,184 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Polygon;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import org.thirdreality.guinness.gui.component.GComponent;
+import org.thirdreality.guinness.gui.component.style.GStyle;
+
+// Keeps the shapes of the components of a Viewport which were already moved and scaled for drawing (screen space).
+// Without this cache every shape would be copied, moved and scaled again on every frame, even if nothing has changed.
+// Every component can have multiple shapes which are identified by a slot number given by the design.
+// All shapes of a component are thrown away when its geometry has changed (see 'GStyle.getGeometryModifications()')
+// or when the offset, scale or origin of the Viewport has changed (see 'Viewport.getGeometryGeneration()').
+public class GeometryCache
+{
+	private final Viewport viewport;
+
+	private final IdentityHashMap<GComponent, Entry> entries = new IdentityHashMap<GComponent, Entry>();
+
+	private long hits = 0, misses = 0;
+
+	public GeometryCache(Viewport viewport)
+	{
+		this.viewport = viewport;
+	}
+
+	// Returns the cached shape of the component in the given slot or 'null' if it needs to be created (again).
+	// The variant describes further values the shape depends on (e.g. a text length), use zero (0) if there are none.
+	public Polygon get(GComponent component, int slot, long variant)
+	{
+		// The generation is received before locking the cache, so the locks of the Viewport and the cache are never nested.
+		return get(component, slot, variant, viewport.getGeometryGeneration());
+	}
+
+	private synchronized Polygon get(GComponent component, int slot, long variant, int generation)
+	{
+		GStyle style = component.getStyle();
+
+		Entry entry = entries.get(component);
+
+		if(entry == null)
+		{
+			entry = new Entry();
+
+			entries.put(component, entry);
+		}
+
+		// The entry remembers the state the shapes are created for from now on (see 'put(...)').
+		if(!entry.isValid(style, generation))
+		{
+			entry.reset(style, generation);
+		}
+
+		if(slot >= entry.shapes.length || entry.shapes[slot] == null || entry.variants[slot] != variant)
+		{
+			misses++;
+
+			return null;
+		}
+
+		hits++;
+
+		return entry.shapes[slot];
+	}
+
+	public Polygon get(GComponent component, int slot)
+	{
+		return get(component, slot, 0);
+	}
+
+	// Stores the shape of the component in the given slot and returns it.
+	// Must be called after 'get(...)' returned 'null' for the same slot.
+	// If the component or the Viewport has changed since, the shape is not stored as it might be outdated yet.
+	// The returned shape must not be modified afterwards, as it is reused for the following frames.
+	public Polygon put(GComponent component, int slot, long variant, Polygon shape)
+	{
+		return put(component, slot, variant, shape, viewport.getGeometryGeneration());
+	}
+
+	private synchronized Polygon put(GComponent component, int slot, long variant, Polygon shape, int generation)
+	{
+		Entry entry = entries.get(component);
+
+		if(entry != null && entry.isValid(component.getStyle(), generation))
+		{
+			entry.set(slot, variant, shape);
+		}
+
+		return shape;
+	}
+
+	public Polygon put(GComponent component, int slot, Polygon shape)
+	{
+		return put(component, slot, 0, shape);
+	}
+
+	// Removes the shapes of all components which are not contained in the given output anymore.
+	public synchronized void retain(GComponent[] output)
+	{
+		if(entries.isEmpty())
+		{
+			return;
+		}
+
+		IdentityHashMap<GComponent, Boolean> contained = new IdentityHashMap<GComponent, Boolean>(output.length);
+
+		for(GComponent component : output)
+		{
+			contained.put(component, Boolean.TRUE);
+		}
+
+		Iterator<GComponent> iterator = entries.keySet().iterator();
+
+		while(iterator.hasNext())
+		{
+			if(!contained.containsKey(iterator.next()))
+			{
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized void clear()
+	{
+		entries.clear();
+	}
+
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	// Contains all cached shapes of a single component.
+	private static class Entry
+	{
+		private GStyle style;
+
+		private int geometryModifications, viewportGeneration;
+
+		private Polygon[] shapes = new Polygon[2];
+
+		private long[] variants = new long[2];
+
+		private boolean isValid(GStyle style, int viewportGeneration)
+		{
+			return this.style == style && this.geometryModifications == style.getGeometryModifications() && this.viewportGeneration == viewportGeneration;
+		}
+
+		private void reset(GStyle style, int viewportGeneration)
+		{
+			this.style = style;
+			this.geometryModifications = style.getGeometryModifications();
+			this.viewportGeneration = viewportGeneration;
+
+			Arrays.fill(shapes, null);
+		}
+
+		private void set(int slot, long variant, Polygon shape)
+		{
+			if(slot >= shapes.length)
+			{
+				int length = Math.max(slot + 1, shapes.length * 2);
+
+				shapes = Arrays.copyOf(shapes, length);
+				variants = Arrays.copyOf(variants, length);
+			}
+
+			shapes[slot] = shape;
+			variants[slot] = variant;
+		}
+	}
+}
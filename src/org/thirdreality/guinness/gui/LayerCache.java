@@ -0,0 +1,303 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import org.thirdreality.guinness.gui.component.GComponent;
+import org.thirdreality.guinness.gui.component.style.GStyle;
+import org.thirdreality.guinness.gui.layer.GLayer;
+
+// Keeps an image of every cached layer of a Viewport (see 'GLayer.setCached(...)').
+// All components of a cached layer are drawn into the image once, afterwards only the image is drawn on every frame.
+// The image is drawn again when a component of the layer has changed or the Viewport was scaled.
+// When the Viewport is only moved, the image is drawn at another location.
+public class LayerCache
+{
+	// Layers which would need a larger image (in pixels) are drawn directly instead (16 MB for ARGB images).
+	public static final int MAX_IMAGE_PIXELS = 2048 * 2048;
+
+	private final Viewport viewport;
+
+	private final IdentityHashMap<GLayer, Entry> entries = new IdentityHashMap<GLayer, Entry>();
+
+	// Used to calculate the bounds without creating new rectangles all the time.
+	private final Rectangle bounds = new Rectangle();
+
+	private long hits = 0, rasterizations = 0;
+
+	public LayerCache(Viewport viewport)
+	{
+		this.viewport = viewport;
+	}
+
+	// Draws the components of the layer from 'start' (inclusive) to 'end' (exclusive) by drawing the image of the layer.
+	// Returns 'false' if the layer cannot be cached, so its components need to be drawn directly.
+	public synchronized boolean draw(Graphics g, GLayer layer, GComponent[] components, int start, int end)
+	{
+		Entry entry = entries.get(layer);
+
+		if(entry == null)
+		{
+			entry = new Entry();
+
+			entries.put(layer, entry);
+		}
+
+		float scale = viewport.getScale();
+
+		if(entry.isValid(components, start, end, scale))
+		{
+			// The layer was found not to be cacheable before and nothing has changed since.
+			if(!entry.cacheable)
+			{
+				return false;
+			}
+
+			hits++;
+		}
+		else if(!rasterize(g, entry, components, start, end, scale))
+		{
+			return false;
+		}
+
+		if(entry.image != null)
+		{
+			// The image was drawn for another offset or origin, so it is only moved by the difference.
+			int dx = (int) ((viewport.getOrigin().x + viewport.getOffset().x - entry.translationX) * scale);
+			int dy = (int) ((viewport.getOrigin().y + viewport.getOffset().y - entry.translationY) * scale);
+
+			g.drawImage(entry.image, entry.bounds.x + dx, entry.bounds.y + dy, null);
+		}
+
+		return true;
+	}
+
+	// Draws all visible components of the layer into a new image.
+	// Returns 'false' if the layer cannot be cached.
+	private boolean rasterize(Graphics g, Entry entry, GComponent[] components, int start, int end, float scale)
+	{
+		entry.reset(components, start, end, scale);
+
+		entry.cacheable = false;
+
+		// Only layers which are moved and scaled as a whole can be moved by drawing their image at another location.
+		// In a simulated Viewport, components are hidden depending on the offset (see 'Viewport.isContained(...)').
+		if(viewport.isSimulated() || !isMovedAsWhole(components, start, end))
+		{
+			return false;
+		}
+
+		Rectangle area = null;
+
+		for(int i = start; i < end; i++)
+		{
+			if(isDrawn(components[i]))
+			{
+				viewport.getPaintBounds(components[i], bounds);
+
+				area = area == null ? new Rectangle(bounds) : area.union(bounds);
+			}
+		}
+
+		// Nothing is visible, so nothing needs to be drawn.
+		if(area == null || area.isEmpty())
+		{
+			entry.cacheable = true;
+
+			return true;
+		}
+
+		if((long) area.width * area.height > MAX_IMAGE_PIXELS)
+		{
+			return false;
+		}
+
+		rasterizations++;
+
+		BufferedImage image;
+
+		// A compatible image can be drawn by the graphics card directly.
+		if(g instanceof Graphics2D && ((Graphics2D) g).getDeviceConfiguration() != null)
+		{
+			image = ((Graphics2D) g).getDeviceConfiguration().createCompatibleImage(area.width, area.height, Transparency.TRANSLUCENT);
+		}
+		else
+		{
+			image = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB);
+		}
+
+		Graphics2D imageGraphics = image.createGraphics();
+
+		imageGraphics.translate(-area.x, -area.y);
+
+		// The components are drawn in the same order as the Viewport does (see 'Viewport.drawComponentsByArray(...)').
+		for(int i = end - 1; i >= start; i--)
+		{
+			if(isDrawn(components[i]))
+			{
+				components[i].getStyle().getDesign().drawContext(imageGraphics, viewport, components[i], viewport.getOrigin(), viewport.getOffset(), scale);
+			}
+		}
+
+		imageGraphics.dispose();
+
+		entry.cacheable = true;
+		entry.image = image;
+		entry.bounds = area;
+		entry.translationX = viewport.getOrigin().x + viewport.getOffset().x;
+		entry.translationY = viewport.getOrigin().y + viewport.getOffset().y;
+
+		return true;
+	}
+
+	private boolean isDrawn(GComponent component)
+	{
+		return viewport.isContained(component) && component.getStyle().isVisible();
+	}
+
+	private boolean isMovedAsWhole(GComponent[] components, int start, int end)
+	{
+		for(int i = start; i < end; i++)
+		{
+			if(!components[i].getStyle().isMovableForViewport() || !components[i].getStyle().isScalableForViewport())
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// Makes sure all layers are drawn into their images again, e.g. when an image has finished loading.
+	public synchronized void invalidate()
+	{
+		for(Entry entry : entries.values())
+		{
+			entry.components = null;
+		}
+	}
+
+	public synchronized void remove(GLayer layer)
+	{
+		entries.remove(layer);
+	}
+
+	// Removes the images of all layers which are not contained in the given list anymore.
+	public synchronized void retain(List<GLayer> layers)
+	{
+		if(entries.isEmpty())
+		{
+			return;
+		}
+
+		Iterator<GLayer> iterator = entries.keySet().iterator();
+
+		while(iterator.hasNext())
+		{
+			GLayer layer = iterator.next();
+
+			if(!layer.isCached() || !layers.contains(layer))
+			{
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	// Returns how often an image was drawn without drawing the components again.
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	// Returns how often the components of a layer were drawn into an image.
+	public synchronized long getRasterizations()
+	{
+		return rasterizations;
+	}
+
+	// Contains the image of a single layer and the state it was drawn for.
+	private static class Entry
+	{
+		private GComponent[] components;
+
+		private int[] modifications;
+
+		private long globalModifications;
+
+		private float scale;
+
+		private boolean cacheable;
+
+		private BufferedImage image;
+
+		// The bounds of the image in the Viewport at the time it was drawn.
+		private Rectangle bounds;
+
+		// The origin plus offset of the Viewport at the time the image was drawn.
+		private int translationX, translationY;
+
+		private boolean isValid(GComponent[] components, int start, int end, float scale)
+		{
+			if(this.components == null || this.scale != scale || this.components.length != end - start)
+			{
+				return false;
+			}
+
+			for(int i = start; i < end; i++)
+			{
+				if(this.components[i - start] != components[i])
+				{
+					return false;
+				}
+			}
+
+			// If no style has changed at all, the components do not need to be compared.
+			if(globalModifications == GStyle.getGlobalModifications())
+			{
+				return true;
+			}
+
+			for(int i = start; i < end; i++)
+			{
+				if(modifications[i - start] != components[i].getStyle().getModifications())
+				{
+					return false;
+				}
+			}
+
+			// Nothing of this layer has changed, so the styles of the other layers do not need to be compared next time.
+			globalModifications = GStyle.getGlobalModifications();
+
+			return true;
+		}
+
+		private void reset(GComponent[] components, int start, int end, float scale)
+		{
+			// The global modifications are received first, so a change while drawing is noticed in the next frame.
+			this.globalModifications = GStyle.getGlobalModifications();
+
+			this.components = new GComponent[end - start];
+			this.modifications = new int[end - start];
+
+			for(int i = start; i < end; i++)
+			{
+				this.components[i - start] = components[i];
+				this.modifications[i - start] = components[i].getStyle().getModifications();
+			}
+
+			this.scale = scale;
+			this.image = null;
+		}
+	}
+}
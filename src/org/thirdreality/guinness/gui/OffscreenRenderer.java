@@ -0,0 +1,157 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.thirdreality.guinness.exec.ThreadManager;
+
+// Renders Viewports into images without a Display, e.g. on servers (with 'java.awt.headless' enabled)
+// to create thumbnails or to compare screens in visual regression tests.
+// There is no JFrame, no EventHandler and no repaint loop: a Viewport is only drawn when it is rendered here.
+// Use offscreen Viewports (see 'new Viewport()'), as they do not try to repaint themselves when they are changed.
+public class OffscreenRenderer
+{
+	private final int width, height;
+
+	private final float scale;
+
+	private Color background = Color.BLACK;
+
+	public OffscreenRenderer(int width, int height)
+	{
+		this(width, height, 1f);
+	}
+
+	// The images have the given size in pixels, the Viewports are scaled by the given scale before rendering.
+	public OffscreenRenderer(int width, int height, float scale) throws IllegalArgumentException
+	{
+		if(width <= 0 || height <= 0)
+		{
+			throw new IllegalArgumentException("The size of an offscreen image must be greater than zero (>0) ! Given: " + width + "x" + height);
+		}
+
+		if(scale <= 0)
+		{
+			throw new IllegalArgumentException("The scale of an OffscreenRenderer must be greater than zero (>0) !");
+		}
+
+		this.width = width;
+		this.height = height;
+		this.scale = scale;
+	}
+
+	// Renders the Viewport into a new image.
+	public BufferedImage render(Viewport viewport)
+	{
+		return render(viewport, new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB));
+	}
+
+	// Renders the Viewport into the given image, so the same image can be reused for multiple frames.
+	// The Viewport is resized and scaled to the values of this renderer first.
+	public BufferedImage render(Viewport viewport, BufferedImage image) throws NullPointerException
+	{
+		if(viewport == null || image == null)
+		{
+			throw new NullPointerException("Cannot render " + (viewport == null ? "a Viewport which is 'null'" : "into an image which is 'null'") + "!");
+		}
+
+		viewport.setSize(width, height);
+
+		if(viewport.getScale() != scale)
+		{
+			viewport.setScale(scale);
+		}
+
+		Graphics2D g = image.createGraphics();
+
+		try
+		{
+			// Just like the Viewport, the content of the last frame is erased by the background first.
+			g.setColor(background);
+			g.fillRect(0, 0, image.getWidth(), image.getHeight());
+
+			viewport.drawComponents(g);
+		}
+		finally
+		{
+			g.dispose();
+		}
+
+		return image;
+	}
+
+	// Renders all Viewports at the same time, using the given threads.
+	// Returns the images in the same order as the Viewports.
+	// The Viewports must not share layers or components, as they are changed while rendering (e.g. the origins of GWindows).
+	public List<BufferedImage> renderAll(List<Viewport> viewports, ThreadManager threads) throws IllegalStateException
+	{
+		List<Callable<BufferedImage>> tasks = new ArrayList<Callable<BufferedImage>>(viewports.size());
+
+		for(final Viewport viewport : viewports)
+		{
+			tasks.add(new Callable<BufferedImage>()
+			{
+				@Override
+				public BufferedImage call()
+				{
+					return render(viewport);
+				}
+			});
+		}
+
+		return threads.invokeAll(tasks);
+	}
+
+	// Renders all Viewports at the same time, using one thread per processor.
+	public List<BufferedImage> renderAll(List<Viewport> viewports) throws IllegalStateException
+	{
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		// Rendering keeps the threads busy all the time, so platform threads are used.
+		// If all threads are busy and the queue is full, the calling thread renders too.
+		ThreadManager threads = new ThreadManager(processors, Math.max(1, viewports.size()), ThreadManager.RejectionPolicy.CALLER_RUNS, false);
+
+		try
+		{
+			return renderAll(viewports, threads);
+		}
+		finally
+		{
+			threads.shutdown();
+		}
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	public float getScale()
+	{
+		return scale;
+	}
+
+	public Color getBackground()
+	{
+		return background;
+	}
+
+	public void setBackground(Color background) throws NullPointerException
+	{
+		if(background == null)
+		{
+			throw new NullPointerException("The background of an OffscreenRenderer cannot be 'null'!");
+		}
+
+		this.background = background;
+	}
+}
@@ -0,0 +1,170 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Component;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.thirdreality.guinness.feature.Timer;
+
+// Decides when a Viewport needs to be repainted.
+// A repaint is only requested when something was marked as changed (dirty), e.g. a style, a layer or the offset of the Viewport.
+// Multiple changes between two frames are merged into one single repaint,
+// and there are never more repaints per second than the maximum FPS allows.
+// This way, a Display which shows no changes does not use the CPU for rendering at all.
+public class RepaintScheduler
+{
+	public static final int DEFAULT_MAX_FPS = 60;
+
+	// Contains all schedulers which are in use currently.
+	// They are only weakly referenced, so a Viewport which is not used anymore can still be removed by the GBC.
+	// Every changed style marks all schedulers dirty, so the list is read without any lock, it is only copied when a scheduler is added or removed.
+	private static final CopyOnWriteArrayList<WeakReference<RepaintScheduler>> schedulers = new CopyOnWriteArrayList<WeakReference<RepaintScheduler>>();
+
+	protected final Component target;
+
+	private final Runnable repaint;
+
+	// Tells whether a repaint was requested yet but the frame has not been started.
+	private final AtomicBoolean pending = new AtomicBoolean(false);
+
+	private volatile long frameIntervalNs;
+
+	private volatile long lastFrameNs;
+
+	private final AtomicLong dirtyMarks = new AtomicLong(), frames = new AtomicLong();
+
+	public RepaintScheduler(Component target)
+	{
+		this(target, DEFAULT_MAX_FPS);
+	}
+
+	public RepaintScheduler(Component target, int maxFps) throws NullPointerException
+	{
+		if(target == null)
+		{
+			throw new NullPointerException("The target of a RepaintScheduler cannot be 'null' !");
+		}
+
+		this.target = target;
+
+		repaint = new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				requestRepaint();
+			}
+		};
+
+		setMaxFps(maxFps);
+
+		// The first frame can be painted immediately.
+		lastFrameNs = System.nanoTime() - frameIntervalNs;
+
+		schedulers.add(new WeakReference<RepaintScheduler>(this));
+	}
+
+	// Marks the targets of all schedulers which are in use currently as dirty.
+	// This is used by components and styles, as they do not know in which Viewports they are displayed.
+	public static void markAllDirty()
+	{
+		for(WeakReference<RepaintScheduler> reference : schedulers)
+		{
+			RepaintScheduler scheduler = reference.get();
+
+			// The scheduler was removed by the GBC meanwhile, so it is not needed anymore.
+			if(scheduler == null)
+			{
+				schedulers.remove(reference);
+			}
+			else
+			{
+				scheduler.markDirty();
+			}
+		}
+	}
+
+	// Marks the target as changed, so it is repainted as soon as the maximum FPS allows it.
+	// If there is a repaint pending yet, nothing else happens because the pending frame will show the change too.
+	public void markDirty()
+	{
+		dirtyMarks.incrementAndGet();
+
+		if(pending.compareAndSet(false, true))
+		{
+			long waitNs = lastFrameNs + frameIntervalNs - System.nanoTime();
+
+			if(waitNs <= 0)
+			{
+				requestRepaint();
+			}
+			else
+			{
+				// Delays the repaint which would otherwise exceed the maximum FPS.
+				Timer.schedule(repaint, waitNs, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	// Asks the target to be repainted.
+	// Can be overridden if the target only wants to repaint the areas which have changed.
+	// If it is decided that no repaint is necessary at all, 'frameSkipped()' needs to be called.
+	protected void requestRepaint()
+	{
+		target.repaint();
+	}
+
+	// Needs to be called by the target at the beginning of every frame.
+	// All changes marked from this point on will lead to another frame.
+	public void frameStarted()
+	{
+		lastFrameNs = System.nanoTime();
+
+		frames.incrementAndGet();
+
+		pending.set(false);
+	}
+
+	// Needs to be called if a requested repaint was not necessary after all.
+	// Otherwise all following changes would wait for a frame which never comes.
+	public void frameSkipped()
+	{
+		pending.set(false);
+	}
+
+	public boolean isPending()
+	{
+		return pending.get();
+	}
+
+	public int getMaxFps()
+	{
+		return (int) (TimeUnit.SECONDS.toNanos(1) / frameIntervalNs);
+	}
+
+	public void setMaxFps(int maxFps) throws IllegalArgumentException
+	{
+		if(maxFps <= 0)
+		{
+			throw new IllegalArgumentException("The maximum FPS of a RepaintScheduler must be greater than zero (>0) !");
+		}
+
+		frameIntervalNs = TimeUnit.SECONDS.toNanos(1) / maxFps;
+	}
+
+	// Returns how often the target was marked dirty in total.
+	public long getDirtyMarks()
+	{
+		return dirtyMarks.get();
+	}
+
+	// Returns how many frames were started in total.
+	// Compared with the dirty marks, this tells you how many repaints were saved by merging them.
+	public long getFrames()
+	{
+		return frames.get();
+	}
+}
@@ -0,0 +1,407 @@
+package org.thirdreality.guinness.gui;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import org.thirdreality.guinness.gui.component.GComponent;
+import org.thirdreality.guinness.gui.component.style.GStyle;
+
+// A uniform grid which contains the bounds of all components of a Viewport.
+// It is used to find the components at the cursor location without testing every single component of the Viewport.
+// The bounds are stored in "world space", meaning without the origin, offset and scale of the Viewport.
+// Instead, the cursor location is transformed back into world space once for every query.
+// Components which only moved are updated in the grid, whereas the whole grid is rebuilt when the layers of the Viewport have changed.
+public class SpatialIndex
+{
+	// The size of a cell in world space.
+	private static final int CELL_SIZE_PX = 64;
+
+	// Limits the size of the grid, so a few far away components do not create a huge grid.
+	// If there are more cells needed, the cells will just become bigger.
+	private static final int MAX_CELLS_PER_AXIS = 256;
+
+	// Whether a component is movable or scalable by the Viewport decides how the cursor is transformed into world space.
+	// Every combination is a category of its own.
+	private static final int MOVABLE = 1, SCALABLE = 2, CATEGORIES = 4;
+
+	private final Viewport viewport;
+
+	// All components of the output of the Viewport, in the same order (the order is the priority).
+	private GComponent[] components = new GComponent[0];
+
+	// The styles which were indexed for each component, their geometry modifications, bounds and categories.
+	private GStyle[] styles = new GStyle[0];
+
+	private int[] modifications = new int[0];
+
+	private Rectangle[] bounds = new Rectangle[0];
+
+	private int[] categories = new int[0];
+
+	// Describes the grid in world space.
+	private int minX, minY, cellSize, columns, rows;
+
+	// Contains the indices of all components which intersect a cell.
+	private int[][] cells = new int[0][];
+
+	private int[] cellSizes = new int[0];
+
+	private boolean rebuildRequested = true;
+
+	// The global geometry modifications the index was last checked against (see 'GStyle.getGlobalGeometryModifications()').
+	// Only the geometry decides about the bounds and categories, so other changes (e.g. hover colors) do not make the index check all components.
+	private long validatedModifications = -1;
+
+	// Contains the result of the last query, ordered by priority.
+	private int[] candidates = new int[16];
+
+	private int candidateCount = 0;
+
+	public SpatialIndex(Viewport viewport)
+	{
+		this.viewport = viewport;
+	}
+
+	// Makes sure the index is rebuilt completely with the next query, e.g. when the layers of the Viewport have changed.
+	public synchronized void requestRebuild()
+	{
+		rebuildRequested = true;
+	}
+
+	// Looks up all components which might be at the given cursor location (relative to the Viewport).
+	// Returns the amount of found candidates which can be received afterwards by 'getCandidate(int index)' in order of their priority.
+	// Only the bounds are tested here, so the exact shape of the candidates still needs to be tested by the caller.
+	public synchronized int query(Point cursor)
+	{
+		validate();
+
+		candidateCount = 0;
+
+		if(columns == 0)
+		{
+			return 0;
+		}
+
+		for(int category = 0; category < CATEGORIES; category++)
+		{
+			collectCandidates(cursor, category);
+		}
+
+		sortCandidates();
+
+		return candidateCount;
+	}
+
+	// Returns the candidate at the given index of the last query.
+	public synchronized GComponent getCandidate(int index)
+	{
+		return components[candidates[index]];
+	}
+
+	// Transforms the cursor into world space for the given category and collects all components of this category whose bounds contain it.
+	private void collectCandidates(Point cursor, int category)
+	{
+		float scale = viewport.getScale();
+
+		float x = cursor.x, y = cursor.y;
+
+		// Simulated Viewports do not support offsets and scales for their components (see 'MouseAdapter.isFocusing(...)').
+		if(!viewport.isSimulated())
+		{
+			if((category & SCALABLE) != 0)
+			{
+				if(scale == 0)
+				{
+					return;
+				}
+
+				x /= scale;
+				y /= scale;
+			}
+
+			if((category & MOVABLE) != 0)
+			{
+				x -= viewport.getOffset().x;
+				y -= viewport.getOffset().y;
+			}
+		}
+
+		x -= viewport.getOrigin().x;
+		y -= viewport.getOrigin().y;
+
+		// The bounds are extended by one screen pixel because the shapes are rounded when they are scaled.
+		// When the Viewport is zoomed out, one screen pixel covers more than one pixel in world space.
+		int tolerance = 1;
+
+		if(!viewport.isSimulated() && (category & SCALABLE) != 0 && scale < 1)
+		{
+			tolerance = (int) Math.ceil(1 / scale);
+		}
+
+		int firstColumn = Math.max(0, (int) Math.floor((x - tolerance - minX) / cellSize));
+		int lastColumn = Math.min(columns - 1, (int) Math.floor((x + tolerance - minX) / cellSize));
+		int firstRow = Math.max(0, (int) Math.floor((y - tolerance - minY) / cellSize));
+		int lastRow = Math.min(rows - 1, (int) Math.floor((y + tolerance - minY) / cellSize));
+
+		for(int row = firstRow; row <= lastRow; row++)
+		{
+			for(int column = firstColumn; column <= lastColumn; column++)
+			{
+				int cell = row * columns + column;
+
+				for(int i = 0; i < cellSizes[cell]; i++)
+				{
+					int index = cells[cell][i];
+
+					Rectangle b = bounds[index];
+
+					if(categories[index] == category && x >= b.x - tolerance && y >= b.y - tolerance && x <= b.x + b.width + tolerance && y <= b.y + b.height + tolerance)
+					{
+						addCandidate(index);
+					}
+				}
+			}
+		}
+	}
+
+	private void addCandidate(int index)
+	{
+		if(candidateCount == candidates.length)
+		{
+			int[] extended = new int[candidates.length * 2];
+
+			System.arraycopy(candidates, 0, extended, 0, candidates.length);
+
+			candidates = extended;
+		}
+
+		candidates[candidateCount++] = index;
+	}
+
+	// Sorts the candidates by their priority (index in the output of the Viewport) and removes duplicates.
+	// There are only a few candidates usually, so insertion sort is fast enough.
+	private void sortCandidates()
+	{
+		for(int i = 1; i < candidateCount; i++)
+		{
+			int current = candidates[i];
+
+			int j = i - 1;
+
+			while(j >= 0 && candidates[j] > current)
+			{
+				candidates[j + 1] = candidates[j];
+
+				j--;
+			}
+
+			candidates[j + 1] = current;
+		}
+
+		// The tolerance may cover several cells, so a component intersecting more than one of them is found more than once.
+		int unique = 0;
+
+		for(int i = 0; i < candidateCount; i++)
+		{
+			if(unique == 0 || candidates[unique - 1] != candidates[i])
+			{
+				candidates[unique++] = candidates[i];
+			}
+		}
+
+		candidateCount = unique;
+	}
+
+	// Makes sure the index matches the components of the Viewport again.
+	private void validate()
+	{
+		if(rebuildRequested)
+		{
+			rebuild();
+
+			return;
+		}
+
+		long globalModifications = GStyle.getGlobalGeometryModifications();
+
+		// No geometry was modified since the last query.
+		if(globalModifications == validatedModifications)
+		{
+			return;
+		}
+
+		validatedModifications = globalModifications;
+
+		for(int i = 0; i < components.length; i++)
+		{
+			GStyle style = components[i].getStyle();
+
+			if(style != styles[i] || style.getGeometryModifications() != modifications[i])
+			{
+				if(!update(i))
+				{
+					// The component was moved beyond the grid.
+					rebuild();
+
+					return;
+				}
+			}
+		}
+	}
+
+	// Updates the bounds of a single component in the grid.
+	// Returns 'false' if the new bounds are beyond the grid, so the grid needs to be rebuilt.
+	private boolean update(int index)
+	{
+		Rectangle old = bounds[index];
+
+		record(index);
+
+		if(old.equals(bounds[index]))
+		{
+			return true;
+		}
+
+		if(!isWithinGrid(bounds[index]))
+		{
+			return false;
+		}
+
+		removeFromCells(index, old);
+		addToCells(index, bounds[index]);
+
+		return true;
+	}
+
+	// Builds the whole grid again from the current output of the Viewport.
+	private void rebuild()
+	{
+		rebuildRequested = false;
+
+		validatedModifications = GStyle.getGlobalGeometryModifications();
+
+		// The output is never changed after it was published, so it can be used directly.
+		components = viewport.getComponentOutput();
+
+		int size = components.length;
+
+		styles = new GStyle[size];
+		modifications = new int[size];
+		bounds = new Rectangle[size];
+		categories = new int[size];
+
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+		minX = Integer.MAX_VALUE;
+		minY = Integer.MAX_VALUE;
+
+		for(int i = 0; i < size; i++)
+		{
+			record(i);
+
+			minX = Math.min(minX, bounds[i].x);
+			minY = Math.min(minY, bounds[i].y);
+			maxX = Math.max(maxX, bounds[i].x + bounds[i].width);
+			maxY = Math.max(maxY, bounds[i].y + bounds[i].height);
+		}
+
+		if(size == 0)
+		{
+			columns = rows = 0;
+
+			return;
+		}
+
+		// Leave some space around all components, so they can be moved a bit without rebuilding the grid.
+		minX -= CELL_SIZE_PX;
+		minY -= CELL_SIZE_PX;
+		maxX += CELL_SIZE_PX;
+		maxY += CELL_SIZE_PX;
+
+		int width = maxX - minX, height = maxY - minY;
+
+		cellSize = Math.max(CELL_SIZE_PX, (int) Math.ceil((double) Math.max(width, height) / MAX_CELLS_PER_AXIS));
+
+		columns = width / cellSize + 1;
+		rows = height / cellSize + 1;
+
+		cells = new int[columns * rows][];
+		cellSizes = new int[columns * rows];
+
+		for(int i = 0; i < size; i++)
+		{
+			addToCells(i, bounds[i]);
+		}
+	}
+
+	// Remembers the current bounds and category of a component.
+	private void record(int index)
+	{
+		GStyle style = components[index].getStyle();
+
+		styles[index] = style;
+		modifications[index] = style.getGeometryModifications();
+		bounds[index] = style.getPrimaryLook().getBounds();
+		categories[index] = (style.isMovableForViewport() ? MOVABLE : 0) | (style.isScalableForViewport() ? SCALABLE : 0);
+	}
+
+	private boolean isWithinGrid(Rectangle b)
+	{
+		return b.x >= minX && b.y >= minY && b.x + b.width < minX + columns * cellSize && b.y + b.height < minY + rows * cellSize;
+	}
+
+	private void addToCells(int index, Rectangle b)
+	{
+		for(int row = (b.y - minY) / cellSize; row <= (b.y + b.height - minY) / cellSize; row++)
+		{
+			for(int column = (b.x - minX) / cellSize; column <= (b.x + b.width - minX) / cellSize; column++)
+			{
+				int cell = row * columns + column;
+
+				if(cells[cell] == null)
+				{
+					cells[cell] = new int[4];
+				}
+				else if(cellSizes[cell] == cells[cell].length)
+				{
+					int[] extended = new int[cells[cell].length * 2];
+
+					System.arraycopy(cells[cell], 0, extended, 0, cellSizes[cell]);
+
+					cells[cell] = extended;
+				}
+
+				cells[cell][cellSizes[cell]++] = index;
+			}
+		}
+	}
+
+	private void removeFromCells(int index, Rectangle b)
+	{
+		for(int row = (b.y - minY) / cellSize; row <= (b.y + b.height - minY) / cellSize; row++)
+		{
+			for(int column = (b.x - minX) / cellSize; column <= (b.x + b.width - minX) / cellSize; column++)
+			{
+				int cell = row * columns + column;
+
+				for(int i = 0; i < cellSizes[cell]; i++)
+				{
+					if(cells[cell][i] == index)
+					{
+						System.arraycopy(cells[cell], i + 1, cells[cell], i, cellSizes[cell] - i - 1);
+
+						cellSizes[cell]--;
+
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	// Returns the amount of components in the index.
+	public synchronized int size()
+	{
+		return components.length;
+	}
+}
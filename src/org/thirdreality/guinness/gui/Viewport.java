@@ -1,21 +1,36 @@
 package org.thirdreality.guinness.gui;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
+import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import org.thirdreality.guinness.feature.GIPoint;
+import org.thirdreality.guinness.feature.Timer;
 import org.thirdreality.guinness.feature.shape.ShapeTransform;
 import org.thirdreality.guinness.gui.component.GComponent;
 import org.thirdreality.guinness.gui.component.placeholder.GWindowManager;
+import org.thirdreality.guinness.gui.design.Design;
 import org.thirdreality.guinness.gui.layer.GLayer;
 import org.thirdreality.guinness.handler.EventHandler;
+import org.thirdreality.guinness.metrics.Histogram;
+import org.thirdreality.guinness.metrics.Metrics;
+import org.thirdreality.guinness.metrics.MetricsHud;
 
 public class Viewport extends JPanel
 {
@@ -25,12 +40,21 @@ public class Viewport extends JPanel
 	// The same priority can only exist once in a Viewport!
 	private CopyOnWriteArrayList<GLayer> layers;
 
-	// This list contains all GComponents which are added by new layers but not yet recognized by the system.
-	private CopyOnWriteArrayList<GComponent> compBuffer;
+	// This list contains all GComponents of all layers, ordered by the priority of the layers.
+	// It is only changed while holding the lock of this Viewport.
+	private ArrayList<GComponent> compBuffer;
+
+	// Remembers how many components of every layer are contained in 'compBuffer'.
+	// This way, the components of a single layer can be found (and removed) without rebuilding the whole buffer.
+	private IdentityHashMap<GLayer, Integer> bufferedLayerSizes;
 
 	// After all components have been added all components are added from 'compBuffer' above.
 	// This ensures that no errors can appear while adding new layers and reduces "performance waste".
-	private GComponent[] compOutput;
+	// The array is never changed after it was published, so it can be read without locking (snapshot).
+	private volatile GComponent[] compOutput;
+	
+	// The same output, but divided into the layers the components belong to (see 'drawComponents(...)').
+	private volatile LayerOutput layerOutput;
 
 	private EventHandler eventHandler;
 
@@ -48,6 +72,9 @@ public class Viewport extends JPanel
 	// That means on the other hand, an EventHandler can only be used with Displays, not with GWindows !
 	private final boolean isSimulated;
 	
+	// An offscreen Viewport is only drawn into images (see 'OffscreenRenderer'), so it is never repainted by Swing.
+	private final boolean isOffscreen;
+	
 	/* The origin can be set in order to apply an additional offset to the Viewport.
 	 * The origin is a special implementation in order to enable component content in GWindows.
 	 * Imagine, you have a GWindow but how should the main renderer know that there is an offset for a Viewport?
@@ -73,17 +100,110 @@ public class Viewport extends JPanel
 	private int priorityHighest;
 	
 	private GWindowManager windowManager;
+	
+	// Decides when this Viewport needs to be repainted (see 'markDirty()').
+	// Simulated Viewports have no scheduler because they are rendered by the Viewport of the Display.
+	private RepaintScheduler repaintScheduler;
+	
+	// Keeps track of the areas which have changed, so only these areas are repainted (see 'repaintDamage()').
+	// Simulated Viewports have no damage tracker for the same reason as above.
+	private DamageTracker damageTracker;
+	
+	// When enabled, all repainted areas are highlighted on top of the components.
+	// This is a debug feature to see how much is repainted with every frame.
+	private boolean damageOverlay = false;
+	
+	// When set, the metrics are displayed on top of the components (see 'setMetricsHudEnabled(...)').
+	private volatile MetricsHud metricsHud = null;
+	
+	// When set, this Viewport is drawn by a render thread instead of Swing (see 'Display.setActiveRenderingEnabled(...)').
+	private volatile ActiveRenderer activeRenderer = null;
+	
+	// Records how long every frame takes (see 'Metrics.FRAME').
+	private final Histogram frameHistogram = Metrics.getHistogram(Metrics.FRAME);
+	
+	// When enabled, rounded rectangles are filled by the native rasterizer of Java2D instead of as tessellated polygons.
+	private volatile boolean nativeRoundRectangles = false;
+	
+	// When enabled, components which are filled with a single color are filled together with others of the same color (see 'DrawBatch').
+	private volatile boolean drawBatching = false;
+	
+	// Every thread which draws this Viewport has its own batch (see 'OffscreenRenderer.renderAll(...)').
+	// The batches are not shared with other Viewports, because the Viewport of a GWindow is drawn while the Display's Viewport is drawn.
+	private final ThreadLocal<DrawBatch> drawBatches = new ThreadLocal<DrawBatch>()
+	{
+		@Override
+		protected DrawBatch initialValue()
+		{
+			return new DrawBatch();
+		}
+	};
+	
+	// How many draw calls were saved by batching in the last frame and in total.
+	// The total is atomic, as frames can be drawn by different threads (e.g. by Swing and by an OffscreenRenderer).
+	private volatile long savedDrawCalls = 0;
+	
+	private final AtomicLong totalSavedDrawCalls = new AtomicLong();
+	
+	// Counts how often this Viewport was marked dirty, e.g. when its offset or layers have changed.
+	private volatile int modifications = 0;
+	
+	// Is used to find the components at the cursor location quickly (see 'MouseAdapter.getFocusedComponent(...)').
+	private SpatialIndex spatialIndex;
+	
+	// Keeps the moved and scaled shapes of the components, so they are not transformed again on every frame.
+	private GeometryCache geometryCache;
+	
+	// Keeps the images of the cached layers, so their components are not drawn again on every frame (see 'GLayer.setCached(...)').
+	private LayerCache layerCache;
+	
+	// Changes whenever the offset, scale or origin has changed, so the cached shapes are not valid anymore.
+	private int geometryGeneration = 0;
+	
+	// The values the current geometry generation was created for.
+	// They are compared too because the offset and origin can also be modified directly (see 'getOffset()').
+	private int generationOffsetX, generationOffsetY, generationOriginX, generationOriginY;
+	
+	private float generationScale = 1f;
+	
+	// The geometry generation has its own lock, so drawing does not need to wait for layer changes.
+	private final Object generationLock = new Object();
+	
+	// Used to check whether a component needs to be drawn within the clip (see 'drawComponentsByArray(...)').
+	private final Rectangle paintBounds = new Rectangle();
 
 	public Viewport(EventHandler eventHandler, boolean isSimulated)
+	{
+		this(eventHandler, isSimulated, false);
+	}
+	
+	// Creates a Viewport which is not displayed but only drawn into images by an OffscreenRenderer.
+	// It works without a Display, so it can also be used when 'java.awt.headless' is enabled.
+	public Viewport()
+	{
+		this(null, false, true);
+	}
+	
+	private Viewport(EventHandler eventHandler, boolean isSimulated, boolean isOffscreen)
 	{
 		this.eventHandler = eventHandler;
 
 		this.isSimulated = isSimulated;
+		
+		this.isOffscreen = isOffscreen;
 
 		addMouseDetection();
 
-		compBuffer = new CopyOnWriteArrayList<GComponent>();
+		compBuffer = new ArrayList<GComponent>();
+		bufferedLayerSizes = new IdentityHashMap<GLayer, Integer>();
 		compOutput = new GComponent[0];
+		layerOutput = new LayerOutput(compOutput, new GLayer[0], new int[] {0});
+		
+		spatialIndex = new SpatialIndex(this);
+		
+		geometryCache = new GeometryCache(this);
+		
+		layerCache = new LayerCache(this);
 
 		layers = new CopyOnWriteArrayList<GLayer>();
 
@@ -96,17 +216,217 @@ public class Viewport extends JPanel
 		{
 			windowManager = new GWindowManager(this);
 		}
+		
+		// An offscreen Viewport is drawn completely whenever it is rendered, so it neither needs to track damage nor to be repainted.
+		if(!isSimulated() && !isOffscreen())
+		{
+			damageTracker = new DamageTracker(this);
+			
+			repaintScheduler = new RepaintScheduler(this)
+			{
+				@Override
+				protected void requestRepaint()
+				{
+					repaintDamage();
+				}
+			};
+		}
 	}
 
 	// The most important method for displaying all components and graphics.
-	// This is the main (recursive) loop for rendering.
+	// It is only called when something has changed (see 'markDirty()'), so an unchanged Viewport is not redrawn again and again.
 	@Override
 	public void paintComponent(Graphics g)
 	{
+		// While rendering actively, the Canvas of the ActiveRenderer covers this Viewport, so there is nothing to paint here.
+		if(activeRenderer != null)
+		{
+			if(repaintScheduler != null)
+			{
+				repaintScheduler.frameStarted();
+			}
+			
+			return;
+		}
+		
+		long frameStart = Metrics.isEnabled() ? System.nanoTime() : 0;
+		
+		if(repaintScheduler != null)
+		{
+			repaintScheduler.frameStarted();
+		}
+		
+		if(damageTracker != null)
+		{
+			damageTracker.beginFrame();
+		}
+		
+		drawBackground(g);
+		drawComponents(g);
+		
+		if(damageTracker != null)
+		{
+			// If a component has changed again while painting, its change is painted in another frame.
+			if(damageTracker.commit(g.getClipBounds()))
+			{
+				markDirty();
+			}
+			
+			if(isDamageOverlayEnabled())
+			{
+				drawDamageOverlay(g);
+			}
+		}
+		
+		// The HUD itself is not part of the measured frame time.
+		if(frameStart != 0)
+		{
+			frameHistogram.recordSince(frameStart);
+		}
+		
+		MetricsHud hud = metricsHud;
+		
+		if(hud != null)
+		{
+			hud.draw(g);
+		}
+	}
+	
+	// Draws a complete frame without any clip, e.g. into the buffers of the ActiveRenderer.
+	void drawFrame(Graphics g)
+	{
+		long frameStart = Metrics.isEnabled() ? System.nanoTime() : 0;
+		
 		drawBackground(g);
 		drawComponents(g);
-
-		repaint();
+		
+		if(frameStart != 0)
+		{
+			frameHistogram.recordSince(frameStart);
+		}
+		
+		MetricsHud hud = metricsHud;
+		
+		if(hud != null)
+		{
+			hud.draw(g);
+		}
+	}
+	
+	// Only repaints the areas which have changed since the last frame.
+	// Swing will then clip the Graphics of the next frame to these areas.
+	// While rendering actively, every frame is drawn completely anyway, so Swing is not asked to repaint at all.
+	private void repaintDamage()
+	{
+		if(activeRenderer != null)
+		{
+			repaintScheduler.frameSkipped();
+			
+			return;
+		}
+		
+		Rectangle damage = damageTracker.collectDamage();
+		
+		if(damage == null)
+		{
+			repaintScheduler.frameSkipped();
+		}
+		else
+		{
+			repaint(damage.x, damage.y, damage.width, damage.height);
+		}
+	}
+	
+	// Highlights the area which was repainted in this frame.
+	private void drawDamageOverlay(Graphics g)
+	{
+		Rectangle clip = g.getClipBounds();
+		
+		if(clip == null)
+		{
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		
+		g.setColor(new Color(255, 0, 255, 48));
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		
+		g.setColor(Color.MAGENTA);
+		g.drawRect(clip.x, clip.y, clip.width - 1, clip.height - 1);
+	}
+	
+	// Tells the Viewport that its content has changed and needs to be repainted.
+	// Multiple calls before the next frame only lead to one single repaint.
+	// A simulated Viewport does not know the Viewport it is rendered by, so all Viewports are told to be repainted then.
+	public void markDirty()
+	{
+		modifications++;
+		
+		if(repaintScheduler != null)
+		{
+			repaintScheduler.markDirty();
+		}
+		else if(!isOffscreen())
+		{
+			RepaintScheduler.markAllDirty();
+		}
+	}
+	
+	// Makes sure the cached shapes of all components are transformed again (see 'GeometryCache').
+	private void nextGeometryGeneration()
+	{
+		synchronized(generationLock)
+		{
+			geometryGeneration++;
+			
+			generationOffsetX = offset.x;
+			generationOffsetY = offset.y;
+			generationOriginX = origin.x;
+			generationOriginY = origin.y;
+			generationScale = scale;
+		}
+	}
+	
+	// Returns a number which changes whenever the offset, scale or origin of this Viewport has changed.
+	public int getGeometryGeneration()
+	{
+		synchronized(generationLock)
+		{
+			boolean changedDirectly = offset.x != generationOffsetX || offset.y != generationOffsetY || origin.x != generationOriginX || origin.y != generationOriginY || scale != generationScale;
+			
+			if(changedDirectly)
+			{
+				nextGeometryGeneration();
+			}
+			
+			return geometryGeneration;
+		}
+	}
+	
+	// Moving or scaling the Viewport changes the position of all components, so the whole Viewport is repainted.
+	private void requestFullRepaint()
+	{
+		if(damageTracker != null)
+		{
+			damageTracker.requestFullRepaint();
+		}
+		
+		markDirty();
+	}
+	
+	// Images which are not loaded completely yet (e.g. scaled images) are drawn with this Viewport as an observer.
+	// When they are finished, the Viewport is marked dirty, so the complete image is displayed.
+	@Override
+	public boolean imageUpdate(Image img, int infoflags, int x, int y, int w, int h)
+	{
+		if((infoflags & (FRAMEBITS | ALLBITS | SOMEBITS)) != 0)
+		{
+			// The cached layers might contain the image before it was loaded completely.
+			layerCache.invalidate();
+			
+			markDirty();
+		}
+		
+		return (infoflags & (ALLBITS | ABORT)) == 0;
 	}
 
 	// In the beginning this will just draw a background color which will erase the content of the last draw cycle.
@@ -120,28 +440,107 @@ public class Viewport extends JPanel
 	// When adding new layers, they are not yet added to the output directly.
 	// First, it is being waited until all (new and old) components have been read (again (for old components yet stored)).
 	// Only then the components are directly outputed by just changing the reference.
+	// Cached layers are drawn as a single image instead (see 'LayerCache').
 	public void drawComponents(Graphics g)
 	{
-		drawComponentsByArray(g, compOutput);
+		LayerOutput output = layerOutput;
+		
+		DrawBatch batch = getDrawBatch(g);
+		
+		long savedBefore = batch == null ? 0 : batch.getSavedDrawCalls();
+		
+		// The layers are drawn in the same order as their components, beginning with the lowest priority.
+		for(int l = output.layers.length - 1; l >= 0; l--)
+		{
+			GLayer layer = output.layers[l];
+			
+			int start = output.starts[l], end = output.starts[l + 1];
+			
+			if(layer == null || !layer.isCached() || !layerCache.draw(g, layer, output.components, start, end))
+			{
+				drawComponentsByArray(g, output.components, start, end, batch);
+			}
+		}
+		
+		if(batch != null)
+		{
+			long saved = batch.getSavedDrawCalls() - savedBefore;
+			
+			savedDrawCalls = saved;
+			totalSavedDrawCalls.addAndGet(saved);
+		}
 	}
 
 	public void drawComponentsByArray(Graphics g, GComponent[] components)
 	{
+		drawComponentsByArray(g, components, 0, components.length, getDrawBatch(g));
+	}
+	
+	// Returns the batch of the current thread or 'null' if batching is disabled or not possible with the given Graphics.
+	private DrawBatch getDrawBatch(Graphics g)
+	{
+		return drawBatching && g instanceof Graphics2D ? drawBatches.get() : null;
+	}
+	
+	// Draws the components from 'start' (inclusive) to 'end' (exclusive).
+	// If a batch is given, the components which are filled with a single color are collected and filled together.
+	// Everything else is drawn directly, only the collected components it overlaps are filled before, so the order of the components is kept.
+	private void drawComponentsByArray(Graphics g, GComponent[] components, int start, int end, DrawBatch batch)
+	{
+		// Only components which are (partly) within the clip need to be drawn.
+		Rectangle clip = g.getClipBounds();
+		
 		// Render all GUInness components.
-		for(int i = components.length - 1; i >= 0; i--)
+		for(int i = end - 1; i >= start; i--)
 		{
 			GComponent component = components[i];
 			
-			if(isContained(component) && component.getStyle().isVisible())
+			if(isContained(component) && component.getStyle().isVisible() && (clip == null || getPaintBounds(component, paintBounds).intersects(clip)))
 			{
-				component.getStyle().getDesign().drawContext(g, this, component, getOrigin(), getOffset(), getScale());
+				Design design = component.getStyle().getDesign();
+				
+				if(batch != null)
+				{
+					Shape fill = design.getFillShape(this, component, getOrigin(), getOffset(), getScale());
+					
+					if(fill != null)
+					{
+						batch.add((Graphics2D) g, design.getFillColor(component), fill);
+						
+						continue;
+					}
+					
+					if(clip == null)
+					{
+						getPaintBounds(component, paintBounds);
+					}
+					
+					if(batch.overlaps(paintBounds))
+					{
+						batch.flush((Graphics2D) g);
+					}
+				}
+				
+				design.drawContext(g, this, component, getOrigin(), getOffset(), getScale());
 			}
 		}
+		
+		// The next layer might be drawn from the LayerCache, so the collected components are filled now.
+		if(batch != null)
+		{
+			batch.flush((Graphics2D) g);
+		}
 	}
 
 	// Adds the MouseAdapter as a Mouse(Motion)Listener in order to work with the Viewport when mouse actions have to be evaluated.
+	// Without an EventHandler (e.g. when a Viewport is only used for rendering), there is no mouse detection.
 	private void addMouseDetection()
 	{
+		if(eventHandler == null)
+		{
+			return;
+		}
+		
 		addMouseListener(eventHandler.getMouseAdapter());
 
 		addMouseMotionListener(eventHandler.getMouseAdapter());
@@ -151,46 +550,107 @@ public class Viewport extends JPanel
 	public synchronized void erase()
 	{
 		compBuffer.clear();
+		bufferedLayerSizes.clear();
 	}
 
 	// Outputs all components of the buffer immediately to the output, 
 	// so all changes will be visible then first.
-	public void outputComponentBuffer()
+	// A new array is published every time, so an output which is read at the moment is not changed.
+	public synchronized void outputComponentBuffer()
+	{
+		compOutput = compBuffer.toArray(new GComponent[compBuffer.size()]);
+		
+		layerOutput = createLayerOutput(compOutput);
+		
+		spatialIndex.requestRebuild();
+		
+		geometryCache.retain(compOutput);
+		
+		layerCache.retain(layers);
+		
+		// Marked only after publishing, so the repaint already sees the new output.
+		markDirty();
+	}
+
+	// Finds out where the components of every layer begin in the given output.
+	// The layers are in the same order as their components in the buffer.
+	private LayerOutput createLayerOutput(GComponent[] output)
+	{
+		GLayer[] outputLayers = layers.toArray(new GLayer[0]);
+		
+		int[] starts = new int[outputLayers.length + 1];
+		
+		for(int i = 0; i < outputLayers.length; i++)
+		{
+			Integer size = bufferedLayerSizes.get(outputLayers[i]);
+			
+			starts[i + 1] = starts[i] + (size == null ? 0 : size);
+		}
+		
+		// If the buffer was changed without its layers (see 'erase()'), the components are drawn without layers.
+		if(starts[outputLayers.length] != output.length)
+		{
+			return new LayerOutput(output, new GLayer[] {null}, new int[] {0, output.length});
+		}
+		
+		return new LayerOutput(output, outputLayers, starts);
+	}
+	
+	// Adds all components of a layer to the internal component buffer (which is used for drawing only),
+	// beginning at the given index of the buffer.
+	private void addLayerToComponentBuffer(GLayer target, int index)
 	{
-		compOutput = compBuffer.toArray(compOutput);
+		// The components are copied at once, so the layer cannot change in between.
+		List<GComponent> components = Arrays.asList(target.getComponentBuffer().toArray(new GComponent[0]));
+
+		compBuffer.addAll(index, components);
+
+		bufferedLayerSizes.put(target, components.size());
 	}
 
-	// Adds all components of a layer to the internal component buffer (which is used for drawing only).
-	private void addLayerToComponentBuffer(GLayer target)
+	// Returns the index of the first component of the given layer in the buffer.
+	// Only the amounts of components of all layers before are summed up, so no component needs to be compared.
+	private int getBufferIndexOf(int layerIndex)
 	{
-		// Add every component of the current layer.
-		for(GComponent comp : target.getComponentBuffer())
+		int index = 0;
+
+		for(int i = 0; i < layerIndex; i++)
 		{
-			compBuffer.add(comp);
+			Integer size = bufferedLayerSizes.get(layers.get(i));
+
+			index += size == null ? 0 : size;
 		}
+
+		return index;
+	}
+
+	// Tells whether the layers are still ordered by their priorities.
+	// The priority of a layer can be changed after it was added (e.g. by the GWindowManager).
+	private boolean areLayersSorted()
+	{
+		for(int i = 1; i < layers.size(); i++)
+		{
+			if(layers.get(i - 1).compareTo(layers.get(i)) > 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
 	}
 
 	// If a layer was changed, you can call this method to apply all changes.
 	// Is very inefficient if it's called frequently.
+	// Adding or removing a layer does not need this method, as only the components of that layer are added to or removed from the buffer then.
 	public synchronized void updateComponentBuffer()
 	{
 		erase(); // If buggy, re-instantiate the list.
 
 		Collections.sort(layers);
 
-		if(layers != null && layers.size() > 0)
+		for(GLayer layer : layers)
 		{
-			if(layers.size() > 1)
-			{
-				for(GLayer layer : layers)
-				{
-					addLayerToComponentBuffer(layer);
-				}
-			}
-			else
-			{
-				addLayerToComponentBuffer(layers.get(0));
-			}
+			addLayerToComponentBuffer(layer, compBuffer.size());
 		}
 
 		layerModifications = 0;
@@ -216,7 +676,8 @@ public class Viewport extends JPanel
 		return layer.getPriority() >= 0 && !isDoublePriority(layer);
 	}
 
-	public void addLayer(GLayer layer) throws IllegalArgumentException
+	// Only the components of the new layer are inserted into the buffer, at the place given by the priority of the layer.
+	public synchronized void addLayer(GLayer layer) throws IllegalArgumentException
 	{
 		if(isValidPriority(layer))
 		{
@@ -224,11 +685,27 @@ public class Viewport extends JPanel
 			// Do not replace this line with the method "updateHighestLayerPriority()" as it occupies a lot more CPU usage.
 			priorityHighest = Math.max(priorityHighest, layer.getPriority());
 
-			layers.add(layer);
+			if(areLayersSorted())
+			{
+				// The layers are ordered from the highest to the lowest priority (see 'GLayer.compareTo(...)').
+				int index = 0;
+
+				while(index < layers.size() && layers.get(index).compareTo(layer) <= 0)
+				{
+					index++;
+				}
 
-			layerModifications++;
+				layers.add(index, layer);
+
+				addLayerToComponentBuffer(layer, getBufferIndexOf(index));
+			}
+			else
+			{
+				layers.add(layer);
+
+				updateComponentBuffer();
+			}
 
-			updateComponentBuffer();
 			outputComponentBuffer();
 		}
 		else
@@ -237,7 +714,8 @@ public class Viewport extends JPanel
 		}
 	}
 
-	public GLayer removeLayer(GLayer toRemove)
+	// Only the components of the removed layer are removed from the buffer.
+	public synchronized GLayer removeLayer(GLayer toRemove)
 	{
 		int index = 0;
 
@@ -251,13 +729,24 @@ public class Viewport extends JPanel
 			index++;
 		}
 
+		int bufferIndex = getBufferIndexOf(index);
+
 		GLayer removed = layers.remove(index);
 		
 		updateHighestLayerPriority();
 
-		layerModifications++;
+		Integer size = bufferedLayerSizes.remove(removed);
+
+		if(size != null && areLayersSorted())
+		{
+			compBuffer.subList(bufferIndex, bufferIndex + size).clear();
+		}
+		else
+		{
+			// The priorities were changed meanwhile, so the whole buffer needs to be ordered again.
+			updateComponentBuffer();
+		}
 		
-		updateComponentBuffer();
 		outputComponentBuffer();
 		
 		return removed;
@@ -306,9 +795,18 @@ public class Viewport extends JPanel
 		return new Point.Float(getScale() * getOffset().x, getScale() * getOffset().y);
 	}
 
+	// Changing the offset will repaint the Viewport.
+	// If you modify the returned Point of 'getOffset()' directly instead, call 'markDirty()' afterwards.
 	public void setOffset(Point offset)
 	{
-		this.offset = offset;
+		if(!offset.equals(this.offset))
+		{
+			this.offset = offset;
+			
+			nextGeometryGeneration();
+			
+			requestFullRepaint();
+		}
 	}
 
 	public float getScale()
@@ -318,9 +816,28 @@ public class Viewport extends JPanel
 
 	public void setScale(float scale)
 	{
-		this.scale = scale;
+		if(scale != this.scale)
+		{
+			this.scale = scale;
+			
+			nextGeometryGeneration();
+			
+			requestFullRepaint();
+		}
 	}
 
+	// Calculates the area on this Viewport which is covered by the given component when it is drawn.
+	// The result is stored in 'result' which is also returned.
+	public Rectangle getPaintBounds(GComponent component, Rectangle result)
+	{
+		component.getStyle().getDesign().getPaintBounds(component, getOrigin(), getOffset(), getScale(), result);
+		
+		// Include pixels which are rounded differently when scaled.
+		result.grow(1, 1);
+		
+		return result;
+	}
+	
 	// Use this method to retrieve a copy of a polygon which fits the scale and offset given by the Viewport.
 	public Polygon getPolygonRelativeToViewport(Polygon p)
 	{
@@ -337,18 +854,32 @@ public class Viewport extends JPanel
 	{
 		return isSimulated;
 	}
+	
+	public boolean isOffscreen()
+	{
+		return isOffscreen;
+	}
 
 	public Point getOrigin()
 	{
 		return origin;
 	}
 
+	// The origin of a simulated Viewport is re-calculated on every frame,
+	// so the Viewport is only marked dirty if it has really changed.
 	public void setOrigin(Point origin)
 	{
-		this.origin = origin;
+		if(!origin.equals(this.origin))
+		{
+			this.origin = origin;
+			
+			nextGeometryGeneration();
+			
+			requestFullRepaint();
+		}
 	}
 
-	public int sizeOfComponentBuffer()
+	public synchronized int sizeOfComponentBuffer()
 	{
 		return compBuffer.size();
 	}
@@ -416,6 +947,12 @@ public class Viewport extends JPanel
 		return priorityHighest;
 	}
 
+	// Returns 'null' if this Viewport has no mouse detection, e.g. when it is drawn offscreen.
+	public EventHandler getEventHandler()
+	{
+		return eventHandler;
+	}
+
 	// Returns the window manager responsible for this Viewport.
 	// There is no window manager returned when this Viewport is simulated (see initialization in constructor).
 	// This should ensure that you do not even try to work with GWindows within GWindows because this feature is not supported currently.
@@ -423,4 +960,238 @@ public class Viewport extends JPanel
 	{
 		return windowManager;
 	}
-}
\ No newline at end of file
+	
+	// Returns the scheduler which decides when this Viewport is repainted.
+	// Returns 'null' if this Viewport is simulated.
+	public RepaintScheduler getRepaintScheduler()
+	{
+		return repaintScheduler;
+	}
+	
+	// Returns the spatial index which contains all components of the output.
+	public SpatialIndex getSpatialIndex()
+	{
+		return spatialIndex;
+	}
+	
+	// Returns the cache which contains the images of the cached layers.
+	public LayerCache getLayerCache()
+	{
+		return layerCache;
+	}
+	
+	// Returns the cache which contains the moved and scaled shapes of the components.
+	public GeometryCache getGeometryCache()
+	{
+		return geometryCache;
+	}
+	
+	// Returns the damage tracker which decides which areas of this Viewport are repainted.
+	// Returns 'null' if this Viewport is simulated.
+	public DamageTracker getDamageTracker()
+	{
+		return damageTracker;
+	}
+	
+	public boolean isDamageOverlayEnabled()
+	{
+		return damageOverlay;
+	}
+	
+	// Enables or disables the highlighting of all repainted areas (debug feature).
+	public void setDamageOverlayEnabled(boolean damageOverlay)
+	{
+		this.damageOverlay = damageOverlay;
+		
+		requestFullRepaint();
+	}
+	
+	public boolean isMetricsHudEnabled()
+	{
+		return metricsHud != null;
+	}
+	
+	// Enables or disables displaying the metrics in the upper left corner (debug feature, see 'Metrics').
+	// While enabled, the displayed values are updated periodically (see 'MetricsHud.REFRESH_MS').
+	public void setMetricsHudEnabled(boolean enabled)
+	{
+		if(enabled == isMetricsHudEnabled())
+		{
+			return;
+		}
+		
+		if(enabled)
+		{
+			final MetricsHud hud = new MetricsHud();
+			
+			metricsHud = hud;
+			
+			Timer.schedule(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					// Stops as soon as the HUD was disabled or replaced.
+					if(metricsHud != hud)
+					{
+						return;
+					}
+					
+					if(damageTracker != null)
+					{
+						damageTracker.requestRepaint(hud.getBounds());
+					}
+					
+					markDirty();
+					
+					Timer.schedule(this, MetricsHud.REFRESH_MS);
+				}
+			}, MetricsHud.REFRESH_MS);
+		}
+		else
+		{
+			metricsHud = null;
+		}
+		
+		requestFullRepaint();
+	}
+	
+	public ActiveRenderer getActiveRenderer()
+	{
+		return activeRenderer;
+	}
+	
+	// Lets the given ActiveRenderer draw this Viewport with its Canvas, which covers the whole Viewport then.
+	// The mouse events are received by the Canvas, so they are passed to the MouseAdapter from there.
+	// When 'null' is given, the Canvas is removed again and the whole Viewport is repainted by Swing.
+	// Swing components must only be changed on the EDT, so the Canvas is swapped there later when called from another thread.
+	void setActiveRenderer(final ActiveRenderer renderer)
+	{
+		if(SwingUtilities.isEventDispatchThread())
+		{
+			swapActiveRenderer(renderer);
+		}
+		else
+		{
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					swapActiveRenderer(renderer);
+				}
+			});
+		}
+	}
+	
+	private void swapActiveRenderer(ActiveRenderer renderer)
+	{
+		ActiveRenderer previous = activeRenderer;
+		
+		if(previous != null)
+		{
+			if(eventHandler != null)
+			{
+				previous.getCanvas().removeMouseListener(eventHandler.getMouseAdapter());
+				previous.getCanvas().removeMouseMotionListener(eventHandler.getMouseAdapter());
+			}
+			
+			remove(previous.getCanvas());
+		}
+		
+		activeRenderer = renderer;
+		
+		if(renderer != null)
+		{
+			if(eventHandler != null)
+			{
+				renderer.getCanvas().addMouseListener(eventHandler.getMouseAdapter());
+				renderer.getCanvas().addMouseMotionListener(eventHandler.getMouseAdapter());
+			}
+			
+			setLayout(new BorderLayout());
+			
+			add(renderer.getCanvas(), BorderLayout.CENTER);
+		}
+		
+		revalidate();
+		
+		// What was painted by Swing before is not known anymore.
+		if(damageTracker != null)
+		{
+			damageTracker.reset();
+		}
+		
+		markDirty();
+	}
+	
+	public boolean isDrawBatchingEnabled()
+	{
+		return drawBatching;
+	}
+	
+	// Enables or disables filling components of the same color together (see 'DrawBatch').
+	// It saves draw calls when there are many components which are filled with a single color, e.g. rectangles.
+	public void setDrawBatchingEnabled(boolean drawBatching)
+	{
+		if(this.drawBatching != drawBatching)
+		{
+			this.drawBatching = drawBatching;
+			
+			requestFullRepaint();
+		}
+	}
+	
+	// Returns how many draw calls were saved by batching in the last frame (see 'setDrawBatchingEnabled(...)').
+	public long getSavedDrawCalls()
+	{
+		return savedDrawCalls;
+	}
+	
+	// Returns how many draw calls were saved by batching in all frames.
+	public long getTotalSavedDrawCalls()
+	{
+		return totalSavedDrawCalls.get();
+	}
+	
+	public boolean isNativeRoundRectanglesEnabled()
+	{
+		return nativeRoundRectangles;
+	}
+	
+	// Enables or disables drawing rounded rectangles with 'RoundRectangle2D' (see 'ShapeMaker.createRoundRectangle(...)').
+	// Java2D can antialias these shapes, but they are created again on every frame.
+	public void setNativeRoundRectanglesEnabled(boolean nativeRoundRectangles)
+	{
+		if(this.nativeRoundRectangles != nativeRoundRectangles)
+		{
+			this.nativeRoundRectangles = nativeRoundRectangles;
+			
+			requestFullRepaint();
+		}
+	}
+	
+	// Returns how often this Viewport was marked dirty.
+	public int getModifications()
+	{
+		return modifications;
+	}
+
+	// The components of the output and the layers they belong to.
+	// The components of the layer at index i are contained from 'starts[i]' (inclusive) to 'starts[i + 1]' (exclusive).
+	private static class LayerOutput
+	{
+		private final GComponent[] components;
+		
+		private final GLayer[] layers;
+		
+		private final int[] starts;
+		
+		private LayerOutput(GComponent[] components, GLayer[] layers, int[] starts)
+		{
+			this.components = components;
+			this.layers = layers;
+			this.starts = starts;
+		}
+	}
+}
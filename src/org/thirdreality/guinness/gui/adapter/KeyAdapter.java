@@ -5,6 +5,8 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 
 import org.thirdreality.guinness.gui.Display;
+import org.thirdreality.guinness.handler.componenthandler.InputQueue;
+import org.thirdreality.guinness.handler.componenthandler.UserInput;
 
 public class KeyAdapter implements KeyListener
 {
@@ -12,6 +14,9 @@ public class KeyAdapter implements KeyListener
 	
 	private boolean duplicate = false;
 	
+	// Every pressed key is offered to this queue, so the ComponentHandler can process all of them in order.
+	private volatile InputQueue inputQueue = null;
+	
 	public KeyAdapter(Display context)
 	{
 		/*
@@ -45,6 +50,13 @@ public class KeyAdapter implements KeyListener
 			
 			keyActive = (char) e.getKeyChar();
 		}
+		
+		InputQueue queue = inputQueue;
+		
+		if(queue != null)
+		{
+			queue.offer(UserInput.key(e.getKeyChar()));
+		}
 	}
 
 	@Override
@@ -53,6 +65,12 @@ public class KeyAdapter implements KeyListener
 		// Not used currently..
 	}
 	
+	// Sets the queue which receives all pressed keys, e.g. the one of the ComponentHandler.
+	public void setInputQueue(InputQueue inputQueue)
+	{
+		this.inputQueue = inputQueue;
+	}
+	
 	// Returns whether any key is pressed currently.
 	public boolean isKeyActive()
 	{
@@ -1,20 +1,24 @@
 package org.thirdreality.guinness.gui.adapter;
 
 import java.awt.Point;
-import java.awt.Polygon;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.util.ArrayList;
 
 import org.thirdreality.guinness.exec.LoopedThread;
-import org.thirdreality.guinness.feature.GIPoint;
+import org.thirdreality.guinness.feature.GITransform;
 import org.thirdreality.guinness.feature.Timer;
 import org.thirdreality.guinness.feature.shape.ShapeTransform;
 import org.thirdreality.guinness.gui.Display;
+import org.thirdreality.guinness.gui.SpatialIndex;
 import org.thirdreality.guinness.gui.Viewport;
 import org.thirdreality.guinness.gui.component.GComponent;
 import org.thirdreality.guinness.gui.layer.GLayer;
+import org.thirdreality.guinness.handler.componenthandler.InputQueue;
+import org.thirdreality.guinness.handler.componenthandler.UserInput;
+import org.thirdreality.guinness.metrics.Histogram;
+import org.thirdreality.guinness.metrics.Metrics;
 
 public class MouseAdapter extends LoopedThread implements MouseMotionListener, MouseListener
 {
@@ -32,7 +36,7 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 	
 	// Keeps the current relative location of the Viewport from the cursor.
 	// Assumed to be at (0|0) in the beginning but is refreshed afterwards.
-	private Point cursorLocation = new Point(0, 0);
+	private volatile Point cursorLocation = new Point(0, 0);
 	
 	// Self-explaining: the mouse speed related to pixels per cycle.
 	private volatile double mouseSpeed = 0f;
@@ -47,6 +51,23 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 	 * null = no action or reaction from the mouse.
 	 */
 	private Boolean action = null;
+	
+	// Every mouse event is offered to this queue, so the ComponentHandler can process all of them in order.
+	private volatile InputQueue inputQueue = null;
+
+	// Records how long it takes to find the focused component (see 'getFocusedComponent(...)').
+	private final Histogram hitTestHistogram = Metrics.getHistogram(Metrics.HIT_TEST);
+	
+	// Transforms the cursor back into the space of the components (see 'isFocusing(...)').
+	// Hit-tests can be run by multiple threads, e.g. by the handler thread and by benchmarks, so every thread has its own.
+	private final ThreadLocal<GITransform> transforms = new ThreadLocal<GITransform>()
+	{
+		@Override
+		protected GITransform initialValue()
+		{
+			return new GITransform();
+		}
+	};
 
 	public MouseAdapter(Display context)
 	{
@@ -102,6 +123,30 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 		{
 			action = null;
 		}
+		else
+		{
+			// Keeps on measuring the mouse speed until the mouse is inactive again.
+			signal();
+		}
+	}
+	
+	// Wakes up this thread and queues the mouse event.
+	private void onInput(UserInput.Type type, Point cursor)
+	{
+		signal();
+		
+		InputQueue queue = inputQueue;
+		
+		if(queue != null)
+		{
+			queue.offer(UserInput.mouse(type, cursor));
+		}
+	}
+	
+	// Sets the queue which receives all mouse events, e.g. the one of the ComponentHandler.
+	public void setInputQueue(InputQueue inputQueue)
+	{
+		this.inputQueue = inputQueue;
 	}
 
 	@Override
@@ -113,6 +158,8 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 		// Update the current cursor location relative to the Viewport.
 		// The boundaries of the Display (JFrame) are disregarded in this retrieved location.
 		cursorLocation = mouseEvent.getPoint();
+		
+		onInput(UserInput.Type.DRAG, mouseEvent.getPoint());
 	}
 
 	@Override
@@ -124,6 +171,8 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 		// Update the current cursor location relative to the Viewport.
 		// The boundaries of the Display (JFrame) are disregarded in this retrieved location.
 		cursorLocation = mouseEvent.getPoint();
+		
+		onInput(UserInput.Type.MOVE, mouseEvent.getPoint());
 	}
 
 	@Override
@@ -137,12 +186,16 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 	{
 		// A general click was performed somewhere on the frame (true).
 		action = true;
+		
+		onInput(UserInput.Type.PRESS, e.getPoint());
 	}
 
 	@Override
 	public void mouseReleased(MouseEvent e)
 	{
 		action = false;
+		
+		onInput(UserInput.Type.RELEASE, e.getPoint());
 	}
 
 	@Override
@@ -155,6 +208,7 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 	public void mouseExited(MouseEvent e)
 	{
 		// When the cursor exits the area of the Display.
+		onInput(UserInput.Type.EXIT, e.getPoint());
 	}
 	
 	// Returns the current action.
@@ -185,6 +239,13 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 	// Meaning: Tests whether the mouse cursor (relative to the Display) is inside the given component.
 	// Returns 'false' if target is 'null'.
 	public boolean isFocusing(Viewport source, GComponent target)
+	{
+		return isFocusing(source, target, cursorLocation);
+	}
+	
+	// The same as above but for the given cursor location (relative to the Viewport),
+	// e.g. the location of a queued mouse input (see 'UserInput').
+	public boolean isFocusing(Viewport source, GComponent target, Point cursor)
 	{
 		// If there is no component given or interaction is forbidden,
 		// this method assumes no component was found,
@@ -195,52 +256,31 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 		}
 
 		/*
-		 *  Below there are variables and control statements which calculate the correct position of a component,
+		 *  Below the correct position of a component is calculated,
 		 *  regarding the offset and scale as well as origin location of the given Viewport.
 		 *
 		 * 	If you wouldn't regard these aspects / values,
 		 *  there would be a huge difference between the real components position and what is displayed on screen.
+		 *  
+		 *  The cursor is transformed back into the space of the component instead of transforming a copy of its shape,
+		 *  so no objects are created here.
 		 */
 		
-		GIPoint originAppliedLoc = new GIPoint(target.getStyle().getPrimaryLook().getBounds().getLocation()).add(source.getOrigin());
-
-		Polygon originApplied = ShapeTransform.movePolygonTo(target.getStyle().getPrimaryLook(), originAppliedLoc.toPoint());
+		GITransform transform = transforms.get();
 		
+		// Simulated Viewports do not support offsets and scales for their components.
 		if(source.isSimulated())
 		{
-			return originApplied.contains(getCursorLocation());
+			transform.set(source.getOrigin().x, source.getOrigin().y, 0, 0, 1f);
 		}
 		else
 		{
-			if(target.getStyle().isMovableForViewport())
-			{				
-				Polygon offsetApplied = ShapeTransform.movePolygonTo(originApplied, originAppliedLoc.add(source.getOffset()).toPoint());
-				
-				if(target.getStyle().isScalableForViewport())
-				{
-					Polygon scaleApplied = ShapeTransform.scalePolygon(offsetApplied, source.getScale());
-					
-					return scaleApplied.contains(getCursorLocation());
-				}
-				else
-				{
-					return offsetApplied.contains(getCursorLocation());
-				}
-			}
-			else
-			{
-				if(target.getStyle().isScalableForViewport())
-				{
-					Polygon scaleApplied = ShapeTransform.scalePolygon(originApplied, source.getScale());
-					
-					return scaleApplied.contains(getCursorLocation());
-				}
-				else
-				{
-					return originApplied.contains(getCursorLocation());
-				}
-			}
+			transform.set(source.getOrigin(), source.getOffset(), source.getScale());
 		}
+		
+		boolean movable = target.getStyle().isMovableForViewport();
+		
+		return ShapeTransform.contains(target.getStyle().getPrimaryLook(), transform.getTranslationX(movable), transform.getTranslationY(movable), transform.getScale(target.getStyle().isScalableForViewport()), cursor.x, cursor.y);
 	}
 	
 	// Tests if the user is clicking a component.
@@ -254,13 +294,31 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 	// Returns null if there is no such component.
 	public GComponent getFocusedComponent(Viewport source)
 	{
+		return getFocusedComponent(source, cursorLocation);
+	}
+	
+	// The same as above but for the given cursor location (relative to the Viewport).
+	public GComponent getFocusedComponent(Viewport source, Point cursor)
+	{
+		long hitTestStart = Metrics.isEnabled() ? System.nanoTime() : 0;
+		
 		GComponent firstMatch = null;
 		
 		if(source != null)
 		{
-				for(GComponent selected : source.getComponentOutput())
+			SpatialIndex index = source.getSpatialIndex();
+			
+			// Only the components whose bounds contain the cursor are tested in detail.
+			// The candidates are ordered by their priority just as in the output of the Viewport.
+			synchronized(index)
+			{
+				int candidates = index.query(cursor);
+				
+				for(int i = 0; i < candidates; i++)
 				{
-					boolean insideComponent = isFocusing(source, selected);
+					GComponent selected = index.getCandidate(i);
+					
+					boolean insideComponent = isFocusing(source, selected, cursor);
 					
 					// Returns the first component which is focused by the mouse cursor.
 					if(insideComponent)
@@ -273,10 +331,14 @@ public class MouseAdapter extends LoopedThread implements MouseMotionListener, M
 						
 						break;
 					}
-			
+				}
 			}
 		}
 		
+		if(hitTestStart != 0)
+		{
+			hitTestHistogram.recordSince(hitTestStart);
+		}
 		
 		// Returns the first component which is focused by the mouse cursor.
 		return firstMatch;
@@ -149,6 +149,8 @@ public abstract class GComponent implements Serializable
 	public void setEnabled(boolean enabled)
 	{
 		this.enabled = enabled;
+		
+		getStyle().markDirty();
 	}
 	
 	public GStyle getStyle()
@@ -186,6 +186,8 @@ public class GWindow extends GComponent
 	public void setTitle(String title)
 	{
 		this.title = title;
+		
+		getStyle().markDirty();
 	}
 	
 	public String getTitle()
@@ -1,7 +1,6 @@
 package org.thirdreality.guinness.gui.component.selection;
 
 import java.awt.Dimension;
-import java.awt.Image;
 import java.awt.Point;
 import java.io.File;
 
@@ -36,11 +35,10 @@ public class GCheckbox extends GComponent
 	{
 		setChecked(checked);
 		
-		getStyle().setImage(ImageToolkit.loadImage(Path.ICON_FOLDER + File.separator + "check_sign.png"));
-		
 		int size_scaled = getStyle().getPrimaryLook().getBounds().width - 4*getStyle().getDesign().getBorderProperty().getBorderThicknessPx();
 		
-		getStyle().setImage(getStyle().getImage().getScaledInstance(size_scaled, size_scaled, Image.SCALE_SMOOTH));
+		// All check-boxes of the same size share the same scaled check sign.
+		getStyle().setImage(ImageToolkit.loadCachedImage(Path.ICON_FOLDER + File.separator + "check_sign.png", size_scaled, size_scaled));
 	}
 	
 	public boolean isChecked()
@@ -52,5 +50,7 @@ public class GCheckbox extends GComponent
 	public void setChecked(boolean checked)
 	{
 		this.checked = checked;
+		
+		getStyle().markDirty();
 	}
 }
@@ -28,6 +28,9 @@ public class GSelectionBox extends GComponent
 	
 	private boolean defaultOptionActive = false;
 	
+	// The files of the icons which illustrate the two possible states of an option (unselected / selected).
+	private static final String[] ICON_FILES = {Path.ICON_FOLDER + File.separator + "radio_unselected.png", Path.ICON_FOLDER + File.separator + "radio_selected.png"};
+	
 	// Keeps two different icons which illustrate two possible states of an option (selected / unselected).
 	private Image[] icon;
 
@@ -67,8 +70,8 @@ public class GSelectionBox extends GComponent
 	{
 		icon = new Image[2];
 		
-		icon[0] = ImageToolkit.loadImage(Path.ICON_FOLDER + File.separator + "radio_unselected.png");
-		icon[1] = ImageToolkit.loadImage(Path.ICON_FOLDER + File.separator + "radio_selected.png");
+		icon[0] = ImageToolkit.loadCachedImage(ICON_FILES[0]);
+		icon[1] = ImageToolkit.loadCachedImage(ICON_FILES[1]);
 	}
 	
 	public ArrayList<GSelectionOption> getOptions()
@@ -181,8 +184,9 @@ public class GSelectionBox extends GComponent
 				
 				// Apply the symbol size (reference "optionSymbolShape") to the icons (which will be the corresponding symbol for the "unselected" and "selected" state).
 				// This way, it is guaranteed the icons are displayed correctly later depending on the font size.
-				icon[0] = icon[0].getScaledInstance(optionSymbolShape.width, optionSymbolShape.height, Image.SCALE_SMOOTH);
-				icon[1] = icon[1].getScaledInstance(optionSymbolShape.width, optionSymbolShape.height, Image.SCALE_SMOOTH);
+				// The icons are scaled from the original files, so they do not get blurred by scaling them again for every option.
+				icon[0] = ImageToolkit.loadCachedImage(ICON_FILES[0], optionSymbolShape.width, optionSymbolShape.height);
+				icon[1] = ImageToolkit.loadCachedImage(ICON_FILES[1], optionSymbolShape.width, optionSymbolShape.height);
 				
 				optionShapes[1] = ShapeMaker.createRectangleFrom(optionSeparationWidth);
 				
@@ -96,6 +96,11 @@ public class GSelectionOption
 	public void setChecked(boolean isChecked)
 	{
 		this.isChecked = isChecked;
+		
+		if(getStyle() != null)
+		{
+			getStyle().markDirty();
+		}
 	}
 
 	public boolean isDefaultOption()
@@ -37,6 +37,8 @@ public class GPolyButton extends GComponent
 				this.value = value;
 				
 				setMaxLength(getValue().length());
+				
+				getStyle().markDirty();
 			}
 		};
 		
@@ -5,9 +5,11 @@ import java.awt.Image;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.thirdreality.guinness.IssueTracker;
 import org.thirdreality.guinness.Meta;
+import org.thirdreality.guinness.gui.RepaintScheduler;
 import org.thirdreality.guinness.gui.component.style.property.GBorderProperty;
 import org.thirdreality.guinness.gui.design.Design;
 import org.thirdreality.guinness.gui.font.Font;
@@ -66,6 +68,22 @@ public abstract class GStyle implements Serializable
 	// If supported by the component, its borders can be modified by the properties stored in GBorder:
 	// e.g. the border thickness and border radiuses in pixels.
 	private GBorderProperty border;
+	
+	// Counts how often this style was marked dirty.
+	// A Viewport compares this number with the number it has painted before to find out whether the component needs to be repainted.
+	private volatile int modifications = 0;
+	
+	// Counts how often the geometry (looks, borders, movability or scalability) of this style has changed.
+	// A Viewport uses this number to find out whether it can reuse the transformed shapes of the component (see 'GeometryCache').
+	private volatile int geometryModifications = 0;
+	
+	// Counts how often any style was marked dirty.
+	// If this number has not changed, no style has changed at all, so nothing needs to be checked for changes.
+	private static final AtomicLong globalModifications = new AtomicLong();
+	
+	// Counts how often the geometry of any style has changed.
+	// Changes of colors or texts do not change it, so e.g. the hover colors of components do not make the Viewports check all shapes again (see 'SpatialIndex').
+	private static final AtomicLong globalGeometryModifications = new AtomicLong();
 
 	protected Point location;
 
@@ -112,6 +130,49 @@ public abstract class GStyle implements Serializable
 		setVisible(style.isVisible());
 	}
 
+	// Tells all Viewports that this style has changed, so the component is displayed correctly in the next frame.
+	// All setters which change the appearance call this method already.
+	// If you modify an object of this style directly, call it yourself afterwards (for shapes, see 'markGeometryDirty()').
+	public void markDirty()
+	{
+		modifications++;
+		
+		globalModifications.incrementAndGet();
+		
+		RepaintScheduler.markAllDirty();
+	}
+	
+	public int getModifications()
+	{
+		return modifications;
+	}
+	
+	// The same as 'markDirty()' but also tells all Viewports that the shapes of this style have changed.
+	// If you modify the Polygon of 'getPrimaryLook()' or the border properties directly, call this method afterwards.
+	public void markGeometryDirty()
+	{
+		geometryModifications++;
+		
+		globalGeometryModifications.incrementAndGet();
+		
+		markDirty();
+	}
+	
+	public int getGeometryModifications()
+	{
+		return geometryModifications;
+	}
+	
+	public static long getGlobalModifications()
+	{
+		return globalModifications.get();
+	}
+	
+	public static long getGlobalGeometryModifications()
+	{
+		return globalGeometryModifications.get();
+	}
+
 	public Design getDesign()
 	{
 		return design;
@@ -120,6 +181,9 @@ public abstract class GStyle implements Serializable
 	public void setDesign(Design d)
 	{
 		this.design = d;
+		
+		// The padding and border of the design are part of some cached shapes (e.g. the front of a textfield).
+		markGeometryDirty();
 	}
 
 	public Polygon getPrimaryLook()
@@ -130,6 +194,8 @@ public abstract class GStyle implements Serializable
 	public void setPrimaryLook(Polygon primaryLook)
 	{
 		this.primaryLook = primaryLook;
+		
+		markGeometryDirty();
 	}
 
 	public Polygon getSecondaryLook()
@@ -140,6 +206,8 @@ public abstract class GStyle implements Serializable
 	public void setSecondaryLook(Polygon secondaryLook)
 	{
 		this.secondaryLook = secondaryLook;
+		
+		markGeometryDirty();
 	}
 
 	public Boolean isVisible()
@@ -150,6 +218,8 @@ public abstract class GStyle implements Serializable
 	public void setVisible(boolean visible)
 	{
 		this.visible = visible;
+		
+		markDirty();
 	}
 
 	public Font getFont()
@@ -160,6 +230,8 @@ public abstract class GStyle implements Serializable
 	public void setFont(Font font)
 	{
 		this.font = font;
+		
+		markGeometryDirty();
 	}
 
 	public Color getPrimaryColor()
@@ -170,6 +242,8 @@ public abstract class GStyle implements Serializable
 	public void setPrimaryColor(Color primaryColor)
 	{
 		this.primaryColor = primaryColor;
+		
+		markDirty();
 	}
 
 	public Color getBufferedColor()
@@ -198,6 +272,8 @@ public abstract class GStyle implements Serializable
 	public void setImage(Image img)
 	{
 		this.img = img;
+		
+		markDirty();
 	}
 
 	public Image getBufferedImage()
@@ -218,6 +294,8 @@ public abstract class GStyle implements Serializable
 	public void setBorderProperties(GBorderProperty borderProperties)
 	{
 		border = borderProperties;
+		
+		markGeometryDirty();
 	}
 
 	public int getPaddingTop()
@@ -228,6 +306,8 @@ public abstract class GStyle implements Serializable
 	public void setPaddingTop(int paddingTop)
 	{
 		this.paddingTop = paddingTop;
+		
+		markDirty();
 	}
 
 	public int getPaddingBottom()
@@ -238,6 +318,8 @@ public abstract class GStyle implements Serializable
 	public void setPaddingBottom(int paddingBottom)
 	{
 		this.paddingBottom = paddingBottom;
+		
+		markDirty();
 	}
 
 	public float getOpacity()
@@ -272,6 +354,8 @@ public abstract class GStyle implements Serializable
 	public void setTextAlign(int textAlign)
 	{
 		this.textAlign = textAlign;
+		
+		markDirty();
 	}
 
 	public Point getTextTransition()
@@ -282,6 +366,8 @@ public abstract class GStyle implements Serializable
 	public void setTextTransition(Point textAlignTransition)
 	{
 		this.textTransition = textAlignTransition;
+		
+		markDirty();
 	}
 
 	public boolean isMovableForViewport()
@@ -292,6 +378,8 @@ public abstract class GStyle implements Serializable
 	public void setMovableForViewport(boolean isMovable)
 	{
 		this.isMovable = isMovable;
+		
+		markGeometryDirty();
 	}
 
 	public boolean isScalableForViewport()
@@ -302,6 +390,8 @@ public abstract class GStyle implements Serializable
 	public void setScalableForViewport(boolean isScalable)
 	{
 		this.isScalable = isScalable;
+		
+		markGeometryDirty();
 	}
 	
 	public GStyle copy()
@@ -1,10 +1,12 @@
 package org.thirdreality.guinness.gui.design;
 
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import org.thirdreality.guinness.Meta;
 import org.thirdreality.guinness.feature.shape.ShapeMaker;
 import org.thirdreality.guinness.gui.Viewport;
@@ -27,29 +29,87 @@ public class Classic extends Design
 
 	private float scale;
 	
-	private DisplayDrawAdapter displayDrawAdapter;
-	
-	private SimulatedWindowDrawAdapter windowDrawAdapter;
+	// Every thread has its own draw adapter, because it keeps the values of the component which is drawn currently.
+	// This way, multiple Viewports can be drawn at the same time (see 'OffscreenRenderer').
+	private final transient ThreadLocal<DisplayDrawAdapter> displayDrawAdapters;
 
 	public Classic(DesignColor designColor, GBorderProperty borderProperty, GPaddingProperty paddingProperty)
 	{
 		super(designColor, borderProperty, paddingProperty);
 		
 		// This should be definitively the last constructor call as there are properties which have to be initialized first.
-		displayDrawAdapter = new DisplayDrawAdapter(this);
+		displayDrawAdapters = new ThreadLocal<DisplayDrawAdapter>()
+		{
+			@Override
+			protected DisplayDrawAdapter initialValue()
+			{
+				return new DisplayDrawAdapter(Classic.this);
+			}
+		};
 	}
 	
 	public void drawContext(Graphics g, Viewport displayViewport, GComponent c, Point origin, Point offset, float scale)
 	{
-		if(windowDrawAdapter == null && displayViewport != null)
+		displayDrawAdapters.get().drawContext(g, displayViewport, c, origin, offset, scale);
+		
+		// Draws the content for windows (GWindows)
+		SimulatedWindowDrawAdapter.drawSimulatedContext(g, displayViewport, c);
+	}
+
+	@Override
+	public Shape getFillShape(Viewport displayViewport, GComponent c, Point origin, Point offset, float scale)
+	{
+		return displayDrawAdapters.get().getFillShape(displayViewport, c, origin, offset, scale);
+	}
+	
+	@Override
+	public Color getFillColor(GComponent c)
+	{
+		return displayDrawAdapters.get().getFillColor(c);
+	}
+
+	// Poly-buttons are always scaled by the Viewport and their title can be moved beyond the shape (see 'GStyle.getTextTransition()'),
+	// so their title is added to the area too.
+	@Override
+	public Rectangle getPaintBounds(GComponent c, Point origin, Point offset, float scale, Rectangle result)
+	{
+		if(!c.getType().contentEquals("polybutton"))
 		{
-			windowDrawAdapter = new SimulatedWindowDrawAdapter(displayViewport);
+			return super.getPaintBounds(c, origin, offset, scale, result);
 		}
 		
-		displayDrawAdapter.drawContext(g, displayViewport, c, origin, offset, scale);
+		GPolyButton polyButton = (GPolyButton) c;
 		
-		// Draws the content for windows (GWindows)
-		windowDrawAdapter.drawSimulatedContext(g, c);
+		Rectangle bounds = polyButton.getStyle().getPrimaryLook().getBounds();
+		
+		boolean movable = polyButton.getStyle().isMovableForViewport();
+		
+		float textScale = polyButton.getStyle().isScalableForViewport() ? scale : 1f;
+		
+		int fontSize = polyButton.getStyle().getFont().getFontSize();
+		int textLength = fontSize * polyButton.getTitle().length();
+		
+		int x = bounds.x + origin.x + (movable ? offset.x : 0);
+		int y = bounds.y + origin.y + (movable ? offset.y : 0);
+		
+		result.setBounds((int) (x * scale), (int) (y * scale), (int) Math.ceil(bounds.width * scale), (int) Math.ceil(bounds.height * scale));
+		
+		int textX = bounds.x + polyButton.getStyle().getTextTransition().x + (movable ? offset.x : 0);
+		int textY = bounds.y + polyButton.getStyle().getTextTransition().y + (movable ? offset.y : 0);
+		
+		if(polyButton.getStyle().getTextAlign() == 1)
+		{
+			textX += bounds.width / 2 - textLength / 2;
+			textY += bounds.height / 2 - fontSize / 2;
+			
+			// Centered titles are drawn with a scaled font.
+			textLength *= scale;
+			fontSize *= scale;
+		}
+		
+		result.add(new Rectangle((int) (textX * textScale), (int) (textY * textScale), textLength, fontSize));
+		
+		return result;
 	}
 
 	// Returns a determined shape which uses the design defined in this class.
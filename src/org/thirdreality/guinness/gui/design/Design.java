@@ -1,8 +1,11 @@
 package org.thirdreality.guinness.gui.design;
 
+import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.Shape;
 import java.io.Serializable;
 
 import org.thirdreality.guinness.gui.Display;
@@ -66,6 +69,44 @@ public abstract class Design implements Serializable
 		return fL;
 	}
 	
+	// Calculates the area on the Viewport which is covered when the given component is drawn by this design.
+	// The area considers the origin, offset and scale of the Viewport and is stored in 'result' which is also returned.
+	// By default, it is the area of the primary look.
+	// Designs which draw beyond the primary look of a component need to extend the area.
+	public Rectangle getPaintBounds(GComponent c, Point origin, Point offset, float scale, Rectangle result)
+	{
+		Rectangle bounds = c.getStyle().getPrimaryLook().getBounds();
+		
+		int x = bounds.x + origin.x;
+		int y = bounds.y + origin.y;
+		
+		if(c.getStyle().isMovableForViewport())
+		{
+			x += offset.x;
+			y += offset.y;
+		}
+		
+		float k = c.getStyle().isScalableForViewport() ? scale : 1f;
+		
+		result.setBounds((int) (x * k), (int) (y * k), (int) Math.ceil(bounds.width * k), (int) Math.ceil(bounds.height * k));
+		
+		return result;
+	}
+	
+	// Returns the moved and scaled shape of the given component if drawing it is nothing but filling this shape with one color (see 'getFillColor(...)').
+	// Such components can be filled together with other components of the same color (see 'Viewport.setDrawBatchingEnabled(...)').
+	// By default, 'null' is returned, meaning the component is drawn by 'drawContext(...)'.
+	public Shape getFillShape(Viewport displayViewport, GComponent c, Point origin, Point offset, float scale)
+	{
+		return null;
+	}
+	
+	// Returns the color the shape above is filled with.
+	public Color getFillColor(GComponent c)
+	{
+		return c.getStyle().getPrimaryColor();
+	}
+	
 	public abstract void drawContext(Graphics g, Viewport displayViewport, GComponent c, Point origin, Point offset, float scale);
 	
 	public abstract Polygon generateDefaultShape(GComponent c);
@@ -3,17 +3,21 @@ package org.thirdreality.guinness.gui.design.classic;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import org.thirdreality.guinness.draw.DrawToolkit;
 import org.thirdreality.guinness.feature.GIDimension;
-import org.thirdreality.guinness.feature.GIPoint;
+import org.thirdreality.guinness.feature.GITransform;
 import org.thirdreality.guinness.feature.shape.ShapeMaker;
 import org.thirdreality.guinness.feature.shape.ShapeTransform;
+import org.thirdreality.guinness.gui.GeometryCache;
 import org.thirdreality.guinness.gui.Viewport;
 import org.thirdreality.guinness.gui.component.GComponent;
 import org.thirdreality.guinness.gui.component.decoration.GRectangle;
@@ -27,9 +31,17 @@ import org.thirdreality.guinness.gui.component.standard.GDescription;
 import org.thirdreality.guinness.gui.component.standard.GPolyButton;
 import org.thirdreality.guinness.gui.design.Design;
 import org.thirdreality.guinness.gui.font.Font;
+import org.thirdreality.guinness.metrics.Histogram;
+import org.thirdreality.guinness.metrics.Metrics;
 
 public class DisplayDrawAdapter
 {
+	// The slots of the moved and scaled shapes of a component in the GeometryCache of the Viewport.
+	private static final int SHAPE = 0, SECONDARY_SHAPE = 1, FRONT_SHAPE = 1, EXIT_BUTTON_SHAPE = 2, MINIMIZE_BUTTON_SHAPE = 3;
+	
+	// The shapes of the options of a GSelectionBox begin at this slot (two for every option).
+	private static final int OPTION_SHAPES = 1;
+	
 	private Point offset;
 	
 	private Point origin;
@@ -37,6 +49,20 @@ public class DisplayDrawAdapter
 	private float scale;
 
 	private Design design;
+	
+	// The Viewport which is drawn currently.
+	// It is also used as an observer for images which are not loaded completely yet.
+	private Viewport target;
+	
+	// The histograms of the draw times of every component type (see 'Metrics.DRAW').
+	// Every thread has its own draw adapter, so they are looked up without any synchronization.
+	private final HashMap<String, Histogram> drawHistograms = new HashMap<String, Histogram>();
+	
+	// Transforms the locations of the components into the space of the Viewport without creating any objects.
+	private final GITransform transform = new GITransform();
+	
+	// Is reused for locations which are only needed as a Point for a moment, e.g. to draw a text.
+	private final Point location = new Point();
 
 	public DisplayDrawAdapter(Design design)
 	{
@@ -50,9 +76,9 @@ public class DisplayDrawAdapter
 	// The draw adapter doesn't care then because this feature is only supported within the Displays Viewport.
 	public void drawContext(Graphics g, Viewport target, GComponent c, Point origin, Point offset, float scale)
 	{
-		this.offset = offset;
-		this.origin = origin;
-		this.scale = scale;
+		setContext(target, origin, offset, scale);
+		
+		long drawStart = Metrics.isEnabled() ? System.nanoTime() : 0;
 
 		// For the case there is an image supplied to the GComponent object,
 		// it is considered to be rendered.
@@ -133,6 +159,56 @@ public class DisplayDrawAdapter
 				
 			}
 		}
+		
+		// The draw time of a window includes the components within it.
+		if(drawStart != 0)
+		{
+			getDrawHistogram(c.getType()).recordSince(drawStart);
+		}
+	}
+	
+	// Returns the shape of the given component if it is drawn by a single fill of one color only (see 'Design.getFillShape(...)').
+	// Currently, these are only rectangles, all other components draw more than one fill, text or images.
+	public Shape getFillShape(Viewport target, GComponent c, Point origin, Point offset, float scale)
+	{
+		if(!c.getType().contentEquals("rectangle"))
+		{
+			return null;
+		}
+		
+		setContext(target, origin, offset, scale);
+		
+		return getRectangleShape((GRectangle) c, true);
+	}
+	
+	// Returns the color the given component is filled with, see above.
+	public Color getFillColor(GComponent c)
+	{
+		return c.getStyle().getPrimaryColor() == null ? Color.BLACK : c.getStyle().getPrimaryColor();
+	}
+	
+	private void setContext(Viewport target, Point origin, Point offset, float scale)
+	{
+		this.target = target;
+		this.offset = offset;
+		this.origin = origin;
+		this.scale = scale;
+		
+		transform.set(origin, offset, scale);
+	}
+	
+	private Histogram getDrawHistogram(String type)
+	{
+		Histogram histogram = drawHistograms.get(type);
+		
+		if(histogram == null)
+		{
+			histogram = Metrics.getHistogram(Metrics.DRAW + type);
+			
+			drawHistograms.put(type, histogram);
+		}
+		
+		return histogram;
 	}
 	
 	private void drawRectangle(Graphics g, GComponent c)
@@ -141,21 +217,17 @@ public class DisplayDrawAdapter
 		// You can define border-radiuses and more.
 		if(c.getType().contentEquals("rectangle"))
 		{
-			GRectangle rect = (GRectangle) c;
-
-			// Polygon rectangle = ShapeMaker.createRectangle(rect.getStyle().getLook().getBounds().getLocation(), rect.getStyle().getLook().getBounds().getSize());
-			Polygon rectangle = ShapeMaker.createRectangleFrom(rect.getStyle().getPrimaryLook().getBounds(), rect.getStyle().getBorderProperties());
-
-			g.setColor(rect.getStyle().getPrimaryColor() == null ? Color.BLACK : rect.getStyle().getPrimaryColor());
+			g.setColor(getFillColor(c));
 
-			// Uses the correct scale depending on whether Viewport scaling is generally wanted by the component.
-			float scale = c.getStyle().isScalableForViewport() ? this.scale : 1f;
-			
-			Point rectLoc = new GIPoint(rectangle.getBounds().getLocation()).add(getOrigin()).add(getOffset(), c.getStyle().isMovableForViewport()).mul(scale).toPoint();
+			Shape shape = getRectangleShape((GRectangle) c, g instanceof Graphics2D);
 
-			if(rectangle.getBounds() != null)
+			if(shape instanceof Polygon)
+			{
+				g.fillPolygon((Polygon) shape);
+			}
+			else
 			{
-				g.fillPolygon(ShapeTransform.movePolygonTo(ShapeTransform.scalePolygon(rectangle, scale), rectLoc));
+				((Graphics2D) g).fill(shape);
 			}
 		}
 		// If it's not a GRectangle just draw the shape if there is one. Anyway, you can do less things here..
@@ -168,13 +240,46 @@ public class DisplayDrawAdapter
 			// Uses the correct scale depending on whether Viewport scaling is generally wanted by the component.
 			float scale = c.getStyle().isScalableForViewport() ? this.scale : 1f;
 			
-			Point rectLoc = new GIPoint(shape.getBounds().getLocation()).add(getOrigin()).add(getOffset(), c.getStyle().isMovableForViewport()).mul(scale).toPoint();
+			transform.load(shape.x, shape.y).addOrigin().addOffset(c.getStyle().isMovableForViewport()).scale(c.getStyle().isScalableForViewport());
 			
-			if(shape != null)
-			{
-				g.fillRect(rectLoc.x, rectLoc.y, (int) (shape.width * scale), (int) (shape.height * scale));
-			}
+			g.fillRect(transform.getX(), transform.getY(), (int) (shape.width * scale), (int) (shape.height * scale));
+		}
+	}
+
+	// Returns the moved and scaled (rounded) rectangle of the given GRectangle.
+	// If allowed and enabled by the Viewport, it is a 'RoundRectangle2D' which can only be filled by a 'Graphics2D'.
+	private Shape getRectangleShape(GRectangle rect, boolean nativeAllowed)
+	{
+		if(nativeAllowed && getTarget().isNativeRoundRectanglesEnabled())
+		{
+			Rectangle bounds = rect.getStyle().getPrimaryLook().getBounds();
+			
+			float scale = rect.getStyle().isScalableForViewport() ? this.scale : 1f;
+			
+			transform.load(bounds.x, bounds.y).addOrigin().addOffset(rect.getStyle().isMovableForViewport()).scale(rect.getStyle().isScalableForViewport());
+			
+			return ShapeMaker.createRoundRectangle(transform.getX(), transform.getY(), bounds.width * scale, bounds.height * scale, rect.getStyle().getBorderProperties(), scale);
+		}
+
+		// The rounded rectangle is only created, moved and scaled again if the component or the Viewport has changed.
+		Polygon transformed = getGeometryCache().get(rect, SHAPE);
+		
+		if(transformed == null)
+		{
+			// Polygon rectangle = ShapeMaker.createRectangle(rect.getStyle().getLook().getBounds().getLocation(), rect.getStyle().getLook().getBounds().getSize());
+			Polygon rectangle = ShapeMaker.createRectangleFrom(rect.getStyle().getPrimaryLook().getBounds(), rect.getStyle().getBorderProperties());
+
+			// Uses the correct scale depending on whether Viewport scaling is generally wanted by the component.
+			float scale = rect.getStyle().isScalableForViewport() ? this.scale : 1f;
+			
+			Rectangle bounds = rectangle.getBounds();
+			
+			transform.load(bounds.x, bounds.y).addOrigin().addOffset(rect.getStyle().isMovableForViewport()).scale(rect.getStyle().isScalableForViewport());
+
+			transformed = getGeometryCache().put(rect, SHAPE, ShapeTransform.movePolygonTo(ShapeTransform.scalePolygon(rectangle, scale), transform.getX(), transform.getY()));
 		}
+
+		return transformed;
 	}
 
 	private void drawDescription(Graphics g, GComponent c)
@@ -184,12 +289,12 @@ public class DisplayDrawAdapter
 		// Represents simply the outer bounds of the component.
 		Rectangle bounds = description.getStyle().getPrimaryLook().getBounds();
 		
-		Point descLoc = new GIPoint(bounds.getLocation()).add(getOrigin()).add(getOffset(), description.getStyle().isMovableForViewport()).add(getDesign().getPaddingProperty().getInnerThickness()).add(getDesign().getBorderProperty().getBorderThicknessPx()).mul(getScale(), description.getStyle().isScalableForViewport()).toPoint();
+		Point descLoc = transform.load(bounds.x, bounds.y).addOrigin().addOffset(description.getStyle().isMovableForViewport()).add(getDesign().getPaddingProperty().getInnerThickness()).add(getDesign().getBorderProperty().getBorderThicknessPx()).scale(description.getStyle().isScalableForViewport()).toPoint(location);
 		
 		Font original = description.getStyle().getFont();
-		Font scaledFont = new Font(original.getName(), original.getFile().getAbsolutePath(), (int) (original.getFontSize() * scale));
+		Font scaledFont = original.getScaledFont(scale);
 		
-		DrawToolkit.drawString(g, description.getTitle(), descLoc, scaledFont);
+		DrawToolkit.drawCachedString(g, description.getTitle(), descLoc, scaledFont);
 	}
 
 	private void drawImage(Graphics g, GComponent c)
@@ -200,9 +305,9 @@ public class DisplayDrawAdapter
 		// Uses the correct scale depending on whether Viewport scaling is generally wanted by the component.
 		float scale = c.getStyle().isScalableForViewport() ? this.scale : 1f;
 		
-		Point imgLoc = new GIPoint(bounds.getLocation()).add(getOrigin()).add(getOffset(), c.getStyle().isMovableForViewport()).mul(scale).toPoint();
+		transform.load(bounds.x, bounds.y).addOrigin().addOffset(c.getStyle().isMovableForViewport()).scale(c.getStyle().isScalableForViewport());
 
-		g.drawImage(c.getStyle().getImage(), imgLoc.x, imgLoc.y, (int) (bounds.width * scale), (int) (bounds.height * scale), null);
+		g.drawImage(c.getStyle().getImage(), transform.getX(), transform.getY(), (int) (bounds.width * scale), (int) (bounds.height * scale), getTarget());
 	}
 	
 	// Needs to be updated with offset and scale ability from the Viewports settings.
@@ -240,24 +345,28 @@ public class DisplayDrawAdapter
 		Dimension outerSize = new Dimension(bounds.width, bounds.width);
 		Dimension innerSize = new Dimension(outerSize.width - getDesign().getPaddingProperty().getInnerThickness(), outerSize.width - getDesign().getPaddingProperty().getInnerThickness());
 		
-		Point locOuter = new GIPoint(bounds.getLocation()).add(getOrigin()).add(getOffset(), c.getStyle().isMovableForViewport()).toPoint();
-		Point locInner = new GIPoint(locOuter).add(getDesign().getBorderProperty().getBorderThicknessPx()).toPoint();
+		boolean scalable = c.getStyle().isScalableForViewport();
 		
+		transform.load(bounds.x, bounds.y).addOrigin().addOffset(c.getStyle().isMovableForViewport());
 		
+		int outerX = transform.getX(), outerY = transform.getY();
 		
-		Point locOuterScaled = new GIPoint(locOuter).mul(getScale(), c.getStyle().isScalableForViewport()).toPoint();
-		Point locInnerScaled = new GIPoint(locInner).mul(getScale(), c.getStyle().isScalableForViewport()).toPoint();
+		int innerX = outerX + getDesign().getBorderProperty().getBorderThicknessPx(), innerY = outerY + getDesign().getBorderProperty().getBorderThicknessPx();
 
 		Dimension outerSizeScaled = new GIDimension(outerSize).mul(getScale(), c.getStyle().isScalableForViewport());
 		Dimension innerSizeScaled = new GIDimension(innerSize).mul(getScale(), c.getStyle().isScalableForViewport());
 
 		g.setColor(getDesign().getDesignColor().getBorderColor());
 
-		g.fillRect(locOuterScaled.x, locOuterScaled.y, outerSizeScaled.width, outerSizeScaled.width);
+		transform.load(outerX, outerY).scale(scalable);
+
+		g.fillRect(transform.getX(), transform.getY(), outerSizeScaled.width, outerSizeScaled.width);
 
 		g.setColor(Color.WHITE);
 
-		g.fillRect(locInnerScaled.x, locInnerScaled.y, innerSizeScaled.width, innerSizeScaled.width);
+		transform.load(innerX, innerY).scale(scalable);
+
+		g.fillRect(transform.getX(), transform.getY(), innerSizeScaled.width, innerSizeScaled.width);
 		
 		if(checkbox.isChecked())
 		{
@@ -273,9 +382,9 @@ public class DisplayDrawAdapter
 				sizePx *= getScale();
 			}
 
-			Point imgLoc = new GIPoint(locInner).add(getDesign().getBorderProperty().getBorderThicknessPx()).mul(getScale(), c.getStyle().isScalableForViewport()).toPoint();
+			transform.load(innerX, innerY).add(getDesign().getBorderProperty().getBorderThicknessPx()).scale(scalable);
 
-			g.drawImage(checkSymbol, imgLoc.x, imgLoc.y, sizePx, sizePx, null);
+			g.drawImage(checkSymbol, transform.getX(), transform.getY(), sizePx, sizePx, getTarget());
 		}
 	}
 	
@@ -293,26 +402,41 @@ public class DisplayDrawAdapter
 		{
 			GSelectionOption option = selectionBox.getOptions().get(i);
 
-			Polygon optionShape = new Polygon(shapeTable.get(i)[0].xpoints, shapeTable.get(i)[0].ypoints, shapeTable.get(i)[0].npoints);
-			Polygon titleShape = new Polygon(shapeTable.get(i)[2].xpoints, shapeTable.get(i)[2].ypoints, shapeTable.get(i)[2].npoints);
-
-			// Move the options to the Viewport relative position.
-			optionShape = ShapeTransform.movePolygonTo(optionShape, new GIPoint(optionShape.getBounds().getLocation()).add(getOrigin()).add(getOffset(), c.getStyle().isMovableForViewport()).toPoint());
-			titleShape = ShapeTransform.movePolygonTo(titleShape, new GIPoint(titleShape.getBounds().getLocation()).add(getOrigin()).add(getOffset(), c.getStyle().isMovableForViewport()).toPoint());
+			Polygon optionShape = getGeometryCache().get(c, OPTION_SHAPES + 2 * i);
+			Polygon titleShape = getGeometryCache().get(c, OPTION_SHAPES + 2 * i + 1);
 
-			if(c.getStyle().isScalableForViewport())
+			// The shapes are only transformed again if the selection box or the Viewport has changed.
+			if(optionShape == null || titleShape == null)
 			{
-				optionShape = ShapeTransform.scalePolygon(optionShape, getScale());
-				titleShape = ShapeTransform.scalePolygon(titleShape, getScale());
+				optionShape = shapeTable.get(i)[0];
+				titleShape = shapeTable.get(i)[2];
+
+				// Move the options to the Viewport relative position.
+				// Both shapes are moved by the same distance.
+				int dx = transform.getTranslationX(c.getStyle().isMovableForViewport()), dy = transform.getTranslationY(c.getStyle().isMovableForViewport());
+				
+				Rectangle optionBounds = optionShape.getBounds(), titleBounds = titleShape.getBounds();
+				
+				optionShape = ShapeTransform.movePolygonTo(optionShape, optionBounds.x + dx, optionBounds.y + dy);
+				titleShape = ShapeTransform.movePolygonTo(titleShape, titleBounds.x + dx, titleBounds.y + dy);
+
+				if(c.getStyle().isScalableForViewport())
+				{
+					optionShape = ShapeTransform.scalePolygon(optionShape, getScale());
+					titleShape = ShapeTransform.scalePolygon(titleShape, getScale());
+				}
+
+				getGeometryCache().put(c, OPTION_SHAPES + 2 * i, optionShape);
+				getGeometryCache().put(c, OPTION_SHAPES + 2 * i + 1, titleShape);
 			}
 
 			if(option.isChecked())
 			{
-				g.drawImage(selectionBox.getIcons()[1], optionShape.getBounds().x, optionShape.getBounds().y, optionShape.getBounds().width, optionShape.getBounds().height, null);
+				g.drawImage(selectionBox.getIcons()[1], optionShape.getBounds().x, optionShape.getBounds().y, optionShape.getBounds().width, optionShape.getBounds().height, getTarget());
 			}
 			else
 			{
-				g.drawImage(selectionBox.getIcons()[0], optionShape.getBounds().x, optionShape.getBounds().y, optionShape.getBounds().width, optionShape.getBounds().height, null);
+				g.drawImage(selectionBox.getIcons()[0], optionShape.getBounds().x, optionShape.getBounds().y, optionShape.getBounds().width, optionShape.getBounds().height, getTarget());
 			}
 
 			// Every option can have a background color..
@@ -329,7 +453,7 @@ public class DisplayDrawAdapter
 			}
 			
 			Font original = c.getStyle().getFont();
-			Font scaledFont = new Font(original.getName(), original.getFile().getAbsolutePath(), (int) (original.getFontSize() * scale));
+			Font scaledFont = original.getScaledFont(scale);
 			
 			DrawToolkit.drawString(g, option.getValue(), titleShape.getBounds().getLocation(), scaledFont);
 		}
@@ -346,10 +470,16 @@ public class DisplayDrawAdapter
 
 		g.setColor(polyButton.getStyle().getPrimaryColor());
 
-		Point buttonLoc = new GIPoint(bounds.getLocation()).add(getOrigin()).add(getOffset(), polyButton.getStyle().isMovableForViewport()).toPoint();
+		Polygon transformedCopy = getGeometryCache().get(c, SHAPE);
+
+		if(transformedCopy == null)
+		{
+			transform.load(bounds.x, bounds.y).addOrigin().addOffset(polyButton.getStyle().isMovableForViewport());
+
+			// Here it is only working with a copy in order not to modify the original object (polygon).
+			transformedCopy = getGeometryCache().put(c, SHAPE, ShapeTransform.scalePolygon(ShapeTransform.movePolygonTo(look, transform.getX(), transform.getY()), scale));
+		}
 
-		// Here it is only working with a copy in order not to modify the original object (polygon).
-		Polygon transformedCopy = ShapeTransform.scalePolygon(ShapeTransform.movePolygonTo(look, buttonLoc), scale);
 		g.fillPolygon(transformedCopy);
 
 		// If text should be displayed in the center of the component.
@@ -357,21 +487,21 @@ public class DisplayDrawAdapter
 		{
 			int textLength = polyButton.getStyle().getFont().getFontSize() * polyButton.getTitle().length();
 
-			int centerX = bounds.getLocation().x + bounds.width / 2 - textLength / 2;
-			int centerY = bounds.getLocation().y + bounds.height / 2 - polyButton.getStyle().getFont().getFontSize() / 2;
+			int centerX = bounds.x + bounds.width / 2 - textLength / 2;
+			int centerY = bounds.y + bounds.height / 2 - polyButton.getStyle().getFont().getFontSize() / 2;
 
-			Point loc = new GIPoint(centerX, centerY).add(polyButton.getStyle().getTextTransition()).add(getOffset(), polyButton.getStyle().isMovableForViewport()).mul(getScale(), polyButton.getStyle().isScalableForViewport()).toPoint();
+			Point loc = transform.load(centerX, centerY).add(polyButton.getStyle().getTextTransition()).addOffset(polyButton.getStyle().isMovableForViewport()).scale(polyButton.getStyle().isScalableForViewport()).toPoint(location);
 			
 			Font original = polyButton.getStyle().getFont();
-			Font scaledFont = new Font(original.getName(), original.getFile().getAbsolutePath(), (int) (original.getFontSize() * scale));
+			Font scaledFont = original.getScaledFont(scale);
 
-			DrawToolkit.drawString(g, polyButton.getTitle(), loc, scaledFont);
+			DrawToolkit.drawCachedString(g, polyButton.getTitle(), loc, scaledFont);
 		}
 		else // If text should be displayed normally (upper-left corner of the component).
 		{
-			Point loc = new GIPoint(bounds.getLocation()).add(polyButton.getStyle().getTextTransition()).add(getOffset(), polyButton.getStyle().isMovableForViewport()).mul(getScale(), polyButton.getStyle().isScalableForViewport()).toPoint();
+			Point loc = transform.load(bounds.x, bounds.y).add(polyButton.getStyle().getTextTransition()).addOffset(polyButton.getStyle().isMovableForViewport()).scale(polyButton.getStyle().isScalableForViewport()).toPoint(location);
 			
-			DrawToolkit.drawString(g, polyButton.getTitle(), loc, polyButton.getStyle().getFont());
+			DrawToolkit.drawCachedString(g, polyButton.getTitle(), loc, polyButton.getStyle().getFont());
 		}
 	}
 	
@@ -385,7 +515,7 @@ public class DisplayDrawAdapter
 		
 		String value = button.getTitle();
 		
-		drawGeneralField(g, button, value, value.length());
+		drawGeneralField(g, button, value, value.length(), true);
 		
 		getDesign().getDesignColor().setBorderColor(temp);
 	}
@@ -396,43 +526,80 @@ public class DisplayDrawAdapter
 		
 		String value = textfield.getInputValue();
 		
-		drawGeneralField(g, textfield, value, textfield.getValueManager().getMaxLength());
+		// The value of a text field changes with every key, so it is not cached as a whole.
+		drawGeneralField(g, textfield, value, textfield.getValueManager().getMaxLength(), false);
 	}
 
 	protected void drawGeneralField(Graphics g, GComponent c, String value, int maxLength)
+	{
+		drawGeneralField(g, c, value, maxLength, false);
+	}
+	
+	// If 'cachedText' is enabled, the value is drawn as a whole from the text run cache (see 'DrawToolkit.drawCachedString(...)').
+	protected void drawGeneralField(Graphics g, GComponent c, String value, int maxLength, boolean cachedText)
 	{
 		Polygon background = c.getStyle().getPrimaryLook();
 		
-		Point backgroundLoc = new GIPoint(background.getBounds().getLocation()).add(getOrigin()).add(getOffset(), c.getStyle().isMovableForViewport()).toPoint();
+		Rectangle backgroundBounds = background.getBounds();
+		
+		transform.load(backgroundBounds.x, backgroundBounds.y).addOrigin().addOffset(c.getStyle().isMovableForViewport());
+		
+		int backgroundX = transform.getX(), backgroundY = transform.getY();
 
-		background = ShapeTransform.movePolygonTo(background, backgroundLoc);
+		Polygon transformedBackground = getGeometryCache().get(c, SHAPE);
 
-		if(c.getStyle().isScalableForViewport())
+		if(transformedBackground == null)
 		{
-			background = ShapeTransform.scalePolygon(background, getScale());
+			transformedBackground = ShapeTransform.movePolygonTo(background, backgroundX, backgroundY);
+
+			if(c.getStyle().isScalableForViewport())
+			{
+				transformedBackground = ShapeTransform.scalePolygon(transformedBackground, getScale());
+			}
+
+			getGeometryCache().put(c, SHAPE, transformedBackground);
 		}
 
 		g.setColor(getDesign().getDesignColor().getBorderColor());
-		g.fillPolygon(background);
+		g.fillPolygon(transformedBackground);
 
 
 
-		Dimension frontDimension = new GIDimension(maxLength * c.getStyle().getFont().getFontSize(), c.getStyle().getFont().getFontSize()).add(2*getDesign().getPaddingProperty().getInnerThickness());
+		// The front also depends on the length of the value, e.g. the title of a button.
+		long frontVariant = ((long) maxLength << 32) | c.getStyle().getFont().getFontSize();
 
-		Rectangle frontRectangle = new Rectangle(new GIPoint(backgroundLoc).add(getDesign().getBorderProperty().getBorderThicknessPx()).toPoint(), frontDimension);
+		Polygon front = getGeometryCache().get(c, FRONT_SHAPE, frontVariant);
 
-		Polygon front = ShapeMaker.createRectangleFrom(frontRectangle, c.getStyle().getBorderProperties());
+		if(front == null)
+		{
+			Dimension frontDimension = new GIDimension(maxLength * c.getStyle().getFont().getFontSize(), c.getStyle().getFont().getFontSize()).add(2*getDesign().getPaddingProperty().getInnerThickness());
 
-		front = ShapeTransform.scalePolygon(front, c.getStyle().isScalableForViewport() ? getScale() : 1f);
+			int borderThickness = getDesign().getBorderProperty().getBorderThicknessPx();
+			
+			Rectangle frontRectangle = new Rectangle(backgroundX + borderThickness, backgroundY + borderThickness, frontDimension.width, frontDimension.height);
+
+			front = ShapeMaker.createRectangleFrom(frontRectangle, c.getStyle().getBorderProperties());
+
+			front = getGeometryCache().put(c, FRONT_SHAPE, frontVariant, ShapeTransform.scalePolygon(front, c.getStyle().isScalableForViewport() ? getScale() : 1f));
+		}
 
 		g.setColor(c.getStyle().getPrimaryColor());
 		g.fillPolygon(front);
 
 
 
-		Point text = new GIPoint(backgroundLoc).add(getDesign().getBorderProperty().getBorderThicknessPx()).add(getDesign().getPaddingProperty().getInnerThickness()).mul(getScale(), c.getStyle().isScalableForViewport()).toPoint();
+		Point text = transform.load(backgroundX, backgroundY).add(getDesign().getBorderProperty().getBorderThicknessPx()).add(getDesign().getPaddingProperty().getInnerThickness()).scale(c.getStyle().isScalableForViewport()).toPoint(location);
 
-		DrawToolkit.drawString(g, value, text, c.getStyle().getFont().getScaledFont(c.getStyle().isScalableForViewport() ? getScale() : 1f));
+		Font font = c.getStyle().getFont().getScaledFont(c.getStyle().isScalableForViewport() ? getScale() : 1f);
+		
+		if(cachedText)
+		{
+			DrawToolkit.drawCachedString(g, value, text, font);
+		}
+		else
+		{
+			DrawToolkit.drawString(g, value, text, font);
+		}
 	}
 	
 	public void drawWindow(Graphics g, GComponent c)
@@ -447,9 +614,16 @@ public class DisplayDrawAdapter
 		{
 			g.setColor(window.getFrameColor());
 
-			Point windowOuterMoved = new GIPoint(c.getStyle().getPrimaryLook().getBounds().getLocation()).add(getOffset(), window.getStyle().isMovableForViewport()).toPoint();
+			Polygon movedByOffset = getGeometryCache().get(c, SHAPE);
+
+			if(movedByOffset == null)
+			{
+				Rectangle bounds = c.getStyle().getPrimaryLook().getBounds();
+				
+				transform.load(bounds.x, bounds.y).addOffset(window.getStyle().isMovableForViewport());
 
-			Polygon movedByOffset = ShapeTransform.movePolygonTo(c.getStyle().getPrimaryLook(), windowOuterMoved);
+				movedByOffset = getGeometryCache().put(c, SHAPE, ShapeTransform.movePolygonTo(c.getStyle().getPrimaryLook(), transform.getX(), transform.getY()));
+			}
 
 			/*
 			 * When scaling is wanted again, you can implement it here again with this code snippet..
@@ -466,9 +640,16 @@ public class DisplayDrawAdapter
 		{
 			g.setColor(Color.BLACK);
 			
-			Point secondaryLookMoved = new GIPoint(c.getStyle().getSecondaryLook().getBounds().getLocation()).add(getOffset(), window.getStyle().isMovableForViewport()).toPoint();
+			Polygon movedByOffset = getGeometryCache().get(c, SECONDARY_SHAPE);
 			
-			Polygon movedByOffset = ShapeTransform.movePolygonTo(c.getStyle().getSecondaryLook(), secondaryLookMoved);
+			if(movedByOffset == null)
+			{
+				Rectangle bounds = c.getStyle().getSecondaryLook().getBounds();
+				
+				transform.load(bounds.x, bounds.y).addOffset(window.getStyle().isMovableForViewport());
+				
+				movedByOffset = getGeometryCache().put(c, SECONDARY_SHAPE, ShapeTransform.movePolygonTo(c.getStyle().getSecondaryLook(), transform.getX(), transform.getY()));
+			}
 			
 			g.fillPolygon(movedByOffset);
 		}
@@ -479,19 +660,29 @@ public class DisplayDrawAdapter
 			
 			int borderLeftMargin = window.getStyle().getBorderProperties().getBorderThicknessPx();
 			
-			GIPoint titlePosition = new GIPoint(c.getStyle().getPrimaryLook().getBounds().getLocation()).add(getOffset(), window.getStyle().isMovableForViewport());		
+			Rectangle bounds = c.getStyle().getPrimaryLook().getBounds();
 			
-			titlePosition = titlePosition.addY(borderTopMargin).addX(borderLeftMargin);
+			transform.load(bounds.x, bounds.y).addOffset(window.getStyle().isMovableForViewport()).add(borderLeftMargin, borderTopMargin);
 			
-			// titlePosition.mul(getScale(), window.getStyle().isScalableForViewport());
+			// transform.scale(window.getStyle().isScalableForViewport());
 			
-			DrawToolkit.drawString(g, window.getTitle(), titlePosition.toPoint(), window.getStyle().getFont());// window.getStyle().isScalableForViewport() ? window.getStyle().getFont().getScaledFont(getScale()) : window.getStyle().getFont());
+			DrawToolkit.drawCachedString(g, window.getTitle(), transform.toPoint(location), window.getStyle().getFont());// window.getStyle().isScalableForViewport() ? window.getStyle().getFont().getScaledFont(getScale()) : window.getStyle().getFont());
 		}
 
 		{
-			Point exitButtonMoved_Loc = new GIPoint(window.getExitButton().getStyle().getLocation()).add(getOffset(), window.getStyle().isMovableForViewport()).toPoint();
+			// The window buttons are moved together with the window, so their shapes are cached for the window.
+			// The buttons are moved after the window itself (see 'GWindow.updateWindowButtons(...)'),
+			// so their own geometry is the variant, otherwise a frame drawn in between would keep the old button locations.
+			int exitButtonGeometry = window.getExitButton().getStyle().getGeometryModifications();
+			
+			Polygon exitButtonMoved = getGeometryCache().get(c, EXIT_BUTTON_SHAPE, exitButtonGeometry);
 			
-			Polygon exitButtonMoved = ShapeTransform.movePolygonTo(window.getExitButton().getStyle().getPrimaryLook(), exitButtonMoved_Loc);
+			if(exitButtonMoved == null)
+			{
+				transform.load(window.getExitButton().getStyle().getLocation()).addOffset(window.getStyle().isMovableForViewport());
+				
+				exitButtonMoved = getGeometryCache().put(c, EXIT_BUTTON_SHAPE, exitButtonGeometry, ShapeTransform.movePolygonTo(window.getExitButton().getStyle().getPrimaryLook(), transform.getX(), transform.getY()));
+			}
 			
 			// Polygon exitButtonScaled = ShapeTransform.scalePolygon(exitButtonMoved, window.getStyle().isScalableForViewport() ? getScale() : 1f);
 			
@@ -500,9 +691,16 @@ public class DisplayDrawAdapter
 		}
 		
 		{	
-			Point minimizeButtonMoved_Loc = new GIPoint(window.getMinimizeButton().getStyle().getLocation()).add(getOffset(), window.getStyle().isMovableForViewport()).toPoint();
+			int minimizeButtonGeometry = window.getMinimizeButton().getStyle().getGeometryModifications();
 			
-			Polygon minimizeButtonMoved = ShapeTransform.movePolygonTo(window.getMinimizeButton().getStyle().getPrimaryLook(), minimizeButtonMoved_Loc);
+			Polygon minimizeButtonMoved = getGeometryCache().get(c, MINIMIZE_BUTTON_SHAPE, minimizeButtonGeometry);
+			
+			if(minimizeButtonMoved == null)
+			{
+				transform.load(window.getMinimizeButton().getStyle().getLocation()).addOffset(window.getStyle().isMovableForViewport());
+				
+				minimizeButtonMoved = getGeometryCache().put(c, MINIMIZE_BUTTON_SHAPE, minimizeButtonGeometry, ShapeTransform.movePolygonTo(window.getMinimizeButton().getStyle().getPrimaryLook(), transform.getX(), transform.getY()));
+			}
 			
 			// Polygon minimizeButtonScaled = ShapeTransform.scalePolygon(minimizeButtonMoved, window.getStyle().isScalableForViewport() ? getScale() : 1f);
 			
@@ -521,6 +719,17 @@ public class DisplayDrawAdapter
 		this.design = design;
 	}
 	
+	public Viewport getTarget()
+	{
+		return target;
+	}
+	
+	// Returns the cache for the moved and scaled shapes of the Viewport which is drawn currently.
+	public GeometryCache getGeometryCache()
+	{
+		return target.getGeometryCache();
+	}
+	
 	public Point getOrigin()
 	{
 		return origin;
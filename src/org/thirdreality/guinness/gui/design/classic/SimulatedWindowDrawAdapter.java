@@ -21,16 +21,23 @@ public class SimulatedWindowDrawAdapter
 	// Draws the content for windows (for type GWindow).
 	// This is a safe method, meaning it checks the components type for a GWindow.
 	public void drawSimulatedContext(Graphics g, GComponent c)
+	{
+		drawSimulatedContext(g, displayViewport, c);
+	}
+	
+	// The same as above but for the given Viewport instead of the one this adapter was created for.
+	// It does not depend on any adapter, so designs can share it between all threads which draw at the same time (see 'OffscreenRenderer').
+	public static void drawSimulatedContext(Graphics g, Viewport displayViewport, GComponent c)
 	{
 		if(c.getType().contentEquals("window"))
 		{
-			drawSimulatedViewport(g, (GWindow) c);
+			drawSimulatedViewport(g, displayViewport, (GWindow) c);
 		}
 	}
 	
 	// Updates the origin of the simulated Viewport.
 	// The re-calculated origin is then used to render the Viewport and to recognize the interaction (via ComponentHandler) with all components correctly.
-	private void updateOriginOfSimulatedViewport(Viewport displayViewport, GWindow target)
+	private static void updateOriginOfSimulatedViewport(Viewport displayViewport, GWindow target)
 	{
 		// Tells the renderer (Viewport) afterwards to render its components at the given location (origin).
 		// In this case, it is the upper-left corner of the inner frame of the window.
@@ -39,7 +46,7 @@ public class SimulatedWindowDrawAdapter
 		target.getViewport().setOrigin(originRecalculated);
 	}
 
-	private void drawSimulatedViewport(Graphics context, GWindow target)
+	private static void drawSimulatedViewport(Graphics context, Viewport displayViewport, GWindow target)
 	{
 		if(target.hasViewport())
 		{
@@ -51,7 +58,7 @@ public class SimulatedWindowDrawAdapter
 		}
 	}
 
-	private void renderEachComponent(Graphics context, Viewport source)
+	private static void renderEachComponent(Graphics context, Viewport source)
 	{
 		source.drawComponents(context);
 	}
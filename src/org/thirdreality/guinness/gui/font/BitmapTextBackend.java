@@ -0,0 +1,34 @@
+package org.thirdreality.guinness.gui.font;
+
+import java.awt.Graphics;
+
+import org.thirdreality.guinness.draw.DrawToolkit;
+
+// Draws every symbol from the font image file (PNG) of the Font, scaled to the font size (see 'DrawToolkit.drawChar(...)').
+// This is the default backend of every Font.
+public class BitmapTextBackend implements TextBackend
+{
+	// The backend does not keep any values, so all Fonts share the same one.
+	public static final BitmapTextBackend INSTANCE = new BitmapTextBackend();
+
+	private BitmapTextBackend()
+	{
+		
+	}
+
+	@Override
+	public void drawString(Graphics g, String text, int x, int y, Font font)
+	{
+		for(int i = 0; i < text.length(); i++)
+		{
+			DrawToolkit.drawChar(g, text.charAt(i), x + font.getFontSize() * i, y, font);
+		}
+	}
+
+	// Every symbol is drawn as an image by itself, so one image for the whole text is faster.
+	@Override
+	public boolean isRunCacheable()
+	{
+		return true;
+	}
+}
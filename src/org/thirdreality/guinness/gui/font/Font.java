@@ -3,9 +3,6 @@ package org.thirdreality.guinness.gui.font;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 import org.thirdreality.guinness.feature.Path;
 
@@ -13,9 +10,8 @@ public class Font
 {
 	private String name;
 	
-	private BufferedImage image;
-	
-	private File file;
+	// The decoded font image file which is shared by all Fonts using the same file (see 'FontAtlas').
+	private final FontAtlas atlas;
 	
 	private final static String defaultFilepath = Path.FONT_FOLDER + File.separator + "StandardFont.png";
 	
@@ -23,6 +19,9 @@ public class Font
 	
 	// This is the font size in pixels.
 	private int fontSize = 17;
+	
+	// Draws the texts of this Font. By default, the symbols are taken from the font image file (see 'TextBackend').
+	private TextBackend textBackend = BitmapTextBackend.INSTANCE;
 
 	public Font(String name, String filepath) throws NullPointerException, IllegalArgumentException
 	{
@@ -42,26 +41,8 @@ public class Font
 			throw new NullPointerException("The constructor parameter 'name' cannot be null.\nAre you sure, you gave the Font a name?");
 		}
 		
-		if(filepath != null)
-		{
-			File file = new File(filepath);
-			
-			if(file.exists() && file.isFile())
-			{
-				this.file = file;
-				
-				image = loadPattern(file.getAbsolutePath());
-			}
-			else
-			{
-				System.out.println(filepath);
-				throw new IllegalArgumentException("The constructor parameter 'filepath' is invalid.\nMake sure you have specified a valid directory and file for the path of the Font!");
-			}
-		}
-		else
-		{
-			throw new NullPointerException("The constructor parameter 'filepath' cannot be null.\nAre you sure, you gave the Font a file path?");
-		}
+		// The font image file is only decoded if no other Font has used it before.
+		atlas = FontAtlas.load(filepath);
 	}
 	
 	public Font(String name, String filepath, int fontSize) throws NullPointerException, IllegalArgumentException
@@ -78,24 +59,14 @@ public class Font
 		}
 	}
 	
-	private BufferedImage loadPattern(String filepath)
+	// Creates a Font which shares the atlas of another Font, so nothing needs to be loaded (see 'copy()').
+	private Font(String name, FontAtlas atlas, int fontSize, Color fontColor, TextBackend textBackend)
 	{
-		try
-		{
-			BufferedImage loaded = null;
-
-			String path = filepath;
-
-			loaded = ImageIO.read(new File(path));
-
-			return loaded;
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-
-			return null;
-		}
+		this.name = name;
+		this.atlas = atlas;
+		this.fontSize = fontSize;
+		this.fontColor = fontColor;
+		this.textBackend = textBackend;
 	}
 	
 	public int getFontSize()
@@ -125,22 +96,45 @@ public class Font
 
 	public BufferedImage getImage()
 	{
-		return image;
+		return atlas.getImage();
 	}
 
 	public File getFile()
 	{
-		return file;
+		return atlas.getFile();
+	}
+	
+	public FontAtlas getAtlas()
+	{
+		return atlas;
 	}
 
+	public TextBackend getTextBackend()
+	{
+		return textBackend;
+	}
+	
+	// Changes how the texts of this Font are drawn, e.g. with a TrueType font instead of the font image file (see 'TrueTypeTextBackend').
+	// Components which already use this Font are drawn with the new backend from the next frame on.
+	public void setTextBackend(TextBackend textBackend) throws NullPointerException
+	{
+		if(textBackend == null)
+		{
+			throw new NullPointerException("The parameter 'textBackend' cannot be null.\nUse 'BitmapTextBackend.INSTANCE' to draw the texts from the font image file again.");
+		}
+		
+		this.textBackend = textBackend;
+	}
+	
 	public static String getDefaultFilepath()
 	{
 		return defaultFilepath;
 	}
 	
+	// The copy shares the atlas of this Font, so it is cheap enough to be created on every frame.
 	public Font copy()
 	{
-		return new Font(name, file.getAbsolutePath(), fontSize);
+		return new Font(name, atlas, fontSize, fontColor, textBackend);
 	}
 	
 	// Simply creates a copy from this Font but in addition it also changes the font size of the new object by the given scale.
@@ -0,0 +1,104 @@
+package org.thirdreality.guinness.gui.font;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+// The decoded font image file (PNG) which contains all symbols of a font.
+// Every font image file is only decoded once and then shared by all Fonts which use it, no matter their size or color.
+// Before, every Font decoded its file again, e.g. for every component or even for every frame when a scaled Font was needed.
+// An atlas is immutable, so the image must not be modified.
+public class FontAtlas
+{
+	// Contains all atlases which were loaded yet by their absolute file paths.
+	private static final ConcurrentHashMap<String, FontAtlas> atlases = new ConcurrentHashMap<String, FontAtlas>();
+
+	private final File file;
+
+	private final BufferedImage image;
+
+	private FontAtlas(File file, BufferedImage image)
+	{
+		this.file = file;
+		this.image = image;
+	}
+
+	// Returns the atlas of the given font image file, it is decoded if it was not loaded before.
+	public static FontAtlas load(String filepath) throws NullPointerException, IllegalArgumentException
+	{
+		if(filepath == null)
+		{
+			throw new NullPointerException("The parameter 'filepath' cannot be null.\nAre you sure, you gave the Font a file path?");
+		}
+
+		// Every component creates a Font with an absolute path (see 'Path.FONT_FOLDER'), so the path is looked up as it is first before it is resolved.
+		FontAtlas atlas = atlases.get(filepath);
+
+		if(atlas != null)
+		{
+			return atlas;
+		}
+
+		File file = new File(filepath).getAbsoluteFile();
+
+		atlas = atlases.get(file.getPath());
+
+		if(atlas != null)
+		{
+			return atlas;
+		}
+
+		if(!file.isFile())
+		{
+			throw new IllegalArgumentException("The parameter 'filepath' (" + filepath + ") is invalid.\nMake sure you have specified a valid directory and file for the path of the Font!");
+		}
+
+		BufferedImage image = decode(file);
+
+		atlas = new FontAtlas(file, image);
+
+		// An atlas which could not be decoded is not kept, so it is decoded again next time.
+		if(image == null)
+		{
+			return atlas;
+		}
+
+		// If another thread has loaded the same file meanwhile, its atlas is used, so there is only one per file.
+		FontAtlas loaded = atlases.putIfAbsent(file.getPath(), atlas);
+
+		return loaded == null ? atlas : loaded;
+	}
+
+	private static BufferedImage decode(File file)
+	{
+		try
+		{
+			return ImageIO.read(file);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+
+			return null;
+		}
+	}
+
+	// Returns how many atlases are loaded, meaning how many font image files were decoded.
+	public static int getLoadedCount()
+	{
+		return atlases.size();
+	}
+
+	public File getFile()
+	{
+		return file;
+	}
+
+	public BufferedImage getImage()
+	{
+		return image;
+	}
+}
@@ -0,0 +1,16 @@
+package org.thirdreality.guinness.gui.font;
+
+import java.awt.Graphics;
+
+// Decides how the texts of a Font are drawn (see 'Font.setTextBackend(...)').
+// By default, the symbols are cut out of the font image file (PNG) of the Font (see 'BitmapTextBackend').
+// Every text takes up a box of 'font size * length' x 'font size' pixels, no matter which backend draws it, so the layout of the components stays the same.
+public interface TextBackend
+{
+	// Draws the text with the size and color of the given Font, the upper left corner of the text is at (x|y).
+	public void drawString(Graphics g, String text, int x, int y, Font font);
+	
+	// Tells whether a whole text should be drawn as a single image (see 'TextRunCache') instead of being drawn by this backend every time.
+	// It is only worth it if this backend is slower than drawing the image.
+	public boolean isRunCacheable();
+}
@@ -0,0 +1,262 @@
+package org.thirdreality.guinness.gui.font;
+
+import java.awt.FontFormatException;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Draws texts with a TrueType font of Java2D (see 'java.awt.Font') instead of the font image file (PNG) of the Font.
+// The outlines of the symbols are rasterized for the exact font size, so large texts stay sharp and are not scaled symbol by symbol.
+// The laid out symbols of every text (see 'GlyphVector') are kept for every font size, so a text is only laid out once.
+// The texts are antialiased and positioned with fractional metrics (sub-pixel positioning).
+// The lines are as high as the font size, so a text fits into the same box as with the default backend (see 'TextBackend').
+// The symbols keep their own widths, which are narrower than the boxes of the font image file for common fonts.
+public class TrueTypeTextBackend implements TextBackend
+{
+	// More laid out texts are thrown away, beginning with the least recently used one.
+	public static final int MAX_GLYPH_VECTORS = 1024;
+
+	// Every font size needs its own derived font, but there are only a few font sizes in common.
+	private static final int MAX_FONT_SIZES = 64;
+
+	// The texts are laid out without any transformation, but antialiased and with fractional metrics.
+	private static final FontRenderContext RENDER_CONTEXT = new FontRenderContext(null, true, true);
+
+	private final java.awt.Font baseFont;
+
+	// The height of a line of the base font at a size of one (1) point, used to find the size which fits the font size in pixels.
+	private final float lineHeight;
+
+	// The font and baseline of every font size (in pixels) the texts were drawn with.
+	private final HashMap<Integer, SizedFont> sizedFonts = new HashMap<Integer, SizedFont>();
+
+	// The access order (true) makes the map sort its entries from the least to the most recently used text.
+	private final LinkedHashMap<GlyphKey, GlyphVector> glyphVectors = new LinkedHashMap<GlyphKey, GlyphVector>(256, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<GlyphKey, GlyphVector> eldest)
+		{
+			return size() > MAX_GLYPH_VECTORS;
+		}
+	};
+
+	// This key is only used for lookups, so no new key needs to be created when a text is laid out yet.
+	private final GlyphKey lookup = new GlyphKey();
+
+	private long hits = 0, misses = 0;
+
+	// Uses the logical monospaced font of Java2D, its symbols have the same widths just like the ones of the font image file.
+	public TrueTypeTextBackend()
+	{
+		this(new java.awt.Font(java.awt.Font.MONOSPACED, java.awt.Font.PLAIN, 1));
+	}
+
+	public TrueTypeTextBackend(java.awt.Font baseFont) throws NullPointerException
+	{
+		if(baseFont == null)
+		{
+			throw new NullPointerException("The parameter 'baseFont' cannot be null.\nAre you sure, you gave the TrueTypeTextBackend a font?");
+		}
+
+		this.baseFont = baseFont.deriveFont(1f);
+
+		LineMetrics metrics = this.baseFont.getLineMetrics("Ag", RENDER_CONTEXT);
+
+		lineHeight = metrics.getAscent() + metrics.getDescent();
+	}
+
+	// Creates a backend for the given TrueType font file (TTF).
+	public static TrueTypeTextBackend load(String filepath) throws NullPointerException, IllegalArgumentException
+	{
+		if(filepath == null)
+		{
+			throw new NullPointerException("The parameter 'filepath' cannot be null.\nAre you sure, you gave the TrueTypeTextBackend a file path?");
+		}
+
+		try
+		{
+			return new TrueTypeTextBackend(java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT, new File(filepath)));
+		}
+		catch(FontFormatException | IOException e)
+		{
+			throw new IllegalArgumentException("The parameter 'filepath' is invalid.\nMake sure you have specified a valid TrueType font file (" + filepath + ") !", e);
+		}
+	}
+
+	@Override
+	public void drawString(Graphics g, String text, int x, int y, Font font)
+	{
+		if(text.isEmpty() || font.getFontSize() <= 0)
+		{
+			return;
+		}
+
+		SizedFont sized;
+		GlyphVector glyphs;
+
+		synchronized(this)
+		{
+			sized = getSizedFont(font.getFontSize());
+
+			glyphs = getGlyphVector(text, font.getFontSize(), sized);
+		}
+
+		g.setColor(font.getFontColor());
+
+		if(!(g instanceof Graphics2D))
+		{
+			g.setFont(sized.font);
+			g.drawString(text, x, y + Math.round(sized.ascent));
+
+			return;
+		}
+
+		Graphics2D g2d = (Graphics2D) g;
+
+		Object antialiasing = g2d.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING), fractionalMetrics = g2d.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS);
+
+		g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+
+		g2d.drawGlyphVector(glyphs, x, y + sized.ascent);
+
+		// The hints are restored, so nothing else is drawn differently because of a text.
+		g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, antialiasing == null ? RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT : antialiasing);
+		g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fractionalMetrics == null ? RenderingHints.VALUE_FRACTIONALMETRICS_DEFAULT : fractionalMetrics);
+	}
+
+	// Java2D keeps the rasterized symbols itself, so drawing the laid out text is faster than drawing an image of the whole text.
+	@Override
+	public boolean isRunCacheable()
+	{
+		return false;
+	}
+
+	// Returns the font whose lines are as high as the given font size in pixels.
+	private SizedFont getSizedFont(int fontSize)
+	{
+		SizedFont sized = sizedFonts.get(fontSize);
+
+		if(sized == null)
+		{
+			if(sizedFonts.size() >= MAX_FONT_SIZES)
+			{
+				sizedFonts.clear();
+			}
+
+			java.awt.Font derived = baseFont.deriveFont(fontSize / lineHeight);
+
+			sized = new SizedFont(derived, derived.getLineMetrics("Ag", RENDER_CONTEXT).getAscent());
+
+			sizedFonts.put(fontSize, sized);
+		}
+
+		return sized;
+	}
+
+	// Returns the laid out symbols of the text, it is laid out if it was not drawn in this font size before.
+	private GlyphVector getGlyphVector(String text, int fontSize, SizedFont sized)
+	{
+		GlyphVector glyphs = glyphVectors.get(lookup.set(text, fontSize));
+
+		if(glyphs != null)
+		{
+			hits++;
+
+			return glyphs;
+		}
+
+		misses++;
+
+		glyphs = sized.font.createGlyphVector(RENDER_CONTEXT, text);
+
+		glyphVectors.put(new GlyphKey().set(text, fontSize), glyphs);
+
+		return glyphs;
+	}
+
+	public java.awt.Font getBaseFont()
+	{
+		return baseFont;
+	}
+
+	public synchronized int size()
+	{
+		return glyphVectors.size();
+	}
+
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	public synchronized void clear()
+	{
+		glyphVectors.clear();
+		sizedFonts.clear();
+	}
+
+	// A font derived for a single font size (in pixels) and the distance from the top of its lines to its baseline.
+	private static final class SizedFont
+	{
+		private final java.awt.Font font;
+
+		private final float ascent;
+
+		private SizedFont(java.awt.Font font, float ascent)
+		{
+			this.font = font;
+			this.ascent = ascent;
+		}
+	}
+
+	// Identifies a single laid out text.
+	private static final class GlyphKey
+	{
+		private String text;
+
+		private int fontSize;
+
+		private GlyphKey set(String text, int fontSize)
+		{
+			this.text = text;
+			this.fontSize = fontSize;
+
+			return this;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * text.hashCode() + fontSize;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(!(obj instanceof GlyphKey))
+			{
+				return false;
+			}
+
+			GlyphKey other = (GlyphKey) obj;
+
+			return fontSize == other.fontSize && text.equals(other.text);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package org.thirdreality.guinness.gui.layer;
 
 import java.awt.Dimension;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -25,6 +26,11 @@ public class GLayer implements Comparable<GLayer>, Serializable
 
 	private boolean visible = true;
 	
+	// When enabled, all components of this layer are drawn into an image once, which is drawn afterwards instead (see 'LayerCache').
+	// The image is only drawn again if a component of the layer has changed or the Viewport was scaled.
+	// Use it for layers which rarely change, e.g. backgrounds and decorations.
+	private volatile boolean cached = false;
+	
 	private Design design;
 
 	protected Dimension size = null; // Keeps the dimension determined by all components contained within this layer.
@@ -129,6 +135,26 @@ public class GLayer implements Comparable<GLayer>, Serializable
 		}
 	}
 	
+	// Adds all given components at once without checking their positions, e.g. when a layer is restored from a snapshot (see 'SceneSnapshot').
+	// Checking every component against all others takes far too long for large layers,
+	// so only use it for components which were known not to intersect each other before, e.g. because they were added by 'add(...)'.
+	// The designs and shapes of the components are kept as they are.
+	public void addAllUnchecked(Collection<GComponent> comps)
+	{
+		for(GComponent comp : comps)
+		{
+			if(comp.getStyle().getDesign() == null)
+			{
+				comp.getStyle().setDesign(getDesign());
+			}
+
+			comp.setEnabled((comp.isEnabled() == null) ? isEnabled() : comp.isEnabled());
+			comp.getStyle().setVisible((comp.getStyle().isVisible() == null) ? isVisible() : comp.getStyle().isVisible());
+		}
+
+		compBuffer.addAll(comps);
+	}
+	
 	public boolean remove(GComponent comp)
 	{
 		return compBuffer.remove(comp);
@@ -182,6 +208,16 @@ public class GLayer implements Comparable<GLayer>, Serializable
 		this.size = size;
 	}
 	
+	public boolean isCached()
+	{
+		return cached;
+	}
+	
+	public void setCached(boolean cached)
+	{
+		this.cached = cached;
+	}
+	
 	public boolean isEnabled()
 	{
 		return enabled;
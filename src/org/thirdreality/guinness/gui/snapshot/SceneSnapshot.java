@@ -0,0 +1,175 @@
+package org.thirdreality.guinness.gui.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.design.Design;
+import org.thirdreality.guinness.gui.design.Sample;
+import org.thirdreality.guinness.gui.font.BitmapTextBackend;
+import org.thirdreality.guinness.gui.font.TextBackend;
+
+// Stores a whole Viewport (layers, components, styles and windows including their Viewports) in a compact binary file and restores it again.
+// Unlike Java serialization, nothing but the plain values is written, so even scenes with tens of thousands of components are restored within milliseconds.
+// The file is read through a memory-mapped buffer, so it is neither copied into a stream nor decoded by reflection (see 'SnapshotReader').
+//
+// Resources are stored by reference, not by their content:
+// - Fonts by their font image file, size, color and text backend.
+// - Images by their file, so only images loaded by 'ImageToolkit.loadCachedImage(...)' can be stored (see 'ImageCache.getPath(...)').
+// - Designs and text backends by the names they were registered with (see 'registerDesign(...)' and 'registerTextBackend(...)').
+//
+// Action listeners are code and therefore not stored, they need to be set again after restoring.
+// Only the standard components are supported, subclasses of them are rejected because they would be restored as their base classes.
+public class SceneSnapshot
+{
+	// Every snapshot file begins with these bytes ("GSNP"), so other files are rejected directly.
+	public static final int MAGIC = 0x47534E50;
+
+	// Is increased whenever the format changes. Snapshots of newer versions are rejected.
+	public static final int VERSION = 1;
+
+	// Strings, fonts and images are written once and afterwards only referenced by their index (in the order they were written first).
+	// These two values stand for a missing resource and for a resource which is written right after, instead of an index.
+	static final int NULL_REFERENCE = -1, NEW_REFERENCE = -2;
+
+	// Values of type 'Boolean' are written as one of these bytes, as 'null' means they were not assigned yet (see 'GComponent.isEnabled()').
+	static final byte UNASSIGNED = 0, FALSE = 1, TRUE = 2;
+
+	// The bits of the flags which are written for every layer, style and logic.
+	static final int LAYER_VISIBLE = 1, LAYER_ENABLED = 2, LAYER_CACHED = 4;
+
+	static final int STYLE_MOVABLE = 1, STYLE_SCALABLE = 2;
+
+	static final int LOGIC_FOCUSABLE = 1, LOGIC_INTERACTABLE = 2, LOGIC_CLICK = 4, LOGIC_HOVER = 8, LOGIC_MULTITHREADING = 16, LOGIC_DOUBLE_CLICKING = 32;
+
+	private static final ConcurrentHashMap<String, Design> designs = new ConcurrentHashMap<String, Design>();
+
+	private static final ConcurrentHashMap<String, TextBackend> textBackends = new ConcurrentHashMap<String, TextBackend>();
+
+	static
+	{
+		registerDesign("classic", Sample.classic);
+
+		registerTextBackend("bitmap", BitmapTextBackend.INSTANCE);
+	}
+
+	// Writes the given Viewport into the given file, an existing file is replaced only after the snapshot was written completely.
+	public static void write(Viewport viewport, File file) throws NullPointerException, IllegalArgumentException, IOException
+	{
+		if(viewport == null || file == null)
+		{
+			throw new NullPointerException("The parameters 'viewport' and 'file' cannot be null.\nAre you sure, you gave the snapshot a Viewport and a file to write it into?");
+		}
+
+		new SnapshotWriter().write(viewport, file);
+	}
+
+	// Restores the layers and windows of the given file into the given Viewport, e.g. a new Viewport of a Display.
+	// The offset and scale of the Viewport are restored too.
+	public static void read(File file, Viewport target) throws NullPointerException, IllegalArgumentException, IOException
+	{
+		if(file == null || target == null)
+		{
+			throw new NullPointerException("The parameters 'file' and 'target' cannot be null.\nAre you sure, you gave the snapshot a file and a Viewport to restore it into?");
+		}
+
+		new SnapshotReader().read(file, target);
+	}
+
+	// Restores the given file into a new offscreen Viewport (see 'new Viewport()').
+	public static Viewport read(File file) throws NullPointerException, IllegalArgumentException, IOException
+	{
+		Viewport viewport = new Viewport();
+
+		read(file, viewport);
+
+		return viewport;
+	}
+
+	// Registers a design under the given name, so components and layers using it can be stored.
+	// The design needs to be registered under the same name again before such a snapshot is restored.
+	public static void registerDesign(String name, Design design) throws NullPointerException
+	{
+		if(name == null || design == null)
+		{
+			throw new NullPointerException("The parameters 'name' and 'design' cannot be null.\nAre you sure, you gave the design a name?");
+		}
+
+		designs.put(name, design);
+	}
+
+	// Registers a text backend under the given name, so fonts using it can be stored (see 'Font.setTextBackend(...)').
+	public static void registerTextBackend(String name, TextBackend textBackend) throws NullPointerException
+	{
+		if(name == null || textBackend == null)
+		{
+			throw new NullPointerException("The parameters 'name' and 'textBackend' cannot be null.\nAre you sure, you gave the text backend a name?");
+		}
+
+		textBackends.put(name, textBackend);
+	}
+
+	static Design getDesign(String name) throws IllegalArgumentException
+	{
+		Design design = designs.get(name);
+
+		if(design == null)
+		{
+			throw new IllegalArgumentException("The snapshot uses the design \"" + name + "\" which is not registered!\nRegister it with 'SceneSnapshot.registerDesign(...)' before restoring the snapshot.");
+		}
+
+		return design;
+	}
+
+	static TextBackend getTextBackend(String name) throws IllegalArgumentException
+	{
+		TextBackend textBackend = textBackends.get(name);
+
+		if(textBackend == null)
+		{
+			throw new IllegalArgumentException("The snapshot uses the text backend \"" + name + "\" which is not registered!\nRegister it with 'SceneSnapshot.registerTextBackend(...)' before restoring the snapshot.");
+		}
+
+		return textBackend;
+	}
+
+	// There are only a few designs and text backends, so they are simply looked up one by one.
+	static String getDesignName(Design design) throws IllegalArgumentException
+	{
+		String name = getName(designs, design);
+
+		if(name == null)
+		{
+			throw new IllegalArgumentException("The design " + design.getClass().getSimpleName() + " is not registered!\nRegister it with 'SceneSnapshot.registerDesign(...)' before writing a snapshot.");
+		}
+
+		return name;
+	}
+
+	static String getTextBackendName(TextBackend textBackend) throws IllegalArgumentException
+	{
+		String name = getName(textBackends, textBackend);
+
+		if(name == null)
+		{
+			throw new IllegalArgumentException("The text backend " + textBackend.getClass().getSimpleName() + " is not registered!\nRegister it with 'SceneSnapshot.registerTextBackend(...)' before writing a snapshot.");
+		}
+
+		return name;
+	}
+
+	private static <T> String getName(Map<String, T> registry, T resource)
+	{
+		for(Map.Entry<String, T> entry : registry.entrySet())
+		{
+			if(entry.getValue() == resource)
+			{
+				return entry.getKey();
+			}
+		}
+
+		return null;
+	}
+}
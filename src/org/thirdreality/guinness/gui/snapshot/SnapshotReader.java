@@ -0,0 +1,658 @@
+package org.thirdreality.guinness.gui.snapshot;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.thirdreality.guinness.feature.image.ImageToolkit;
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.component.GComponent;
+import org.thirdreality.guinness.gui.component.GLogic;
+import org.thirdreality.guinness.gui.component.decoration.GImage;
+import org.thirdreality.guinness.gui.component.decoration.GRectangle;
+import org.thirdreality.guinness.gui.component.input.GTextfield;
+import org.thirdreality.guinness.gui.component.placeholder.GWindow;
+import org.thirdreality.guinness.gui.component.selection.GCheckbox;
+import org.thirdreality.guinness.gui.component.selection.list.GSelectionBox;
+import org.thirdreality.guinness.gui.component.selection.list.GSelectionOption;
+import org.thirdreality.guinness.gui.component.standard.GButton;
+import org.thirdreality.guinness.gui.component.standard.GDescription;
+import org.thirdreality.guinness.gui.component.standard.GPolyButton;
+import org.thirdreality.guinness.gui.component.style.GStyle;
+import org.thirdreality.guinness.gui.component.style.property.GBorderProperty;
+import org.thirdreality.guinness.gui.design.Design;
+import org.thirdreality.guinness.gui.font.Font;
+import org.thirdreality.guinness.gui.layer.GLayer;
+import org.thirdreality.guinness.handler.EventHandler;
+
+// Restores a Viewport from a snapshot file (see 'SceneSnapshot' and 'SnapshotWriter' for the layout).
+// The file is mapped into memory, so the values are read directly from the page cache of the operating system without any stream in between.
+// The components are created by their constructors, so they are valid just like new components, and their styles are set to the stored values afterwards.
+// Every layer receives all its components at once (see 'GLayer.addAllUnchecked(...)'), as they were checked when they were added before.
+class SnapshotReader
+{
+	// The smallest amount of bytes an element can take in the file, used to reject amounts which cannot be right (see 'checkCount(...)').
+	// A layer contains at least its priority, flags, design and size, a component at least its type and a selection option at least its title and two flags.
+	private static final int MIN_LAYER_BYTES = 13, MIN_COMPONENT_BYTES = 4, MIN_OPTION_BYTES = 6;
+
+	// Images are scaled to the stored sizes when they are restored, so a damaged size could allocate gigabytes.
+	// No screen displays an image with a longer side than this anyway.
+	private static final int MAX_IMAGE_SIZE_PX = 16384;
+
+	private ByteBuffer buffer;
+
+	// All resources read yet, in the order they were written.
+	private final ArrayList<String> strings = new ArrayList<String>();
+
+	private final ArrayList<Font> fonts = new ArrayList<Font>();
+
+	private final ArrayList<Image> images = new ArrayList<Image>();
+
+	// The Viewports of the windows receive the mouse detection of the Viewport they are restored into.
+	private EventHandler eventHandler;
+
+	void read(File file, Viewport target) throws IllegalArgumentException, IOException
+	{
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		try
+		{
+			// The mapping stays valid after the channel was closed.
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally
+		{
+			channel.close();
+		}
+
+		if(buffer.remaining() < 8 || buffer.getInt() != SceneSnapshot.MAGIC)
+		{
+			throw new IllegalArgumentException("The file " + file + " is not a snapshot!\nMake sure you have specified a file which was written by 'SceneSnapshot.write(...)'.");
+		}
+
+		int version = buffer.getInt();
+
+		if(version <= 0 || version > SceneSnapshot.VERSION)
+		{
+			throw new IllegalArgumentException("The snapshot " + file + " has the version " + version + " which is not supported!\nOnly snapshots up to version " + SceneSnapshot.VERSION + " can be restored.");
+		}
+
+		eventHandler = target.getEventHandler();
+
+		ViewportValues values;
+
+		try
+		{
+			values = readViewport();
+		}
+		catch(BufferUnderflowException | IndexOutOfBoundsException | NullPointerException e)
+		{
+			throw new IllegalArgumentException("The snapshot " + file + " is incomplete or damaged and cannot be restored!", e);
+		}
+
+		// Nothing was attached to the target yet, so a snapshot which cannot be restored leaves the target unchanged.
+		attach(values, target);
+	}
+
+	// Reads the values of a Viewport without attaching them to any Viewport yet (see 'attach(...)').
+	private ViewportValues readViewport() throws IllegalArgumentException
+	{
+		ViewportValues values = new ViewportValues();
+
+		values.offset = readPoint();
+		values.scale = buffer.getFloat();
+
+		int layers = readCount(MIN_LAYER_BYTES);
+
+		values.layers = new ArrayList<GLayer>(layers);
+
+		for(int i = 0; i < layers; i++)
+		{
+			values.layers.add(readLayer());
+		}
+
+		int windows = readCount(MIN_COMPONENT_BYTES);
+
+		values.windows = new ArrayList<GWindow>(windows);
+
+		for(int i = 0; i < windows; i++)
+		{
+			GComponent component = readComponent();
+
+			if(!(component instanceof GWindow))
+			{
+				throw new IllegalArgumentException("The snapshot contains a component of the type \"" + component.getType() + "\" where a window was expected!\nThe snapshot is damaged and cannot be restored.");
+			}
+
+			GWindow window = (GWindow) component;
+
+			if(buffer.get() != 0)
+			{
+				// The Viewport of a window is new, so it can receive its values right away.
+				Viewport viewport = new Viewport(eventHandler, true);
+
+				attach(readViewport(), viewport);
+
+				window.setViewport(viewport);
+			}
+
+			values.windows.add(window);
+		}
+
+		return values;
+	}
+
+	// Adds the read layers and windows to the given Viewport.
+	// Everything which could make adding them fail is checked first, so the Viewport is either restored completely or not changed at all.
+	private void attach(ViewportValues values, Viewport target) throws IllegalArgumentException
+	{
+		for(int i = 0; i < values.layers.size(); i++)
+		{
+			int priority = values.layers.get(i).getPriority();
+
+			boolean used = priority < 0;
+
+			for(int j = 0; j < i && !used; j++)
+			{
+				used = values.layers.get(j).getPriority() == priority;
+			}
+
+			for(GLayer layer : target.getLayers())
+			{
+				used |= layer.getPriority() == priority;
+			}
+
+			if(used)
+			{
+				throw new IllegalArgumentException("The snapshot contains a layer with the priority " + priority + " which is invalid or used already by the Viewport it is restored into!");
+			}
+		}
+
+		if(!values.windows.isEmpty() && target.getWindowManager() == null)
+		{
+			throw new IllegalArgumentException("The snapshot contains windows, but the Viewport it is restored into has no window manager (see 'Viewport.getWindowManager()') !");
+		}
+
+		target.setOffset(values.offset);
+		target.setScale(values.scale);
+
+		for(GLayer layer : values.layers)
+		{
+			target.addLayer(layer);
+		}
+
+		for(GWindow window : values.windows)
+		{
+			target.getWindowManager().addWindow(window);
+		}
+	}
+
+	private GLayer readLayer() throws IllegalArgumentException
+	{
+		int priority = buffer.getInt();
+		int flags = buffer.get();
+		Design design = readDesign();
+
+		GLayer layer = design == null ? new GLayer(priority, (flags & SceneSnapshot.LAYER_VISIBLE) != 0) : new GLayer(priority, (flags & SceneSnapshot.LAYER_VISIBLE) != 0, design);
+
+		// The layer is still empty, so the restored values of the components are not overwritten.
+		layer.setEnabled((flags & SceneSnapshot.LAYER_ENABLED) != 0);
+		layer.setCached((flags & SceneSnapshot.LAYER_CACHED) != 0);
+
+		int size = readCount(MIN_COMPONENT_BYTES);
+
+		ArrayList<GComponent> components = new ArrayList<GComponent>(size);
+
+		for(int i = 0; i < size; i++)
+		{
+			components.add(readComponent());
+		}
+
+		layer.addAllUnchecked(components);
+
+		return layer;
+	}
+
+	private GComponent readComponent() throws IllegalArgumentException
+	{
+		String type = readString();
+
+		Boolean enabled = readBoolean();
+
+		StyleValues style = readStyle(type);
+
+		int logicFlags = buffer.get();
+		int delayMs = buffer.getInt();
+
+		GComponent component = createComponent(type, style);
+
+		applyStyle(component, style);
+
+		if(enabled != null)
+		{
+			component.setEnabled(enabled);
+		}
+
+		GLogic logic = component.getLogic();
+
+		logic.setFocusable((logicFlags & SceneSnapshot.LOGIC_FOCUSABLE) != 0);
+		logic.setInteractable((logicFlags & SceneSnapshot.LOGIC_INTERACTABLE) != 0);
+		logic.setActionOnClick((logicFlags & SceneSnapshot.LOGIC_CLICK) != 0);
+		logic.setActionOnHover((logicFlags & SceneSnapshot.LOGIC_HOVER) != 0);
+		logic.setMultithreading((logicFlags & SceneSnapshot.LOGIC_MULTITHREADING) != 0);
+		logic.setDoubleClickingAllowed((logicFlags & SceneSnapshot.LOGIC_DOUBLE_CLICKING) != 0);
+		logic.setDelayMs(delayMs);
+
+		return component;
+	}
+
+	// Creates the component by its constructor, the values of its type (e.g. the title of a button) are read here.
+	private GComponent createComponent(String type, StyleValues style) throws IllegalArgumentException
+	{
+		Rectangle bounds = style.primaryLook == null ? new Rectangle() : style.primaryLook.getBounds();
+
+		if(type.contentEquals("rectangle"))
+		{
+			return new GRectangle(bounds.x, bounds.y, bounds.getSize(), Color.BLACK, 1f);
+		}
+		else if(type.contentEquals("image"))
+		{
+			if(style.image == null)
+			{
+				throw new IllegalArgumentException("The snapshot contains a GImage without an image!");
+			}
+
+			return new GImage(style.location, bounds.getSize(), style.image);
+		}
+		else if(type.contentEquals("button"))
+		{
+			return new GButton(style.location, readString(), style.font);
+		}
+		else if(type.contentEquals("polybutton"))
+		{
+			// The look is replaced by the stored one afterwards.
+			return new GPolyButton(style.location, readString(), style.font, new Polygon());
+		}
+		else if(type.contentEquals("description"))
+		{
+			return new GDescription(style.location, readString(), style.font);
+		}
+		else if(type.contentEquals("textfield"))
+		{
+			String value = readString();
+
+			return new GTextfield(style.location, value, buffer.getInt(), style.font);
+		}
+		else if(type.contentEquals("checkbox"))
+		{
+			// The check sign is scaled to the size of the checkbox, so a damaged size must not allocate a huge image.
+			checkImageSize(bounds.width, bounds.width);
+
+			return new GCheckbox(style.location, buffer.get() != 0, bounds.width);
+		}
+		else if(type.contentEquals("selectionbox"))
+		{
+			return createSelectionBox(style.location);
+		}
+		else if(type.contentEquals("window"))
+		{
+			// The looks of a window are created from its bounds and borders, so they are not replaced afterwards.
+			return new GWindow(readString(), style.font, bounds, style.border, null);
+		}
+
+		throw new IllegalArgumentException("The snapshot contains a component of the unknown type \"" + type + "\" !");
+	}
+
+	private GSelectionBox createSelectionBox(Point location)
+	{
+		int size = readCount(MIN_OPTION_BYTES);
+
+		ArrayList<GSelectionOption> options = new ArrayList<GSelectionOption>(size);
+
+		int selected = -1;
+
+		for(int i = 0; i < size; i++)
+		{
+			options.add(new GSelectionOption(readString(), buffer.get() != 0));
+
+			if(buffer.get() != 0 && selected < 0)
+			{
+				selected = i;
+			}
+		}
+
+		GSelectionBox selectionBox = new GSelectionBox(location, options);
+
+		// The default option is selected by the constructor, so only another selected option needs to be selected again.
+		if(selected >= 0 && !options.get(selected).isChecked())
+		{
+			selectionBox.selectOptionAt(selected);
+		}
+
+		return selectionBox;
+	}
+
+	private void applyStyle(GComponent component, StyleValues values)
+	{
+		GStyle style = component.getStyle();
+
+		if(values.design != null)
+		{
+			style.setDesign(values.design);
+		}
+
+		if(!(component instanceof GWindow))
+		{
+			// Setting the location moves the look too, but it is replaced afterwards anyway, so only an empty look is moved.
+			style.setPrimaryLook(new Polygon());
+			style.setLocation(values.location);
+			style.setPrimaryLook(values.primaryLook);
+			style.setSecondaryLook(values.secondaryLook);
+		}
+
+		style.setBorderProperties(values.border);
+		style.setFont(values.font);
+		style.setPrimaryColor(values.primaryColor);
+
+		// The opacity is applied to the primary color, so the stored color is set again afterwards.
+		if(values.primaryColor != null && values.opacity != style.getOpacity())
+		{
+			style.setOpacity(values.opacity);
+			style.setPrimaryColor(values.primaryColor);
+		}
+
+		style.setBufferedColor(values.bufferedColor);
+		style.setTextAlign(values.textAlign);
+		style.setTextTransition(values.textTransition);
+		style.setPaddingTop(values.paddingTop);
+		style.setPaddingBottom(values.paddingBottom);
+		style.setMovableForViewport((values.flags & SceneSnapshot.STYLE_MOVABLE) != 0);
+		style.setScalableForViewport((values.flags & SceneSnapshot.STYLE_SCALABLE) != 0);
+
+		if(values.image != null)
+		{
+			style.setImage(values.image);
+		}
+
+		if(values.visible != null)
+		{
+			style.setVisible(values.visible);
+		}
+	}
+
+	private StyleValues readStyle(String type) throws IllegalArgumentException
+	{
+		StyleValues style = new StyleValues();
+
+		style.design = readDesign();
+		style.visible = readBoolean();
+		style.flags = buffer.get();
+
+		style.location = readPoint();
+		style.primaryLook = readPolygon();
+		style.secondaryLook = readPolygon();
+
+		style.textAlign = buffer.getInt();
+		style.textTransition = readPoint();
+		style.paddingTop = buffer.getInt();
+		style.paddingBottom = buffer.getInt();
+		style.opacity = buffer.getFloat();
+		style.primaryColor = readColor();
+		style.bufferedColor = readColor();
+
+		style.border = new GBorderProperty(buffer.getInt(), buffer.getInt());
+
+		Integer radius = readInteger();
+
+		if(radius != null)
+		{
+			style.border.setUpperLeftBorderRadiusPx(radius);
+		}
+
+		radius = readInteger();
+
+		if(radius != null)
+		{
+			style.border.setUpperRightBorderRadiusPx(radius);
+		}
+
+		radius = readInteger();
+
+		if(radius != null)
+		{
+			style.border.setLowerLeftBorderRadiusPx(radius);
+		}
+
+		radius = readInteger();
+
+		if(radius != null)
+		{
+			style.border.setLowerRightBorderRadiusPx(radius);
+		}
+
+		style.font = readFont();
+
+		if(type.contentEquals("image"))
+		{
+			style.image = readImage();
+		}
+
+		return style;
+	}
+
+	private Design readDesign() throws IllegalArgumentException
+	{
+		String name = readString();
+
+		return name == null ? null : SceneSnapshot.getDesign(name);
+	}
+
+	// Every component receives its own copy of the font, just like it had before, so changing the font of one component does not change others.
+	private Font readFont() throws IllegalArgumentException
+	{
+		int reference = buffer.getInt();
+
+		if(reference == SceneSnapshot.NULL_REFERENCE)
+		{
+			return null;
+		}
+
+		if(reference != SceneSnapshot.NEW_REFERENCE)
+		{
+			return fonts.get(reference).copy();
+		}
+
+		Font font = new Font(readString(), readString());
+
+		font.setFontSize(buffer.getInt());
+		font.setFontColor(readColor());
+		font.setTextBackend(SceneSnapshot.getTextBackend(readString()));
+
+		fonts.add(font);
+
+		return font.copy();
+	}
+
+	private Image readImage() throws IllegalArgumentException
+	{
+		int reference = buffer.getInt();
+
+		if(reference == SceneSnapshot.NULL_REFERENCE)
+		{
+			return null;
+		}
+
+		if(reference != SceneSnapshot.NEW_REFERENCE)
+		{
+			return images.get(reference);
+		}
+
+		String path = readString();
+
+		int width = buffer.getInt(), height = buffer.getInt();
+
+		checkImageSize(width, height);
+
+		BufferedImage image = ImageToolkit.loadCachedImage(path);
+
+		if(image == null)
+		{
+			throw new IllegalArgumentException("The image " + path + " of the snapshot cannot be loaded!\nMake sure the file still exists.");
+		}
+
+		// Images which were scaled when they were stored are scaled again, the scaled image is shared by the cache too.
+		if(image.getWidth() != width || image.getHeight() != height)
+		{
+			image = ImageToolkit.loadCachedImage(path, width, height);
+		}
+
+		images.add(image);
+
+		return image;
+	}
+
+	private String readString()
+	{
+		int reference = buffer.getInt();
+
+		if(reference == SceneSnapshot.NULL_REFERENCE)
+		{
+			return null;
+		}
+
+		if(reference != SceneSnapshot.NEW_REFERENCE)
+		{
+			return strings.get(reference);
+		}
+
+		byte[] bytes = new byte[readCount(1)];
+
+		buffer.get(bytes);
+
+		String value = new String(bytes, StandardCharsets.UTF_8);
+
+		strings.add(value);
+
+		return value;
+	}
+
+	private Boolean readBoolean()
+	{
+		byte value = buffer.get();
+
+		return value == SceneSnapshot.UNASSIGNED ? null : Boolean.valueOf(value == SceneSnapshot.TRUE);
+	}
+
+	private Integer readInteger()
+	{
+		return buffer.get() != 0 ? Integer.valueOf(buffer.getInt()) : null;
+	}
+
+	private Color readColor()
+	{
+		return buffer.get() != 0 ? new Color(buffer.getInt(), true) : null;
+	}
+
+	private Point readPoint()
+	{
+		int x = buffer.getInt();
+
+		return new Point(x, buffer.getInt());
+	}
+
+	// Reads the amount of the following elements (see 'checkCount(...)').
+	private int readCount(int minimumBytes) throws IllegalArgumentException
+	{
+		int count = buffer.getInt();
+
+		checkCount(count, minimumBytes);
+
+		return count;
+	}
+
+	// Makes sure the rest of the file can contain the given amount of elements at all, before anything is allocated for them.
+	// Otherwise a damaged amount could allocate huge or negative arrays.
+	private void checkCount(int count, int minimumBytes) throws IllegalArgumentException
+	{
+		if(count < 0 || (long) count * minimumBytes > buffer.remaining())
+		{
+			throw new IllegalArgumentException("The snapshot announces " + count + " elements which do not fit into the rest of the file!\nThe snapshot is incomplete or damaged and cannot be restored.");
+		}
+	}
+
+	private void checkImageSize(int width, int height) throws IllegalArgumentException
+	{
+		if(width <= 0 || height <= 0 || width > MAX_IMAGE_SIZE_PX || height > MAX_IMAGE_SIZE_PX)
+		{
+			throw new IllegalArgumentException("The snapshot contains an image of " + width + "x" + height + " px which cannot be restored!\nThe snapshot is damaged or the image is bigger than " + MAX_IMAGE_SIZE_PX + " px on one side.");
+		}
+	}
+
+	// Both coordinate arrays are read as a whole instead of number by number.
+	private Polygon readPolygon()
+	{
+		int npoints = buffer.getInt();
+
+		if(npoints == SceneSnapshot.NULL_REFERENCE)
+		{
+			return null;
+		}
+
+		checkCount(npoints, 2 * Integer.BYTES);
+
+		int[] xpoints = new int[npoints], ypoints = new int[npoints];
+
+		buffer.asIntBuffer().get(xpoints).get(ypoints);
+
+		buffer.position(buffer.position() + 2 * Integer.BYTES * npoints);
+
+		return new Polygon(xpoints, ypoints, npoints);
+	}
+
+	// The read values of a Viewport, which are attached to a Viewport afterwards (see 'attach(...)').
+	private static final class ViewportValues
+	{
+		private Point offset;
+
+		private float scale;
+
+		private ArrayList<GLayer> layers;
+
+		private ArrayList<GWindow> windows;
+	}
+
+	// The stored values of a style, which are applied after the component was created (see 'applyStyle(...)').
+	private static final class StyleValues
+	{
+		private Design design;
+
+		private Boolean visible;
+
+		private int flags, textAlign, paddingTop, paddingBottom;
+
+		private Point location, textTransition;
+
+		private Polygon primaryLook, secondaryLook;
+
+		private float opacity;
+
+		private Color primaryColor, bufferedColor;
+
+		private GBorderProperty border;
+
+		private Font font;
+
+		private Image image;
+	}
+}
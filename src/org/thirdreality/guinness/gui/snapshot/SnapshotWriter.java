@@ -0,0 +1,511 @@
+package org.thirdreality.guinness.gui.snapshot;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Polygon;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+
+import org.thirdreality.guinness.feature.image.ImageToolkit;
+import org.thirdreality.guinness.gui.Viewport;
+import org.thirdreality.guinness.gui.component.GComponent;
+import org.thirdreality.guinness.gui.component.GLogic;
+import org.thirdreality.guinness.gui.component.decoration.GImage;
+import org.thirdreality.guinness.gui.component.decoration.GRectangle;
+import org.thirdreality.guinness.gui.component.input.GTextfield;
+import org.thirdreality.guinness.gui.component.placeholder.GWindow;
+import org.thirdreality.guinness.gui.component.selection.GCheckbox;
+import org.thirdreality.guinness.gui.component.selection.list.GSelectionBox;
+import org.thirdreality.guinness.gui.component.selection.list.GSelectionOption;
+import org.thirdreality.guinness.gui.component.standard.GButton;
+import org.thirdreality.guinness.gui.component.standard.GDescription;
+import org.thirdreality.guinness.gui.component.standard.GPolyButton;
+import org.thirdreality.guinness.gui.component.style.GStyle;
+import org.thirdreality.guinness.gui.component.style.property.GBorderProperty;
+import org.thirdreality.guinness.gui.design.Design;
+import org.thirdreality.guinness.gui.font.Font;
+import org.thirdreality.guinness.gui.layer.GLayer;
+
+// Writes a Viewport into a snapshot file (see 'SceneSnapshot').
+// All numbers are written in big-endian order, just as they are read by a ByteBuffer.
+//
+// Layout:
+// - header: magic, version
+// - viewport: offset, scale, layers, windows
+// - layer: priority, flags, design, components
+// - window: component, Viewport (optional)
+// - component: type, enabled, style, logic, values of the type (e.g. the title of a button)
+class SnapshotWriter
+{
+	// The standard class of every component type, components of other classes are rejected.
+	private static final HashMap<String, Class<? extends GComponent>> types = new HashMap<String, Class<? extends GComponent>>();
+
+	static
+	{
+		types.put("rectangle", GRectangle.class);
+		types.put("image", GImage.class);
+		types.put("button", GButton.class);
+		types.put("polybutton", GPolyButton.class);
+		types.put("description", GDescription.class);
+		types.put("textfield", GTextfield.class);
+		types.put("checkbox", GCheckbox.class);
+		types.put("selectionbox", GSelectionBox.class);
+		types.put("window", GWindow.class);
+	}
+
+	// Windows are restored in this order, so every window ends up in front of the windows restored before, just as it was.
+	private static final Comparator<GLayer> windowOrder = new Comparator<GLayer>()
+	{
+		@Override
+		public int compare(GLayer a, GLayer b)
+		{
+			return Integer.compare(a.getPriority(), b.getPriority());
+		}
+	};
+
+	private DataOutputStream out;
+
+	// The indices of all resources written yet.
+	private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+	private final HashMap<FontKey, Integer> fonts = new HashMap<FontKey, Integer>();
+
+	private final IdentityHashMap<Image, Integer> images = new IdentityHashMap<Image, Integer>();
+
+	// Every component has its own Font, so fonts are compared by their values. This key is only used for lookups.
+	private final FontKey lookup = new FontKey();
+
+	// The snapshot is written into a temporary file in the same directory first, which then replaces the given file.
+	// So if writing fails (e.g. because of an unsupported component), an existing snapshot is kept as it was and never left half-written.
+	void write(Viewport viewport, File file) throws IllegalArgumentException, IOException
+	{
+		File target = file.getAbsoluteFile();
+
+		File temp = Files.createTempFile(target.getParentFile().toPath(), "." + target.getName() + "-", ".tmp").toFile();
+
+		boolean written = false;
+
+		try
+		{
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16));
+
+			try
+			{
+				out.writeInt(SceneSnapshot.MAGIC);
+				out.writeInt(SceneSnapshot.VERSION);
+
+				writeViewport(viewport);
+			}
+			finally
+			{
+				out.close();
+			}
+
+			try
+			{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch(AtomicMoveNotSupportedException e)
+			{
+				// Some file systems cannot replace a file atomically, then it is at least replaced by the complete snapshot.
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			written = true;
+		}
+		finally
+		{
+			if(!written)
+			{
+				Files.deleteIfExists(temp.toPath());
+			}
+		}
+	}
+
+	private void writeViewport(Viewport viewport) throws IOException
+	{
+		out.writeInt(viewport.getOffset().x);
+		out.writeInt(viewport.getOffset().y);
+		out.writeFloat(viewport.getScale());
+
+		// The windows are written separately, as their layers are created by the window manager again.
+		List<GLayer> windowLayers = viewport.getWindowManager() == null ? Collections.<GLayer> emptyList() : new ArrayList<GLayer>(viewport.getWindowManager().getWindows());
+
+		IdentityHashMap<GLayer, Boolean> isWindowLayer = new IdentityHashMap<GLayer, Boolean>();
+
+		for(GLayer windowLayer : windowLayers)
+		{
+			isWindowLayer.put(windowLayer, Boolean.TRUE);
+		}
+
+		List<GLayer> layers = new ArrayList<GLayer>();
+
+		for(GLayer layer : viewport.getLayers())
+		{
+			if(!isWindowLayer.containsKey(layer))
+			{
+				layers.add(layer);
+			}
+		}
+
+		out.writeInt(layers.size());
+
+		for(GLayer layer : layers)
+		{
+			writeLayer(layer);
+		}
+
+		Collections.sort(windowLayers, windowOrder);
+
+		out.writeInt(windowLayers.size());
+
+		for(GLayer windowLayer : windowLayers)
+		{
+			GWindow window = (GWindow) windowLayer.getComponentBuffer().get(0);
+
+			writeComponent(window);
+
+			out.writeBoolean(window.hasViewport());
+
+			if(window.hasViewport())
+			{
+				writeViewport(window.getViewport());
+			}
+		}
+	}
+
+	private void writeLayer(GLayer layer) throws IOException
+	{
+		out.writeInt(layer.getPriority());
+		out.writeByte((layer.isVisible() ? SceneSnapshot.LAYER_VISIBLE : 0) | (layer.isEnabled() ? SceneSnapshot.LAYER_ENABLED : 0) | (layer.isCached() ? SceneSnapshot.LAYER_CACHED : 0));
+		writeDesign(layer.getDesign());
+
+		// The list is copied once, so the count always fits the components which are written.
+		Object[] components = layer.getComponentBuffer().toArray();
+
+		out.writeInt(components.length);
+
+		for(Object component : components)
+		{
+			writeComponent((GComponent) component);
+		}
+	}
+
+	private void writeComponent(GComponent component) throws IllegalArgumentException, IOException
+	{
+		String type = component.getType();
+
+		if(types.get(type) != component.getClass())
+		{
+			throw new IllegalArgumentException("The component " + component.getClass().getSimpleName() + " (type: \"" + type + "\") cannot be stored in a snapshot!\nOnly the standard components are supported, as other classes would be restored as standard components.");
+		}
+
+		writeString(type);
+		writeBoolean(component.isEnabled());
+		writeStyle(component.getStyle(), type);
+		writeLogic(component.getLogic());
+
+		if(component instanceof GButton)
+		{
+			writeString(((GButton) component).getTitle());
+		}
+		else if(component instanceof GPolyButton)
+		{
+			writeString(((GPolyButton) component).getTitle());
+		}
+		else if(component instanceof GDescription)
+		{
+			writeString(((GDescription) component).getTitle());
+		}
+		else if(component instanceof GTextfield)
+		{
+			writeString(((GTextfield) component).getValueManager().getValue());
+			out.writeInt(((GTextfield) component).getValueManager().getMaxLength());
+		}
+		else if(component instanceof GCheckbox)
+		{
+			out.writeBoolean(((GCheckbox) component).isChecked());
+		}
+		else if(component instanceof GSelectionBox)
+		{
+			List<GSelectionOption> options = ((GSelectionBox) component).getOptions();
+
+			out.writeInt(options.size());
+
+			for(GSelectionOption option : options)
+			{
+				writeString(option.getValue());
+				out.writeBoolean(option.isDefaultOption());
+				out.writeBoolean(option.isChecked());
+			}
+		}
+		else if(component instanceof GWindow)
+		{
+			writeString(((GWindow) component).getTitle());
+		}
+	}
+
+	private void writeStyle(GStyle style, String type) throws IllegalArgumentException, IOException
+	{
+		writeDesign(style.getDesign());
+		writeBoolean(style.isVisible());
+		out.writeByte((style.isMovableForViewport() ? SceneSnapshot.STYLE_MOVABLE : 0) | (style.isScalableForViewport() ? SceneSnapshot.STYLE_SCALABLE : 0));
+
+		writePoint(style.getLocation());
+		writePolygon(style.getPrimaryLook());
+		writePolygon(style.getSecondaryLook());
+
+		out.writeInt(style.getTextAlign());
+		writePoint(style.getTextTransition());
+		out.writeInt(style.getPaddingTop());
+		out.writeInt(style.getPaddingBottom());
+		out.writeFloat(style.getOpacity());
+		writeColor(style.getPrimaryColor());
+		writeColor(style.getBufferedColor());
+
+		GBorderProperty border = style.getBorderProperties();
+
+		out.writeInt(border.getBorderRadiusPx());
+		out.writeInt(border.getBorderThicknessPx());
+		writeInteger(border.getUpperLeftBorderRadiusPx());
+		writeInteger(border.getUpperRightBorderRadiusPx());
+		writeInteger(border.getLowerLeftBorderRadiusPx());
+		writeInteger(border.getLowerRightBorderRadiusPx());
+
+		writeFont(style.getFont());
+
+		// The icons of check-boxes and selection boxes are loaded by the components themselves, so only the content of images is needed.
+		if(type.contentEquals("image"))
+		{
+			writeImage(style.getImage());
+		}
+	}
+
+	private void writeLogic(GLogic logic) throws IOException
+	{
+		int flags = 0;
+
+		flags |= logic.isFocusable() ? SceneSnapshot.LOGIC_FOCUSABLE : 0;
+		flags |= logic.isInteractionAllowed() ? SceneSnapshot.LOGIC_INTERACTABLE : 0;
+		flags |= logic.isActingOnClick() ? SceneSnapshot.LOGIC_CLICK : 0;
+		flags |= logic.isActingOnHover() ? SceneSnapshot.LOGIC_HOVER : 0;
+		flags |= logic.isMultithreadingOn() ? SceneSnapshot.LOGIC_MULTITHREADING : 0;
+		flags |= logic.isDoubleClickingAllowed() ? SceneSnapshot.LOGIC_DOUBLE_CLICKING : 0;
+
+		out.writeByte(flags);
+		out.writeInt(logic.getDelayMs());
+	}
+
+	private void writeDesign(Design design) throws IllegalArgumentException, IOException
+	{
+		writeString(design == null ? null : SceneSnapshot.getDesignName(design));
+	}
+
+	private void writeFont(Font font) throws IllegalArgumentException, IOException
+	{
+		if(font == null)
+		{
+			out.writeInt(SceneSnapshot.NULL_REFERENCE);
+
+			return;
+		}
+
+		String textBackend = SceneSnapshot.getTextBackendName(font.getTextBackend());
+
+		Integer index = fonts.get(lookup.set(font, textBackend));
+
+		if(index != null)
+		{
+			out.writeInt(index);
+
+			return;
+		}
+
+		fonts.put(new FontKey().set(font, textBackend), fonts.size());
+
+		out.writeInt(SceneSnapshot.NEW_REFERENCE);
+
+		writeString(font.getName());
+		writeString(font.getFile().getPath());
+		out.writeInt(font.getFontSize());
+		writeColor(font.getFontColor());
+		writeString(textBackend);
+	}
+
+	private void writeImage(Image image) throws IllegalArgumentException, IOException
+	{
+		if(image == null)
+		{
+			out.writeInt(SceneSnapshot.NULL_REFERENCE);
+
+			return;
+		}
+
+		Integer index = images.get(image);
+
+		if(index != null)
+		{
+			out.writeInt(index);
+
+			return;
+		}
+
+		String path = ImageToolkit.getImageCache().getPath(image);
+
+		if(path == null)
+		{
+			throw new IllegalArgumentException("An image cannot be stored in a snapshot because its file is unknown!\nLoad the images of GImages by 'ImageToolkit.loadCachedImage(...)', so they can be stored by their files.");
+		}
+
+		images.put(image, images.size());
+
+		out.writeInt(SceneSnapshot.NEW_REFERENCE);
+
+		writeString(path);
+		out.writeInt(image.getWidth(null));
+		out.writeInt(image.getHeight(null));
+	}
+
+	private void writeString(String value) throws IOException
+	{
+		if(value == null)
+		{
+			out.writeInt(SceneSnapshot.NULL_REFERENCE);
+
+			return;
+		}
+
+		Integer index = strings.get(value);
+
+		if(index != null)
+		{
+			out.writeInt(index);
+
+			return;
+		}
+
+		strings.put(value, strings.size());
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		out.writeInt(SceneSnapshot.NEW_REFERENCE);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeBoolean(Boolean value) throws IOException
+	{
+		out.writeByte(value == null ? SceneSnapshot.UNASSIGNED : (value ? SceneSnapshot.TRUE : SceneSnapshot.FALSE));
+	}
+
+	private void writeInteger(Integer value) throws IOException
+	{
+		out.writeBoolean(value != null);
+
+		if(value != null)
+		{
+			out.writeInt(value);
+		}
+	}
+
+	private void writeColor(Color color) throws IOException
+	{
+		out.writeBoolean(color != null);
+
+		if(color != null)
+		{
+			out.writeInt(color.getRGB());
+		}
+	}
+
+	private void writePoint(Point point) throws IOException
+	{
+		out.writeInt(point == null ? 0 : point.x);
+		out.writeInt(point == null ? 0 : point.y);
+	}
+
+	// The x-coordinates are written first and the y-coordinates afterwards, so both can be read as a whole (see 'SnapshotReader.readPolygon()').
+	private void writePolygon(Polygon polygon) throws IOException
+	{
+		if(polygon == null)
+		{
+			out.writeInt(SceneSnapshot.NULL_REFERENCE);
+
+			return;
+		}
+
+		out.writeInt(polygon.npoints);
+
+		for(int i = 0; i < polygon.npoints; i++)
+		{
+			out.writeInt(polygon.xpoints[i]);
+		}
+
+		for(int i = 0; i < polygon.npoints; i++)
+		{
+			out.writeInt(polygon.ypoints[i]);
+		}
+	}
+
+	// Identifies a font by everything which is stored of it.
+	private static final class FontKey
+	{
+		private String name, file, textBackend;
+
+		private int fontSize;
+
+		private Color fontColor;
+
+		private FontKey set(Font font, String textBackend)
+		{
+			this.name = font.getName();
+			this.file = font.getFile().getPath();
+			this.textBackend = textBackend;
+			this.fontSize = font.getFontSize();
+			this.fontColor = font.getFontColor();
+
+			return this;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = name.hashCode();
+
+			hash = 31 * hash + file.hashCode();
+			hash = 31 * hash + textBackend.hashCode();
+			hash = 31 * hash + fontSize;
+			hash = 31 * hash + Objects.hashCode(fontColor);
+
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(!(obj instanceof FontKey))
+			{
+				return false;
+			}
+
+			FontKey other = (FontKey) obj;
+
+			return fontSize == other.fontSize && Objects.equals(fontColor, other.fontColor) && name.equals(other.name) && file.equals(other.file) && textBackend.equals(other.textBackend);
+		}
+	}
+}
@@ -5,11 +5,14 @@ import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.thirdreality.guinness.exec.LoopedThread;
 import org.thirdreality.guinness.exec.ThreadManager;
-import org.thirdreality.guinness.feature.GIPoint;
+import org.thirdreality.guinness.feature.GITransform;
 import org.thirdreality.guinness.feature.Timer;
 import org.thirdreality.guinness.feature.shape.ShapeTransform;
 import org.thirdreality.guinness.gui.Display;
@@ -21,6 +24,10 @@ import org.thirdreality.guinness.gui.component.placeholder.window.GWindowButton;
 import org.thirdreality.guinness.gui.component.selection.GCheckbox;
 import org.thirdreality.guinness.gui.component.selection.list.GSelectionBox;
 import org.thirdreality.guinness.handler.componenthandler.ComponentSession;
+import org.thirdreality.guinness.handler.componenthandler.InputQueue;
+import org.thirdreality.guinness.handler.componenthandler.UserInput;
+import org.thirdreality.guinness.metrics.Histogram;
+import org.thirdreality.guinness.metrics.Metrics;
 
 public class ComponentHandler
 {
@@ -32,11 +39,47 @@ public class ComponentHandler
 	// interactions etc.
 	private LoopedThread handler = null;
 
+	// The handler thread runs at most this often per second while there is user input.
+	public static final double HANDLER_TICK_RATE_HZ = 120;
+
+	// The maximum amount of inputs which are processed in one tick of the handler thread.
+	// The remaining inputs are processed in the next tick, so layer changes are not delayed too long.
+	public static final int INPUT_BATCH_SIZE = 64;
+
+	// Without user input, the handler thread only runs this often to catch changes under a resting cursor,
+	// e.g. when the offset of the Viewport changes.
+	// Limitation: such changes do not signal the handler thread, so they are noticed up to this long after they happened.
+	// Signalling every style change would wake the thread again and again while a hovered component changes its own style.
+	// Only passing delays signal the thread themselves (see 'delay(...)'), so held or resting actions are still repeated in time.
+	public static final long HANDLER_MAX_SLEEP_MS = 250;
+
 	private Display display;
 
 	private CopyOnWriteArrayList<Viewport> simulatedViewports;
 
 	private ThreadManager hoverTManager, clickTManager;	
+
+	// Receives all user inputs from the Mouse- and KeyAdapter (see 'EventHandler').
+	private InputQueue inputQueue;
+
+	// The state of the mouse after the inputs which were processed yet.
+	// It is kept apart from the MouseAdapter, as the MouseAdapter might already know about newer inputs.
+	private Point inputLocation = new Point(0, 0);
+
+	private boolean inputClicking = false;
+	
+	// Records how long every iteration of the 'handler'-thread takes (see 'Metrics.HANDLER_LOOP').
+	private final Histogram loopHistogram = Metrics.getHistogram(Metrics.HANDLER_LOOP);
+	
+	// Transforms locations into the space of a Viewport without creating any objects.
+	// It is only used by the 'handler'-thread.
+	private final GITransform transform = new GITransform();
+	
+	// Contain all components which are waiting for their delay (see 'GLogic.getDelayMs()') to pass, one set for every kind of action.
+	// Their actions are not triggered again until then, while the 'handler'-thread keeps on handling all other components.
+	// Hovering and clicking are delayed apart from each other, otherwise hovering a component would always suppress its click.
+	private final Set<GComponent> delayedHovers = Collections.newSetFromMap(new ConcurrentHashMap<GComponent, Boolean>());
+	private final Set<GComponent> delayedClicks = Collections.newSetFromMap(new ConcurrentHashMap<GComponent, Boolean>());
 	
 	// This stores all sessions of necessary components which have their own component handling but want it being managed through one "main thread", meaning this class.
 	// Using sessions can save here the use of too many threads because one thread takes over multiple component sessions.
@@ -62,11 +105,26 @@ public class ComponentHandler
 			@Override
 			public void loop()
 			{
+				long loopStart = Metrics.isEnabled() ? System.nanoTime() : 0;
+
 				updateChangedLayers(display.getViewport());
 
-				triggerComponent(display.getViewport());
+				processInputs(display.getViewport());
+
+				if(loopStart != 0)
+				{
+					loopHistogram.recordSince(loopStart);
+				}
 			}
 		};
+
+		inputQueue = new InputQueue(handler);
+
+		registerGauges();
+
+		// The handler thread sleeps until a user input is queued.
+		handler.setTickRate(HANDLER_TICK_RATE_HZ, LoopedThread.TickPolicy.FIXED_RATE);
+		handler.setSleepingUntilSignalled(true, HANDLER_MAX_SLEEP_MS);
 		
 		sessions = new ArrayList<ComponentSession>();
 		
@@ -76,6 +134,53 @@ public class ComponentHandler
 		sessions.add(new ComponentSession());
 	}
 
+	// Makes the queue depths of the ThreadManagers and of the input queue available through the metrics (see 'Metrics.getGauges()').
+	// A ComponentHandler which is created later replaces the gauges of the previous one.
+	private void registerGauges()
+	{
+		registerGauges("threads.click", clickTManager);
+		registerGauges("threads.hover", hoverTManager);
+
+		Metrics.register("handler.inputQueue", new Metrics.Gauge()
+		{
+			@Override
+			public long get()
+			{
+				return inputQueue.getOffered() - inputQueue.getPolled();
+			}
+		});
+	}
+
+	private void registerGauges(String prefix, final ThreadManager manager)
+	{
+		Metrics.register(prefix + ".queued", new Metrics.Gauge()
+		{
+			@Override
+			public long get()
+			{
+				return manager.getQueued();
+			}
+		});
+
+		Metrics.register(prefix + ".running", new Metrics.Gauge()
+		{
+			@Override
+			public long get()
+			{
+				return manager.getRunning();
+			}
+		});
+
+		Metrics.register(prefix + ".rejected", new Metrics.Gauge()
+		{
+			@Override
+			public long get()
+			{
+				return manager.getRejected();
+			}
+		});
+	}
+
 	// Updates selected / marked changes if there are any.
 	// This ensures, all added layers are also displayed later.
 	// This is in the end a safe method, meaning it checks whether 'target' is 'null'.
@@ -91,6 +196,94 @@ public class ComponentHandler
 		}
 	}
 
+	// Processes the queued user inputs one after another, so no click, release or key is missed.
+	// If the handler thread woke up without an input, the components are triggered with the current state once,
+	// e.g. to catch components which were moved below the resting cursor.
+	private void processInputs(Viewport target)
+	{
+		UserInput input = inputQueue.poll();
+
+		if(input == null)
+		{
+			triggerComponent(target, inputLocation, inputClicking, KeyEvent.VK_UNDEFINED);
+
+			return;
+		}
+
+		for(int processed = 0; input != null; processed++)
+		{
+			int keyStroke = KeyEvent.VK_UNDEFINED;
+
+			switch(input.getType())
+			{
+				case MOVE:
+				case RELEASE:
+				{
+					inputLocation = new Point(input.getX(), input.getY());
+					inputClicking = false;
+
+					break;
+				}
+
+				case DRAG:
+				case PRESS:
+				{
+					inputLocation = new Point(input.getX(), input.getY());
+					inputClicking = true;
+
+					break;
+				}
+
+				case EXIT:
+				{
+					inputLocation = new Point(input.getX(), input.getY());
+
+					break;
+				}
+
+				case KEY_PRESS:
+				{
+					keyStroke = input.getKey();
+
+					break;
+				}
+			}
+
+			triggerComponent(target, inputLocation, inputClicking, keyStroke);
+
+			if(processed + 1 == INPUT_BATCH_SIZE)
+			{
+				// Makes sure the remaining inputs are processed in the next tick.
+				if(!inputQueue.isEmpty())
+				{
+					handler.signal();
+				}
+
+				break;
+			}
+
+			input = inputQueue.poll();
+		}
+	}
+
+	// Returns the ThreadManager which runs the click actions of components with multithreading enabled.
+	public ThreadManager getClickThreadManager()
+	{
+		return clickTManager;
+	}
+
+	// Returns the ThreadManager which runs the hover actions of components with multithreading enabled.
+	public ThreadManager getHoverThreadManager()
+	{
+		return hoverTManager;
+	}
+
+	// Returns the queue which receives all user inputs for the handler thread.
+	public InputQueue getInputQueue()
+	{
+		return inputQueue;
+	}
+
 	// Returns the handling thread, so the thread which frequently handles all
 	// components to make them work.
 	public LoopedThread getHandlingThread()
@@ -100,13 +293,14 @@ public class ComponentHandler
 
 	private void executeClick(GComponent execute)
 	{
-		// Make sure, actions are only triggered when they are defined (listener is != null).
-		if(execute.hasActionListener())
+		// Make sure, actions are only triggered when they are defined (listener is != null)
+		// and the component is not waiting for its delay to pass.
+		if(execute.hasActionListener() && !delayedClicks.contains(execute))
 		{
 			if(execute.getLogic().isMultithreadingOn())
 			{
-				Thread t = new Thread() // Run this task parallel so execution doesn't interfere other components or
-				{						// interactions with the UI.
+				Runnable r = new Runnable() // Run this task parallel so execution doesn't interfere other components or
+				{							// interactions with the UI.
 					
 					@Override
 					public void run()
@@ -115,26 +309,27 @@ public class ComponentHandler
 					}
 				};
 
-				clickTManager.fire(t);
+				clickTManager.fire(r);
 			}
 			else
 			{
 				execute.getActionListener().onClick();
 			}
 
-			Timer.pauseMillisecond(execute.getLogic().getDelayMs());
+			delay(execute, delayedClicks);
 		}
 	}
 
 	private void executeHover(GComponent execute)
 	{
-		// Make sure, actions are only triggered when they are defined (listener is != null).
-		if(execute.hasActionListener())
+		// Make sure, actions are only triggered when they are defined (listener is != null)
+		// and the component is not waiting for its delay to pass.
+		if(execute.hasActionListener() && !delayedHovers.contains(execute))
 		{
 			if(execute.getLogic().isMultithreadingOn())
 			{
-				Thread t = new Thread() // Run this task parallel so execution doesn't interfere other components or
-										// interactions with the UI.
+				Runnable r = new Runnable() // Run this task parallel so execution doesn't interfere other components or
+											// interactions with the UI.
 				{
 					@Override
 					public void run()
@@ -143,14 +338,36 @@ public class ComponentHandler
 					}
 				};
 
-				hoverTManager.fire(t);
+				hoverTManager.fire(r);
 			}
 			else
 			{
 				execute.getActionListener().onHover();
 			}
 
-			Timer.pauseMillisecond(execute.getLogic().getDelayMs());
+			delay(execute, delayedHovers);
+		}
+	}
+
+	// Prevents the action of the component from being triggered again until its delay has passed.
+	// The delay is scheduled, so the 'handler'-thread is not blocked meanwhile.
+	// Afterwards the 'handler'-thread is woken up, so an action is repeated after its delay while the cursor rests or the mouse is held.
+	private void delay(GComponent execute, Set<GComponent> delayed)
+	{
+		int delayMs = execute.getLogic().getDelayMs();
+		
+		if(delayMs > 0 && delayed.add(execute))
+		{
+			Timer.schedule(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					delayed.remove(execute);
+					
+					handler.signal();
+				}
+			}, delayMs);
 		}
 	}
 
@@ -231,25 +448,19 @@ public class ComponentHandler
 						 * The GWindow currently only supports offsets yet delivered by the corresponding Viewport.
 						 */
 
-						GIPoint offset = window.getStyle().isMovableForViewport() ? new GIPoint(source.getOffset()) : new GIPoint();
-
-						Polygon outerArea = window.getStyle().getPrimaryLook();
-
-						outerArea = ShapeTransform.movePolygonTo(outerArea, offset.copy().add(outerArea.getBounds().getLocation()).toPoint());
-
-						Polygon innerArea = window.getStyle().getSecondaryLook();
-
-						innerArea = ShapeTransform.movePolygonTo(innerArea, offset.copy().add(innerArea.getBounds().getLocation()).toPoint());
+						transform.set(source.getOrigin(), source.getOffset(), source.getScale());
 
-						Polygon exitButtonArea = window.getExitButton().getStyle().getPrimaryLook();
+						int offsetX = transform.getOffsetX(window.getStyle().isMovableForViewport());
+						int offsetY = transform.getOffsetY(window.getStyle().isMovableForViewport());
 
-						exitButtonArea = ShapeTransform.movePolygonTo(exitButtonArea, offset.copy().add(exitButtonArea.getBounds().getLocation()).toPoint());
+						// The areas are tested by transforming the cursor back instead of creating moved copies of them.
+						boolean insideInnerArea = ShapeTransform.contains(window.getStyle().getSecondaryLook(), offsetX, offsetY, mouseLocation.x, mouseLocation.y);
 
-						Polygon minimizeButtonArea = window.getMinimizeButton().getStyle().getPrimaryLook();
+						boolean insideExitButton = ShapeTransform.contains(window.getExitButton().getStyle().getPrimaryLook(), offsetX, offsetY, mouseLocation.x, mouseLocation.y);
 
-						minimizeButtonArea = ShapeTransform.movePolygonTo(minimizeButtonArea, offset.copy().add(minimizeButtonArea.getBounds().getLocation()).toPoint());
+						boolean insideMinimizeButton = ShapeTransform.contains(window.getMinimizeButton().getStyle().getPrimaryLook(), offsetX, offsetY, mouseLocation.x, mouseLocation.y);
 
-						boolean focusedWindowBorderFirstTime = this.initialLoc == null && clicking && !innerArea.contains(mouseLocation) && !exitButtonArea.contains(mouseLocation) && !minimizeButtonArea.contains(mouseLocation);					
+						boolean focusedWindowBorderFirstTime = this.initialLoc == null && clicking && !insideInnerArea && !insideExitButton && !insideMinimizeButton;
 
 						if(focusedWindowBorderFirstTime)
 						{
@@ -260,11 +471,10 @@ public class ComponentHandler
 
 						if(aboutToMoveWindowYet)
 						{
-							GIPoint cursorDiff = new GIPoint(mouseLocation).sub(initialLoc);
+							// Moves the window by the distance the cursor has moved.
+							transform.load(window.getStyle().getLocation()).add(mouseLocation.x - initialLoc.x, mouseLocation.y - initialLoc.y);
 
-							GIPoint moved = new GIPoint(window.getStyle().getLocation()).add(cursorDiff);//.div(target.getScale(), window.getStyle().isScalableForViewport());
-
-							window.getStyle().setLocation(moved.toPoint());
+							window.getStyle().setLocation(transform.toPoint(new Point()));
 
 							this.initialLoc = mouseLocation;
 						}
@@ -298,28 +508,31 @@ public class ComponentHandler
 
 							ArrayList<Polygon[]> shapeTable = selectionbox.getShapeTable();
 
+							if(source != null)
+							{
+								transform.set(source.getOrigin(), source.getOffset(), source.getScale());
+							}
+							else
+							{
+								transform.set(0, 0, 0, 0, 1f);
+							}
+
+							int viewportRelativeX = transform.getTranslationX(true);
+							int viewportRelativeY = transform.getTranslationY(true);
+
+							float scale = transform.getScale(focused.getStyle().isScalableForViewport());
+
 							for(int i = 0; i < shapeTable.size(); i++)
 							{
-								Point offset = source != null ? source.getOffset() : new Point();
-								
-								Point viewportRelative = new GIPoint(offset).add(source.getOrigin()).toPoint();
-								
 								Polygon rect0 = shapeTable.get(i)[0];
 								Polygon rect2 = shapeTable.get(i)[2];
-								
-								Point pos0 = new GIPoint(rect0.getBounds().getLocation()).add(viewportRelative).toPoint();
-
-								Point pos2 = new GIPoint(rect2.getBounds().getLocation()).add(viewportRelative).toPoint();
-								
-								boolean isViewportAvailable = source != null;
-								
-								float scale = isViewportAvailable && focused.getStyle().isScalableForViewport() ? source.getScale() : 1f;
-
-								// Creates two moved and scaled copies (by the global offset and scale factor).
-								Polygon transformed0 = ShapeTransform.scalePolygon(ShapeTransform.movePolygonTo(rect0, pos0), scale);
-								Polygon transformed2 = ShapeTransform.scalePolygon(ShapeTransform.movePolygonTo(rect2, pos2), scale);
-								
-								if(transformed0.contains(mouseLocation) || transformed2.contains(mouseLocation))
+
+								// Tests the cursor against both shapes as if they were moved and scaled (by the global offset and scale factor),
+								// but without creating transformed copies of them.
+								boolean inside0 = ShapeTransform.contains(rect0, viewportRelativeX, viewportRelativeY, scale, mouseLocation.x, mouseLocation.y);
+								boolean inside2 = ShapeTransform.contains(rect2, viewportRelativeX, viewportRelativeY, scale, mouseLocation.x, mouseLocation.y);
+
+								if(inside0 || inside2)
 								{
 									selectionbox.selectOptionAt(i);
 								}
@@ -381,10 +594,13 @@ public class ComponentHandler
 		boolean activeColorIsSame = windowButton.getStyle().getPrimaryColor().equals(windowButton.getClickColor());
 		boolean hoverColorIsSame = windowButton.getStyle().getPrimaryColor().equals(windowButton.getHoverColor());
 
-		Point windowButtonLocation = new GIPoint(windowButton.getStyle().getLocation()).add(source.getOrigin()).add(source.getOffset()).toPoint();
+		transform.set(source.getOrigin(), source.getOffset(), source.getScale()).load(windowButton.getStyle().getLocation()).addOrigin().addOffset(true);
+
+		int windowButtonX = transform.getX();
+		int windowButtonY = transform.getY();
 		
 		// Asking for
-		if(ShapeTransform.movePolygonTo(windowButton.getStyle().getPrimaryLook(), windowButtonLocation).contains(mouseLocation))
+		if(ShapeTransform.containsAt(windowButton.getStyle().getPrimaryLook(), windowButtonX, windowButtonY, mouseLocation.x, mouseLocation.y))
 		{
 			if(clicking)
 			{
@@ -556,13 +772,11 @@ public class ComponentHandler
 
 	// This will trigger the component where the user has performed an action at.
 	// Anyway, keep in mind that a component can only be triggered if it is also enabled (see 'isEnabled()' at GComponent).
-	private void triggerComponent(Viewport target)
+	private void triggerComponent(Viewport target, Point mouseLocation, boolean clicking, int keyStroke)
 	{
 		ComponentSession session = loadSession(target);
 
-		GComponent focused = display.getEventHandler().getMouseAdapter().getFocusedComponent(target);
-
-		Point mouseLocation = display.getEventHandler().getMouseAdapter().getCursorLocation();
+		GComponent focused = display.getEventHandler().getMouseAdapter().getFocusedComponent(target, mouseLocation);
 
 		boolean windowWasMoved = initialLoc != null;
 
@@ -595,16 +809,8 @@ public class ComponentHandler
 
 		preEvaluateEvents(session, focused);
 
-		boolean clicking = display.getEventHandler().getMouseAdapter().isClicking();
-
-		// This line means if the KeyAdapter is active, then only read the currently
-		// pressed key from it.
-		// This is because the KeyAdapter is only available (!= null) when it is
-		// necessary to save resources on the CPU.
-		// Anyway, in Gaming Mode (see definition of it in LayeredDisplay.java for
-		// reference) the KeyAdapter is always initialized and available.
-		int keyStroke = display.getEventHandler().getKeyAdapter().getActiveKey();
-
+		// The pressed key is delivered by a queued input (see 'processInputs(...)'),
+		// so every key is processed exactly once.
 		triggerGeneralLogic(session, target, focused, clicking, mouseLocation, keyStroke);
 		triggerAnimation(session, target, focused, clicking, mouseLocation);
 
@@ -613,11 +819,11 @@ public class ComponentHandler
 		session.setLastlyFocusedComponent(focused);
 
 		// Evaluates a possible GWindow.
-		evaluateWindowComponents(focused);
+		evaluateWindowComponents(focused, mouseLocation, clicking, keyStroke);
 	}
 	
 	// Evaluates all components in a GWindow if the given component is one.
-	private void evaluateWindowComponents(GComponent possibleWindow)
+	private void evaluateWindowComponents(GComponent possibleWindow, Point mouseLocation, boolean clicking, int keyStroke)
 	{
 		// The session is actually closed from this point. No further changes are applied anymore..
 		// From this point it will only check whether there are other components (subroutines) which have to be run,
@@ -639,7 +845,10 @@ public class ComponentHandler
 				{
 					if(windowViewport.isContained(component))
 					{
-						triggerComponent(windowViewport);
+						triggerComponent(windowViewport, mouseLocation, clicking, keyStroke);
+
+						// The key is only processed once, just like every other input.
+						keyStroke = KeyEvent.VK_UNDEFINED;
 					}
 				}
 			}
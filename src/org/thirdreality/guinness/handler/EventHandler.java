@@ -7,7 +7,8 @@ import org.thirdreality.guinness.gui.adapter.MouseAdapter;
 // NOTICE! An EventHandler can only be used with Displays, not with GWindows, as they are only "simulated" windows / displays.
 public class EventHandler
 {
-	// All instances run from here generate ~30% of overall CPU usage
+	// The threads run from here sleep while there is no user input.
+	// Before, they were spinning all the time and generated ~30% of overall CPU usage.
 	
 	private Display display = null;
 
@@ -34,6 +35,9 @@ public class EventHandler
 		// The Display context is needed for calculating front-end-window-related mouse data.
 		mouseAdapter = new MouseAdapter(display);
 
+		// The mouse speed only needs to be measured while the mouse is used.
+		mouseAdapter.setSleepingUntilSignalled(true, 0);
+
 		// After starting the driver (thread) you can receive movement data in real-time.
 		mouseAdapter.getThread().start();
 
@@ -42,6 +46,10 @@ public class EventHandler
 		keyAdapter = new KeyAdapter(display);
 
 		componentHandler = new ComponentHandler(display);
+
+		// All user inputs are queued for the handler thread which wakes up when they arrive.
+		mouseAdapter.setInputQueue(componentHandler.getInputQueue());
+		keyAdapter.setInputQueue(componentHandler.getInputQueue());
 	}
 
 	public void start()
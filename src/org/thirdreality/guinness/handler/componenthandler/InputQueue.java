@@ -0,0 +1,112 @@
+package org.thirdreality.guinness.handler.componenthandler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.thirdreality.guinness.exec.LoopedThread;
+
+// A lock-free queue which passes the user inputs from the AWT listeners (multiple producers)
+// to the handler thread of the ComponentHandler (single consumer).
+// Every input is received exactly once and in the order it was offered.
+// The consumer is signalled on every offered input, so it can sleep while the queue is empty.
+public class InputQueue
+{
+	// The node which was offered last. Producers append their nodes here.
+	private final AtomicReference<Node> last;
+
+	// The node before the next input. It is only used by the consumer.
+	private Node first;
+
+	private final LoopedThread consumer;
+
+	private final AtomicLong offered = new AtomicLong();
+
+	private volatile long polled = 0;
+
+	public InputQueue(LoopedThread consumer)
+	{
+		this.consumer = consumer;
+
+		// The queue starts with an empty node, so producers and the consumer never work on the same reference.
+		first = new Node(null);
+
+		last = new AtomicReference<Node>(first);
+	}
+
+	// Appends an input to the queue. Can be called by multiple threads at the same time.
+	public void offer(UserInput input) throws NullPointerException
+	{
+		if(input == null)
+		{
+			throw new NullPointerException("An InputQueue cannot contain 'null'!");
+		}
+
+		Node node = new Node(input);
+
+		Node previous = last.getAndSet(node);
+
+		// Until this line is reached, the consumer cannot see the new node yet.
+		// This is fine as the consumer is signalled only afterwards.
+		previous.next = node;
+
+		offered.incrementAndGet();
+
+		if(consumer != null)
+		{
+			consumer.signal();
+		}
+	}
+
+	// Removes and returns the next input or 'null' if there is none.
+	// Must only be called by the consumer.
+	public UserInput poll()
+	{
+		Node next = first.next;
+
+		if(next == null)
+		{
+			return null;
+		}
+
+		UserInput input = next.input;
+
+		// The node becomes the new empty node at the beginning.
+		next.input = null;
+
+		first = next;
+
+		polled++;
+
+		return input;
+	}
+
+	// Must only be called by the consumer.
+	public boolean isEmpty()
+	{
+		return first.next == null;
+	}
+
+	// Returns how many inputs were offered in total.
+	public long getOffered()
+	{
+		return offered.get();
+	}
+
+	// Returns how many inputs were received by the consumer in total.
+	public long getPolled()
+	{
+		return polled;
+	}
+
+	private static class Node
+	{
+		private UserInput input;
+
+		private volatile Node next;
+
+		private Node(UserInput input)
+		{
+			this.input = input;
+		}
+	}
+}
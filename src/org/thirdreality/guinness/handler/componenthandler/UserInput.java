@@ -0,0 +1,71 @@
+package org.thirdreality.guinness.handler.componenthandler;
+
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+
+// A single user input which was received by the Mouse- or KeyAdapter.
+// It is queued (see 'InputQueue') and processed by the ComponentHandler afterwards.
+public class UserInput
+{
+	public enum Type
+	{
+		// The cursor was moved (MOVE) or moved while a mouse button is pressed (DRAG).
+		MOVE, DRAG,
+
+		// A mouse button was pressed or released.
+		PRESS, RELEASE,
+
+		// The cursor left the area of the Display.
+		EXIT,
+
+		// A key was pressed.
+		KEY_PRESS
+	}
+
+	private final Type type;
+
+	private final int x, y;
+
+	private final int key;
+
+	private UserInput(Type type, int x, int y, int key)
+	{
+		this.type = type;
+		this.x = x;
+		this.y = y;
+		this.key = key;
+	}
+
+	// Creates a mouse input at the given cursor location (relative to the Viewport).
+	public static UserInput mouse(Type type, Point cursor)
+	{
+		return new UserInput(type, cursor.x, cursor.y, KeyEvent.VK_UNDEFINED);
+	}
+
+	public static UserInput key(int key)
+	{
+		return new UserInput(Type.KEY_PRESS, 0, 0, key);
+	}
+
+	public Type getType()
+	{
+		return type;
+	}
+
+	// Returns the cursor location of a mouse input.
+	public int getX()
+	{
+		return x;
+	}
+
+	public int getY()
+	{
+		return y;
+	}
+
+	// Returns the key of a key input or KeyEvent.VK_UNDEFINED for mouse inputs.
+	public int getKey()
+	{
+		return key;
+	}
+}
@@ -0,0 +1,156 @@
+package org.thirdreality.guinness.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Records the distribution of durations (or other positive values) without locking, so it can be used by many threads at once.
+// Just like an HDR histogram, every power of two is divided into the same amount of buckets.
+// This way, small and large values are recorded with the same relative precision (about 3%) in a fixed amount of memory.
+public class Histogram
+{
+	// Every power of two is divided into 2^SUB_BUCKET_BITS buckets.
+	private static final int SUB_BUCKET_BITS = 5;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// Enough buckets for all positive long values.
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final String name;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final LongAdder count = new LongAdder(), sum = new LongAdder();
+
+	private final AtomicLong max = new AtomicLong();
+
+	public Histogram(String name)
+	{
+		this.name = name;
+	}
+
+	// Returns the bucket of the given value.
+	// Values below SUB_BUCKETS have their own bucket, all greater values share a bucket with the values of the same power of two
+	// which only differ in the bits below the highest SUB_BUCKET_BITS + 1 bits.
+	private static int indexOf(long value)
+	{
+		if(value < SUB_BUCKETS)
+		{
+			return (int) value;
+		}
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	// Returns the lowest value which is recorded into the given bucket.
+	private static long lowestValueOf(int index)
+	{
+		if(index < SUB_BUCKETS)
+		{
+			return index;
+		}
+
+		int shift = index / SUB_BUCKETS - 1;
+
+		return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+	}
+
+	// Records a value. Negative values are recorded as zero (0).
+	public void record(long value)
+	{
+		value = Math.max(0, value);
+
+		counts.incrementAndGet(indexOf(value));
+
+		count.increment();
+		sum.add(value);
+
+		long currentMax = max.get();
+
+		while(value > currentMax && !max.compareAndSet(currentMax, value))
+		{
+			currentMax = max.get();
+		}
+	}
+
+	// Records the time which has passed since the given time (see 'System.nanoTime()').
+	public void recordSince(long startNs)
+	{
+		record(System.nanoTime() - startNs);
+	}
+
+	// Returns the value below which the given percentage of all recorded values are (e.g. 99 for the 99th percentile).
+	// The value is the highest value of its bucket, but never higher than the highest recorded value.
+	public long getPercentile(double percentile)
+	{
+		long total = 0;
+
+		// The buckets are summed up first, as the count might already contain values which are not in the buckets yet.
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			total += counts.get(i);
+		}
+
+		if(total == 0)
+		{
+			return 0;
+		}
+
+		long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+
+		long seen = 0;
+
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			seen += counts.get(i);
+
+			if(seen >= target)
+			{
+				long highest = i + 1 < BUCKETS ? lowestValueOf(i + 1) - 1 : Long.MAX_VALUE;
+
+				return Math.min(highest, getMax());
+			}
+		}
+
+		return getMax();
+	}
+
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	public double getMean()
+	{
+		long recorded = count.sum();
+
+		return recorded == 0 ? 0 : (double) sum.sum() / recorded;
+	}
+
+	public long getMax()
+	{
+		return max.get();
+	}
+
+	// Removes all recorded values.
+	// Values which are recorded at the same time might be removed partly.
+	public void reset()
+	{
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			counts.set(i, 0);
+		}
+
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+}
@@ -0,0 +1,140 @@
+package org.thirdreality.guinness.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Collects the metrics of GUInness, e.g. how long frames take, so you can find out where the time goes.
+// Durations are recorded in nanoseconds into histograms (see 'Histogram'), current values like queue depths are read from gauges.
+// Recording does not lock and only costs a few nanoseconds, so the metrics can stay enabled in production.
+// The metrics can be pulled at any time (see 'getHistograms()', 'getGauges()' or 'report()')
+// or displayed on a Viewport (see 'Viewport.setMetricsHudEnabled(...)').
+public class Metrics
+{
+	// How long 'Viewport.paintComponent(...)' took.
+	public static final String FRAME = "viewport.frame";
+
+	// How long a component was drawn by the design, followed by the type of the component (e.g. "draw.button").
+	public static final String DRAW = "draw.";
+
+	// How long an iteration of the handler thread took (see 'ComponentHandler').
+	public static final String HANDLER_LOOP = "handler.loop";
+
+	// How long it took to find the component below the cursor (see 'MouseAdapter.getFocusedComponent(...)').
+	public static final String HIT_TEST = "handler.hitTest";
+
+	// Returns a current value, e.g. the amount of queued tasks of a ThreadManager.
+	public interface Gauge
+	{
+		public long get();
+	}
+
+	private static volatile boolean enabled = true;
+
+	private static final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+
+	private static final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
+
+	// Tells whether values should be recorded. Check it before measuring, so nothing is measured while it is disabled.
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled)
+	{
+		Metrics.enabled = enabled;
+	}
+
+	// Returns the histogram with the given name, it is created if it does not exist yet.
+	// Keep the returned histogram if you record often, so it does not need to be looked up every time.
+	public static Histogram getHistogram(String name)
+	{
+		Histogram histogram = histograms.get(name);
+
+		if(histogram == null)
+		{
+			Histogram created = new Histogram(name);
+
+			histogram = histograms.putIfAbsent(name, created);
+
+			if(histogram == null)
+			{
+				histogram = created;
+			}
+		}
+
+		return histogram;
+	}
+
+	// Registers a gauge which is read whenever the metrics are pulled.
+	// A gauge which was registered with the same name before is replaced.
+	public static void register(String name, Gauge gauge) throws NullPointerException
+	{
+		if(gauge == null)
+		{
+			throw new NullPointerException("The gauge '" + name + "' cannot be 'null'!");
+		}
+
+		gauges.put(name, gauge);
+	}
+
+	public static void unregister(String name)
+	{
+		gauges.remove(name);
+	}
+
+	public static Map<String, Histogram> getHistograms()
+	{
+		return Collections.unmodifiableMap(histograms);
+	}
+
+	public static Map<String, Gauge> getGauges()
+	{
+		return Collections.unmodifiableMap(gauges);
+	}
+
+	// Removes all recorded values of all histograms.
+	public static void reset()
+	{
+		for(Histogram histogram : histograms.values())
+		{
+			histogram.reset();
+		}
+	}
+
+	// Returns a line for every histogram (in microseconds) and every gauge, ordered by their names.
+	public static List<String> report()
+	{
+		List<String> lines = new ArrayList<String>();
+
+		List<String> names = new ArrayList<String>(histograms.keySet());
+
+		Collections.sort(names);
+
+		for(String name : names)
+		{
+			Histogram histogram = histograms.get(name);
+
+			lines.add(String.format("%-22s n=%-8d mean=%8.1fus p50=%8.1fus p99=%8.1fus max=%8.1fus", name, histogram.getCount(), histogram.getMean() / 1e3, histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3, histogram.getMax() / 1e3));
+		}
+
+		names = new ArrayList<String>(gauges.keySet());
+
+		Collections.sort(names);
+
+		for(String name : names)
+		{
+			Gauge gauge = gauges.get(name);
+
+			if(gauge != null)
+			{
+				lines.add(String.format("%-22s %d", name, gauge.get()));
+			}
+		}
+
+		return lines;
+	}
+}
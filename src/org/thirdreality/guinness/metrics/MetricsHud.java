@@ -0,0 +1,57 @@
+package org.thirdreality.guinness.metrics;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.List;
+
+// Displays the report of the metrics (see 'Metrics.report()') in the upper left corner of a Viewport.
+// This is a debug feature just like the damage overlay, so it is drawn with the font of the Graphics instead of a GUInness font.
+public class MetricsHud
+{
+	// How often the displayed values are updated.
+	public static final long REFRESH_MS = 500;
+
+	private static final int MARGIN_PX = 4;
+
+	private static final Color BACKGROUND = new Color(0, 0, 0, 160), FOREGROUND = new Color(0, 255, 0);
+
+	// The area which was covered when the HUD was drawn the last time.
+	private final Rectangle bounds = new Rectangle();
+
+	public synchronized void draw(Graphics g)
+	{
+		List<String> lines = Metrics.report();
+
+		FontMetrics metrics = g.getFontMetrics();
+
+		int width = 0;
+
+		for(String line : lines)
+		{
+			width = Math.max(width, metrics.stringWidth(line));
+		}
+
+		int lineHeight = metrics.getHeight();
+
+		bounds.setBounds(0, 0, width + 2 * MARGIN_PX, lines.size() * lineHeight + 2 * MARGIN_PX);
+
+		g.setColor(BACKGROUND);
+		g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+
+		g.setColor(FOREGROUND);
+
+		for(int i = 0; i < lines.size(); i++)
+		{
+			g.drawString(lines.get(i), MARGIN_PX, MARGIN_PX + i * lineHeight + metrics.getAscent());
+		}
+	}
+
+	// Returns the area which was covered when the HUD was drawn the last time.
+	// It is empty if the HUD was not drawn yet.
+	public synchronized Rectangle getBounds()
+	{
+		return new Rectangle(bounds);
+	}
+}
@@ -211,7 +211,7 @@ public class Main
 			@Override
 			public void onClick()
 			{
-				viewport.getOffset().translate(1, 0);
+				viewport.setOffset(new Point(viewport.getOffset().x + 1, viewport.getOffset().y));
 			}
 		});
 